@@ -0,0 +1,128 @@
+package com.github.badbadbadbadbad.tsundoku.benchmarks;
+
+import com.github.badbadbadbadbad.tsundoku.Initializer;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeListInfo;
+import com.github.badbadbadbadbad.tsundoku.models.DatabaseModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * SQLite read / write throughput of DatabaseModel, on a throwaway profile filled with a synthetic library.
+ * The program's data folder is redirected by pointing user.home to a temporary folder, so the real database is never touched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int librarySize;
+
+    private Path tempHome;
+    private String originalHome;
+    private DatabaseModel databaseModel;
+    private List<AnimeInfo> library;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        originalHome = System.getProperty("user.home");
+        tempHome = Files.createTempDirectory("tsundoku-benchmark");
+        System.setProperty("user.home", tempHome.toString());
+
+        Initializer.init();
+
+        library = SyntheticLibrary.create(librarySize);
+        fillDatabase(library);
+
+        // Created after filling, the constructor doesn't start any background services
+        databaseModel = new DatabaseModel(null);
+        random = new Random(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", originalHome);
+        try (Stream<Path> files = Files.walk(tempHome)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+
+    /**
+     * Filling the database through DatabaseModel would be one transaction per entry, which takes ages for 100k entries.
+     * Instead, we insert everything in a single transaction.
+     */
+    private void fillDatabase(List<AnimeInfo> library) throws SQLException {
+        String url = "jdbc:sqlite:" + Paths.get(tempHome.toString(), ".local", "share", "tsundoku", "profiles", "Default.db");
+        String sqlInsert = """
+        INSERT INTO anime (id, ownRating, ownStatus, episodesProgress, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl,
+                           publicationStatus, episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate, imagePreview)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+        try (Connection conn = DriverManager.getConnection(url)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlInsert)) {
+                for (AnimeInfo anime : library) {
+                    pstmt.setInt(1, anime.getId());
+                    pstmt.setString(2, anime.getOwnRating());
+                    pstmt.setString(3, anime.getOwnStatus());
+                    pstmt.setInt(4, anime.getEpisodesProgress());
+                    pstmt.setString(5, anime.getTitle());
+                    pstmt.setString(6, anime.getTitleJapanese());
+                    pstmt.setString(7, anime.getTitleEnglish());
+                    pstmt.setString(8, anime.getImageUrl());
+                    pstmt.setString(9, anime.getSmallImageUrl());
+                    pstmt.setString(10, anime.getPublicationStatus());
+                    pstmt.setInt(11, anime.getEpisodesTotal());
+                    pstmt.setString(12, anime.getSource());
+                    pstmt.setString(13, anime.getAgeRating());
+                    pstmt.setString(14, anime.getSynopsis());
+                    pstmt.setString(15, anime.getRelease());
+                    pstmt.setString(16, anime.getStudios());
+                    pstmt.setString(17, anime.getType());
+                    pstmt.setString(18, anime.getLastUpdated());
+                    pstmt.setString(19, anime.getImagePreview());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+
+    @Benchmark
+    public AnimeListInfo readFullDatabase() {
+        return databaseModel.getFullAnimeDatabase();
+    }
+
+    @Benchmark
+    public AnimeInfo readSingleEntry() {
+        return databaseModel.getAnimeEntryFromDatabase(1 + random.nextInt(librarySize));
+    }
+
+    @Benchmark
+    public void writeSingleEntry() {
+        AnimeInfo anime = library.get(random.nextInt(librarySize));
+        anime.setEpisodesProgress(anime.getEpisodesProgress() + 1);
+        databaseModel.updateAnimeDatabaseWithEntry(anime);
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.badbadbadbadbad.tsundoku.benchmarks;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+import com.github.badbadbadbadbad.tsundoku.util.AnimeLogFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter evaluation of the anime Log view (AnimeLogView.onFiltersChanged) over a full library.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int librarySize;
+
+    // none: All filters on "Any", typical: a few dropdowns, search: title search, years: release year range
+    @Param({"none", "typical", "search", "years"})
+    public String filterPreset;
+
+    private List<AnimeInfo> library;
+    private AnimeLogFilter filter;
+
+    @Setup
+    public void setup() {
+        library = SyntheticLibrary.create(librarySize);
+        filter = switch (filterPreset) {
+            case "typical" -> new AnimeLogFilter("", "Backlog", "Any", "Complete", "Any", "Any", "TV", "", "", "", "");
+            case "search" -> new AnimeLogFilter("hoshi", "Any", "Any", "Any", "Any", "Any", "Any", "", "", "", "");
+            case "years" -> new AnimeLogFilter("", "Any", "Any", "Any", "Any", "Any", "Any", "", "", "2000", "2010");
+            default -> new AnimeLogFilter("", "Any", "Any", "Any", "Any", "Any", "Any", "", "", "", "");
+        };
+    }
+
+    @Benchmark
+    public int filterLibrary() {
+        int matches = 0;
+        for (AnimeInfo anime : library) {
+            if (filter.matches(anime)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public void createFilter(Blackhole blackhole) {
+        blackhole.consume(new AnimeLogFilter("hoshi", "Backlog", "Any", "Complete", "Any", "Winter", "TV", "1", "24", "2000", "2010"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.badbadbadbadbad.tsundoku.benchmarks;
+
+import com.github.badbadbadbadbad.tsundoku.external.FlowGapPane;
+import com.github.badbadbadbadbad.tsundoku.util.PaneFinder;
+import javafx.scene.Node;
+import javafx.scene.layout.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Super-index lookups across the five grids of the Log view, as done by the LazyLoader for every visibility update.
+ * Panes and children are plain layout nodes, which don't need the JavaFX toolkit to be running.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaneFinderBenchmark {
+
+    private static final int PANE_COUNT = 5;
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int librarySize;
+
+    private PaneFinder paneFinder;
+    private int[] indices;
+
+    @Setup
+    public void setup() {
+        List<FlowGapPane> panes = new ArrayList<>();
+        for (int i = 0; i < PANE_COUNT; i++) {
+            panes.add(new FlowGapPane(225, 318, 20));
+        }
+
+        // Same uneven split across the grids for every run (most of a library tends to be Completed or Backlog)
+        Random random = new Random(42);
+        int[] weights = {1, 4, 4, 1, 1};
+        List<List<Node>> children = new ArrayList<>();
+        for (int i = 0; i < PANE_COUNT; i++) {
+            children.add(new ArrayList<>());
+        }
+        for (int i = 0; i < librarySize; i++) {
+            int roll = random.nextInt(11);
+            int pane = 0;
+            while (roll >= weights[pane]) {
+                roll -= weights[pane];
+                pane++;
+            }
+            children.get(pane).add(new Region());
+        }
+
+        // Added in one go per pane, as every change to the children makes the pane reflow
+        for (int i = 0; i < PANE_COUNT; i++) {
+            panes.get(i).getChildren().setAll(children.get(i));
+        }
+
+        paneFinder = new PaneFinder(panes);
+
+        indices = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            indices[i] = random.nextInt(librarySize);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int findNode() {
+        int found = 0;
+        for (int index : indices) {
+            if (paneFinder.findNode(index) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int findPaneAndChildIndex() {
+        int found = 0;
+        for (int index : indices) {
+            if (paneFinder.findPaneAndChildIndex(index) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int getTotalItemCount() {
+        return paneFinder.getTotalItemCount();
+    }
+}
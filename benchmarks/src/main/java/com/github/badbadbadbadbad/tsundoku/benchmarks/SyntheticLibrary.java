@@ -0,0 +1,70 @@
+package com.github.badbadbadbadbad.tsundoku.benchmarks;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates fake anime libraries of arbitrary size for the benchmarks.
+ * Values are drawn from the same sets the real data uses, with a fixed seed so runs are comparable across commits.
+ */
+public class SyntheticLibrary {
+
+    private static final String[] OWN_STATUSES = {"In progress", "Backlog", "Completed", "Paused", "Dropped"};
+    private static final String[] OWN_RATINGS = {"Unscored", "Heart", "Liked", "Disliked"};
+    private static final String[] PUBLICATION_STATUSES = {"Complete", "Airing", "Upcoming", "Not yet provided"};
+    private static final String[] AGE_RATINGS = {"G", "PG", "PG13", "R17+", "R+", "Rx", "Not yet provided"};
+    private static final String[] TYPES = {"TV", "Movie", "OVA", "Special", "ONA", "Music", "CM", "PV", "TV Special"};
+    private static final String[] SEASONS = {"Winter", "Spring", "Summer", "Fall"};
+    private static final String[] SOURCES = {"Manga", "Light novel", "Original", "Visual novel", "Web manga"};
+    private static final String[] WORDS = {"Kimi", "no", "Sora", "Hoshi", "Yume", "Monogatari", "Tenshi", "Shoujo",
+            "Sekai", "Mahou", "Koi", "Densetsu", "Kaze", "Tsuki", "Hikari", "Yoru"};
+
+
+    /**
+     * @param size Amount of anime in the library.
+     * @return A library of the requested size, the same for every call with the same size.
+     */
+    public static List<AnimeInfo> create(int size) {
+        Random random = new Random(42);
+        List<AnimeInfo> library = new ArrayList<>(size);
+
+        for (int id = 1; id <= size; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            String release = random.nextInt(20) == 0 ? "Not yet provided"
+                    : SEASONS[random.nextInt(SEASONS.length)] + " " + (1970 + random.nextInt(56));
+
+            AnimeInfo anime = new AnimeInfo(
+                    id,
+                    title,
+                    random.nextBoolean() ? "Not yet provided" : "タイトル " + id,
+                    random.nextBoolean() ? "Not yet provided" : "Title " + id,
+                    "https://cdn.myanimelist.net/images/anime/" + id + "/" + id + "l.jpg",
+                    "https://cdn.myanimelist.net/images/anime/" + id + "/" + id + ".jpg",
+                    PUBLICATION_STATUSES[random.nextInt(PUBLICATION_STATUSES.length)],
+                    random.nextInt(100),
+                    SOURCES[random.nextInt(SOURCES.length)],
+                    AGE_RATINGS[random.nextInt(AGE_RATINGS.length)],
+                    "Synopsis of anime " + id + ". ".repeat(20),
+                    release,
+                    "Studio " + random.nextInt(200),
+                    TYPES[random.nextInt(TYPES.length)],
+                    "2024-01-01"
+            );
+            anime.setOwnStatus(OWN_STATUSES[random.nextInt(OWN_STATUSES.length)]);
+            anime.setOwnRating(OWN_RATINGS[random.nextInt(OWN_RATINGS.length)]);
+            anime.setEpisodesProgress(random.nextInt(12));
+
+            // Real libraries have a preview for nearly every entry (the Log fills them in as covers load),
+            // so the database writes measured here store one too
+            anime.setImagePreview("#203040,#405060,#607080");
+
+            library.add(anime);
+        }
+
+        return library;
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.badbadbadbadbad.tsundoku.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local stand-in for the Jikan v4 API, serving the synthetic (hand-written, Jikan-shaped) page from the fixtures folder.
+ * Answers the endpoints AnimeAPIModel uses (seasons/now, seasons/upcoming, schedules, top/anime, anime search, anime by ID),
+ * optionally with injected latency, 429 rate limit responses and duplicated entries (all of which the real API does too).
+ *
+ * <p>Run standalone with {@code java -cp target/benchmarks.jar com.github.badbadbadbadbad.tsundoku.loadtest.JikanStandInServer [port]},
+ * then start tsundoku with {@code -Dtsundoku.jikanBaseUrl=http://localhost:<port>/v4}.</p>
+ */
+public class JikanStandInServer {
+
+    private static final String RATE_LIMIT_BODY = """
+            {"status":429,"type":"RateLimitException","message":"You are being rate limited by Jikan.","error":null}""";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final Map<String, JsonNode> pages = new HashMap<>();    // Endpoint path -> synthetic page response
+    private final List<JsonNode> entries = new ArrayList<>();       // All synthetic anime, used for lookups by ID
+
+    private volatile long latencyMs = 0;
+    private volatile long jitterMs = 0;
+    private volatile double rateLimitChance = 0;
+    private volatile double duplicateChance = 0;
+
+
+    /**
+     * @param port The port to listen on, or 0 for any free port.
+     */
+    public JikanStandInServer(int port) throws IOException {
+        JsonNode seasonsNow = loadFixture("/fixtures/seasons-now-page1.json");
+
+        // There is only one synthetic page, so every list endpoint serves it
+        pages.put("/v4/seasons/now", seasonsNow);
+        pages.put("/v4/seasons/upcoming", seasonsNow);
+        pages.put("/v4/schedules", seasonsNow);
+        pages.put("/v4/top/anime", seasonsNow);
+        pages.put("/v4/anime", seasonsNow);
+        seasonsNow.get("data").forEach(entries::add);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/v4/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "jikan-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    private JsonNode loadFixture(String resource) throws IOException {
+        try (InputStream in = JikanStandInServer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + resource);
+            }
+            return mapper.readTree(in);
+        }
+    }
+
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * @return The base URL to hand to AnimeAPIModel.
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v4";
+    }
+
+    /**
+     * Every response is delayed by latencyMs plus a random amount up to jitterMs.
+     */
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    /**
+     * @param rateLimitChance Chance (0 to 1) of answering a request with a 429 instead.
+     */
+    public void setRateLimitChance(double rateLimitChance) {
+        this.rateLimitChance = rateLimitChance;
+    }
+
+    /**
+     * @param duplicateChance Chance (0 to 1) of each entry of a page response being sent twice.
+     */
+    public void setDuplicateChance(double duplicateChance) {
+        this.duplicateChance = duplicateChance;
+    }
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        try {
+            long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (random.nextDouble() < rateLimitChance) {
+            respond(exchange, 429, RATE_LIMIT_BODY);
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+
+        // Single anime by ID
+        if (path.startsWith("/v4/anime/")) {
+            try {
+                int id = Integer.parseInt(path.substring("/v4/anime/".length()));
+                respond(exchange, 200, mapper.writeValueAsString(findEntry(id)));
+            } catch (NumberFormatException e) {
+                respond(exchange, 404, "{\"status\":404,\"type\":\"BadResponseException\"}");
+            }
+            return;
+        }
+
+        JsonNode page = pages.get(path);
+        if (page == null) {
+            respond(exchange, 404, "{\"status\":404,\"type\":\"BadResponseException\"}");
+            return;
+        }
+
+        respond(exchange, 200, mapper.writeValueAsString(withDuplicates(page, random)));
+    }
+
+
+    /**
+     * Fixture entries are returned as they are. Unknown IDs get some fixture entry with the ID swapped in,
+     * so any library can be refreshed against this server.
+     */
+    private ObjectNode findEntry(int id) {
+        JsonNode entry = entries.stream()
+                .filter(e -> e.get("mal_id").asInt() == id)
+                .findFirst()
+                .orElseGet(() -> entries.get(Math.floorMod(id, entries.size())).deepCopy());
+
+        ObjectNode data = entry.deepCopy();
+        data.put("mal_id", id);
+
+        ObjectNode response = mapper.createObjectNode();
+        response.set("data", data);
+        return response;
+    }
+
+
+    private JsonNode withDuplicates(JsonNode page, ThreadLocalRandom random) {
+        if (duplicateChance <= 0) {
+            return page;
+        }
+
+        ObjectNode copy = page.deepCopy();
+        ArrayNode data = mapper.createArrayNode();
+        for (JsonNode entry : page.get("data")) {
+            data.add(entry);
+            if (random.nextDouble() < duplicateChance) {
+                data.add(entry);
+            }
+        }
+        copy.set("data", data);
+        return copy;
+    }
+
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+
+        // Gzip like the real API does when asked, so the client's decompression is part of the measurements
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+
+    /**
+     * Standalone mode, to point the actual program at this server.
+     * @param args Optional port (default 8089).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        JikanStandInServer server = new JikanStandInServer(port);
+        server.start();
+        System.out.println("Jikan stand-in running, start tsundoku with -Dtsundoku.jikanBaseUrl=" + server.getBaseUrl());
+    }
+}
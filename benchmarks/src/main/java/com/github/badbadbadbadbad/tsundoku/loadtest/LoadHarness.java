@@ -0,0 +1,203 @@
+package com.github.badbadbadbadbad.tsundoku.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeAPIModel;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeAgeRating;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeListInfo;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives AnimeAPIModel with a mix of browse, search and background refresh traffic against the Jikan stand-in server,
+ * then reports latency percentiles per traffic type.
+ *
+ * <p>Run with {@code java -cp target/benchmarks.jar com.github.badbadbadbadbad.tsundoku.loadtest.LoadHarness [options]}:</p>
+ * <ul>
+ *     <li>--duration &lt;seconds&gt; (default 30)</li>
+ *     <li>--concurrency &lt;workers&gt; (default 4)</li>
+ *     <li>--latency &lt;ms&gt; and --jitter &lt;ms&gt; (default 100 / 100)</li>
+ *     <li>--rate429 &lt;0..1&gt; (default 0.05)</li>
+ *     <li>--duplicates &lt;0..1&gt; (default 0.05)</li>
+ *     <li>--json &lt;file&gt; to also write the results as JSON</li>
+ * </ul>
+ */
+public class LoadHarness {
+
+    private static final String[] SEARCH_WORDS = {"Kimi", "Sora", "Hoshi", "Yume", "Monogatari", "Tenshi", "Sekai", "Koi"};
+
+    // Traffic mix in percent: browse pages, name searches, background updater lookups by ID
+    private static final int BROWSE_WEIGHT = 50;
+    private static final int SEARCH_WEIGHT = 30;
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        JikanStandInServer server = new JikanStandInServer(0);
+        server.setLatency(Long.parseLong(options.getOrDefault("latency", "100")), Long.parseLong(options.getOrDefault("jitter", "100")));
+        server.setRateLimitChance(Double.parseDouble(options.getOrDefault("rate429", "0.05")));
+        server.setDuplicateChance(Double.parseDouble(options.getOrDefault("duplicates", "0.05")));
+        server.start();
+
+        try {
+            LoadHarness harness = new LoadHarness();
+            harness.run(server.getBaseUrl(),
+                    Integer.parseInt(options.getOrDefault("duration", "30")),
+                    Integer.parseInt(options.getOrDefault("concurrency", "4")));
+
+            harness.printReport();
+            if (options.containsKey("json")) {
+                harness.writeJsonReport(new File(options.get("json")));
+            }
+        } finally {
+            server.stop();
+        }
+
+        // The HttpClient of AnimeAPIModel keeps its selector thread alive for a bit
+        System.exit(0);
+    }
+
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+
+    private void run(String baseUrl, int durationSeconds, int concurrency) throws InterruptedException {
+        AnimeAPIModel animeAPIModel = new AnimeAPIModel(baseUrl);
+        animeAPIModel.setTypeFilters(EnumSet.allOf(AnimeType.class));
+        animeAPIModel.setRatingFilters(EnumSet.allOf(AnimeAgeRating.class));
+        animeAPIModel.setSearchFilters("Default", "Any", "", "");
+
+        System.out.println("Running " + concurrency + " workers for " + durationSeconds + " s against " + baseUrl);
+
+        long endTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < endTime) {
+                    runSingleRequest(animeAPIModel);
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+    }
+
+
+    private void runSingleRequest(AnimeAPIModel animeAPIModel) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        long start = System.nanoTime();
+
+        // AnimeAPIModel never throws, failed calls come back as an empty list (or null for single anime)
+        if (roll < BROWSE_WEIGHT) {
+            int page = 1 + random.nextInt(4);
+            AnimeListInfo result = switch (random.nextInt(3)) {
+                case 0 -> animeAPIModel.getCurrentSeason(page).join();
+                case 1 -> animeAPIModel.getUpcoming(page).join();
+                default -> animeAPIModel.getTop(page).join();
+            };
+            record("browse", start, !result.getAnimeList().isEmpty());
+        } else if (roll < BROWSE_WEIGHT + SEARCH_WEIGHT) {
+            String query = SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)];
+            AnimeListInfo result = animeAPIModel.getSearchByName(query, 1).join();
+            record("search", start, !result.getAnimeList().isEmpty());
+        } else {
+            AnimeInfo result = animeAPIModel.getAnimeByID(1 + random.nextInt(60000)).join();
+            record("refresh", start, result != null);
+        }
+    }
+
+
+    private void record(String type, long startNanos, boolean success) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        if (success) {
+            latencies.computeIfAbsent(type, t -> new ConcurrentLinkedQueue<>()).add(micros);
+        } else {
+            failures.computeIfAbsent(type, t -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+
+    private List<String> getTrafficTypes() {
+        Set<String> types = new TreeSet<>(latencies.keySet());
+        types.addAll(failures.keySet());
+        return new ArrayList<>(types);
+    }
+
+    private List<Long> getSortedLatencies(String type) {
+        List<Long> sorted = new ArrayList<>(latencies.getOrDefault(type, new ConcurrentLinkedQueue<>()));
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private int getFailures(String type) {
+        return failures.getOrDefault(type, new AtomicInteger()).get();
+    }
+
+
+    private void printReport() {
+        System.out.printf("%-8s %8s %8s %10s %10s %10s %10s%n", "type", "ok", "failed", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (String type : getTrafficTypes()) {
+            List<Long> sorted = getSortedLatencies(type);
+            System.out.printf("%-8s %8d %8d %10.1f %10.1f %10.1f %10.1f%n", type, sorted.size(), getFailures(type),
+                    percentile(sorted, 50) / 1000.0, percentile(sorted, 90) / 1000.0,
+                    percentile(sorted, 99) / 1000.0, percentile(sorted, 100) / 1000.0);
+        }
+    }
+
+
+    private void writeJsonReport(File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode report = mapper.createArrayNode();
+
+        for (String type : getTrafficTypes()) {
+            List<Long> sorted = getSortedLatencies(type);
+            ObjectNode entry = report.addObject();
+            entry.put("type", type);
+            entry.put("ok", sorted.size());
+            entry.put("failed", getFailures(type));
+            entry.put("p50Micros", percentile(sorted, 50));
+            entry.put("p90Micros", percentile(sorted, 90));
+            entry.put("p99Micros", percentile(sorted, 99));
+            entry.put("maxMicros", percentile(sorted, 100));
+        }
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.badbadbadbadbad.tsundoku.benchmarks.SyntheticLibrary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON parsing and the dedup / type + rating filtering of AnimeAPIModel.
+ * Lives in the models package (of this module) to reach the package-private parsing functions.
+ *
+ * <p>The parse benchmarks use the synthetic Jikan /seasons/now page from the fixtures folder.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnimeAPIModelBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int librarySize;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private AnimeAPIModel animeAPIModel;
+    private String responseBody;
+    private JsonNode responseTree;
+    private List<AnimeInfo> library;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/seasons-now-page1.json")) {
+            responseBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        responseTree = mapper.readTree(responseBody);
+
+        // Like the default config: everything enabled except Rx
+        animeAPIModel = new AnimeAPIModel();
+        animeAPIModel.setTypeFilters(EnumSet.allOf(AnimeType.class));
+        animeAPIModel.setRatingFilters(EnumSet.complementOf(EnumSet.of(AnimeAgeRating.RX)));
+
+        library = SyntheticLibrary.create(librarySize);
+    }
+
+
+    // Full path of a response: String to tree to AnimeListInfo. Independent of librarySize.
+    @Benchmark
+    public AnimeListInfo parseResponse() throws IOException {
+        return animeAPIModel.parseAnimeData(mapper.readTree(responseBody));
+    }
+
+    // Only our part of it, without Jackson reading the String. Independent of librarySize.
+    @Benchmark
+    public AnimeListInfo parseTree() {
+        return animeAPIModel.parseAnimeData(responseTree);
+    }
+
+    @Benchmark
+    public List<AnimeInfo> filterByTypeAndRating() {
+        return animeAPIModel.filterByTypeAndRating(library);
+    }
+
+    @Benchmark
+    public List<AnimeInfo> removeDuplicates() {
+        return animeAPIModel.removeDuplicates(library);
+    }
+}
@@ -33,6 +33,36 @@ LINUX_BUILD=$(find target -name "*.tar.gz")
 LINUX_BUILD_NAME=$(basename "$LINUX_BUILD")
 EXISTING_BUILD="$(pwd)/$LINUX_BUILD_NAME"
 
+# AppCDS training run: Start the packaged app once (with a throwaway home folder) so the JVM dumps the classes
+# loaded during startup to tsundoku.jsa, then ship that archive in the tarball.
+# The launcher recreates the archive on exit if it's missing, so skipping this only makes the very first start slower.
+echo "Creating class data sharing archive..."
+TRAINING_DIR="$(mktemp -d)"
+tar -xzf "$LINUX_BUILD" -C "$TRAINING_DIR"
+APP_DIR=$(dirname "$(find "$TRAINING_DIR" -type d -name libs | head -n 1)")
+LAUNCHER="$APP_DIR/$(basename "$APP_DIR")"
+
+if [ -n "$DISPLAY" ]; then
+    RUN_GUI=""
+elif command -v xvfb-run > /dev/null; then
+    RUN_GUI="xvfb-run -a"
+else
+    RUN_GUI="none"
+fi
+
+if [ "$RUN_GUI" != "none" ] && [ -x "$LAUNCHER" ]; then
+    mkdir -p "$TRAINING_DIR/home"
+    (cd "$APP_DIR" && JDK_JAVA_OPTIONS="-Dtsundoku.cdsTraining=true -Duser.home=$TRAINING_DIR/home" $RUN_GUI "$LAUNCHER")
+    rm -rf "$TRAINING_DIR/home"
+fi
+
+if [ -f "$APP_DIR/tsundoku.jsa" ]; then
+    (cd "$TRAINING_DIR" && tar -czf "$OLDPWD/$LINUX_BUILD" *)
+else
+    echo "No display available for the training run, shipping without class data sharing archive."
+fi
+rm -rf "$TRAINING_DIR"
+
 # Remove existing Linux build tar.gz if it exists
 if [ -f "$EXISTING_BUILD" ]; then
     echo "Removing existing build: $EXISTING_BUILD"
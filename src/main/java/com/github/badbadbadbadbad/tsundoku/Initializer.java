@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.Statement;
 
 /**
@@ -39,6 +40,7 @@ public class Initializer {
         createProgramFolder();
         createSettingsFile();
         createDefaultProfile();
+        updateDatabaseSchema();
     }
 
     /**
@@ -184,7 +186,11 @@ public class Initializer {
                 + "release TEXT, "
                 + "studios TEXT, "
                 + "type TEXT, "
-                + "lastUpdate TEXT DEFAULT CURRENT_DATE"
+                + "lastUpdate TEXT DEFAULT CURRENT_DATE, "
+                + "imagePreview TEXT, "
+                + "nextRefreshAt INTEGER DEFAULT 0, "
+                + "unchangedRefreshes INTEGER DEFAULT 0, "
+                + "contentHash INTEGER"
                 + ");";
 
         try (Connection conn = DriverManager.getConnection(url);
@@ -197,4 +203,57 @@ public class Initializer {
             e.printStackTrace();
         }
     }
+
+
+    /**
+     * Databases created by older versions of the program are missing some columns.
+     * Adds those columns if they're not present yet.
+     */
+    private static void updateDatabaseSchema() {
+        String databaseFilePath = Paths.get(appDataPath, "profiles", "Default.db").toString();
+        String url = "jdbc:sqlite:" + databaseFilePath;
+
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+
+            boolean hasImagePreview = false;
+            boolean hasNextRefreshAt = false;
+            boolean hasUnchangedRefreshes = false;
+            boolean hasContentHash = false;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(anime)")) {
+                while (rs.next()) {
+                    switch (rs.getString("name")) {
+                        case "imagePreview" -> hasImagePreview = true;
+                        case "nextRefreshAt" -> hasNextRefreshAt = true;
+                        case "unchangedRefreshes" -> hasUnchangedRefreshes = true;
+                        case "contentHash" -> hasContentHash = true;
+                    }
+                }
+            }
+
+            if (!hasImagePreview) {
+                stmt.execute("ALTER TABLE anime ADD COLUMN imagePreview TEXT");
+            }
+
+            // Refresh scheduling (see AnimeRefreshPolicy). Existing entries start out as due (0), and get a proper
+            // due time on their first refresh.
+            if (!hasNextRefreshAt) {
+                stmt.execute("ALTER TABLE anime ADD COLUMN nextRefreshAt INTEGER DEFAULT 0");
+            }
+            if (!hasUnchangedRefreshes) {
+                stmt.execute("ALTER TABLE anime ADD COLUMN unchangedRefreshes INTEGER DEFAULT 0");
+            }
+            // Hash of the API data (see AnimeInfo.getContentHash), filled in by the next refresh or edit of each entry
+            if (!hasContentHash) {
+                stmt.execute("ALTER TABLE anime ADD COLUMN contentHash INTEGER");
+            }
+            stmt.execute("CREATE INDEX IF NOT EXISTS anime_nextRefreshAt ON anime (nextRefreshAt)");
+
+            // Lets the views read while the background updater writes. Stored in the database file, so this sticks.
+            stmt.execute("PRAGMA journal_mode=WAL");
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -7,15 +7,27 @@ import com.github.badbadbadbadbad.tsundoku.controllers.ViewsController;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeAPIModel;
 import com.github.badbadbadbadbad.tsundoku.models.ConfigModel;
 import com.github.badbadbadbadbad.tsundoku.models.DatabaseModel;
+import com.github.badbadbadbadbad.tsundoku.util.FxWatchdog;
+import com.github.badbadbadbadbad.tsundoku.util.StartupTimer;
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
 
 public class TsundokuApplication extends Application {
 
+    // Training run for the AppCDS class archive of the packaged build (see build-linux.sh).
+    // Starts up as usual, then quits by itself so the JVM can dump the loaded classes.
+    private static final boolean CDS_TRAINING = Boolean.getBoolean("tsundoku.cdsTraining");
+
     private ViewsController viewsController;
+    private ConfigModel configModel;
+    private DatabaseModel databaseModel;
 
     /**
      * JavaFX main application entrypoint.
@@ -26,17 +38,25 @@ public class TsundokuApplication extends Application {
     @Override
     public void start(Stage stage) throws IOException {
 
+        StartupTimer.mark("JVM and JavaFX launch");
+
         // Make sure data folder for settings and database exist
         Initializer.init();
+        StartupTimer.mark("File integrity check");
 
 
         AnimeAPIModel animeAPImodel = new AnimeAPIModel();
-        ConfigModel configModel = new ConfigModel();
+        this.configModel = new ConfigModel();
+        StartupTimer.mark("Config read");
+
         APIController apiController = new APIController(animeAPImodel, configModel);
         ConfigController configController = new ConfigController(configModel);
-        DatabaseModel databaseModel = new DatabaseModel(apiController);
+        this.databaseModel = new DatabaseModel(apiController);
         DatabaseController databaseController = new DatabaseController(databaseModel);
+        StartupTimer.mark("Controllers and models");
+
         this.viewsController = new ViewsController(stage, apiController, configController, configModel, databaseController);
+        StartupTimer.mark("First view");
 
         // Window top left icon(s)
         String os = System.getProperty("os.name").toLowerCase();
@@ -51,14 +71,47 @@ public class TsundokuApplication extends Application {
 
 
         stage.show();
+
+
+        // The database backup and updater aren't needed for the first paint, so they only start once the window is up.
+        // AnimationTimer handles run at the start of a pulse, so the first frame is only rendered by the second one.
+        new AnimationTimer() {
+            private int frames = 0;
+
+            @Override
+            public void handle(long now) {
+                if (++frames < 2) {
+                    return;
+                }
+                stop();
+
+                StartupTimer.mark("First paint");
+
+                // Only from here on, the startup itself would just be reported as one long stall
+                FxWatchdog.start();
+
+                if (CDS_TRAINING) {
+                    PauseTransition exitDelay = new PauseTransition(Duration.seconds(3));
+                    exitDelay.setOnFinished(e -> Platform.exit());
+                    exitDelay.play();
+                    return;
+                }
+
+                databaseModel.startBackgroundServices();
+            }
+        }.start();
     }
 
     /**
-     * Shuts down active threads in use for background loading on program close.
+     * Shuts down active threads in use for background loading on program close,
+     * and writes out database saves and settings changes that are still waiting in their queues.
      */
     @Override
     public void stop() {
-        viewsController.shutdownLazyLoader();
+        FxWatchdog.stop();
+        viewsController.shutdownViews();
+        databaseModel.shutdown();
+        configModel.shutdown();
     }
 
     /**
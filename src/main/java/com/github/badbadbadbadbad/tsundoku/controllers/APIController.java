@@ -2,7 +2,7 @@ package com.github.badbadbadbadbad.tsundoku.controllers;
 
 import com.github.badbadbadbadbad.tsundoku.models.*;
 
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -77,13 +77,26 @@ public class APIController implements ConfigListener, APIRequestListener {
     }
 
 
+    /**
+     * Gets a page of one of the anime list endpoints, unfiltered by the user's settings. Runs async.
+     * Used by the database updater, to refresh many anime per request.
+     * @param endpoint The list endpoint, like "seasons/now".
+     * @param page The API we currently use uses a "page" parameter with a hardcoded amount of anime per page. This specifies the page to get.
+     * @return A list of retrieved anime data, and the page number that was called.
+     */
+    @Override
+    public CompletableFuture<AnimeListInfo> getAnimeListForRefresh(String endpoint, int page) {
+        return animeAPIModel.getAnimeListForRefresh(endpoint, page);
+    }
+
+
     /**
      * Updates specific filters in the anime API model when they are changed in the settings.
-     * @param animeTypeFilters A collection of boolean filters (show / don't) for types of anime (TV, OVA, Movie..)
-     * @param animeRatingFilters A collection of boolean filters (show / don't) for age ratings of anime (G, PG, R17+..)
+     * @param animeTypeFilters The types of anime to show (TV, OVA, Movie..)
+     * @param animeRatingFilters The age ratings of anime to show (G, PG, R17+..)
      */
     @Override
-    public void onAnimeTypeAndRatingFiltersUpdated(Map<String, Boolean> animeTypeFilters, Map<String, Boolean> animeRatingFilters) {
+    public void onAnimeTypeAndRatingFiltersUpdated(Set<AnimeType> animeTypeFilters, Set<AnimeAgeRating> animeRatingFilters) {
         animeAPIModel.setTypeFilters(animeTypeFilters);
         animeAPIModel.setRatingFilters(animeRatingFilters);
     }
@@ -14,4 +14,5 @@ public interface APIRequestListener {
     CompletableFuture<AnimeListInfo> getTopAnime(int page);
     CompletableFuture<AnimeListInfo> getAnimeSearch(String query, int page);
     CompletableFuture<AnimeInfo> getAnimeByID(int id);
+    CompletableFuture<AnimeListInfo> getAnimeListForRefresh(String endpoint, int page);
 }
@@ -1,9 +1,8 @@
 package com.github.badbadbadbadbad.tsundoku.controllers;
 
+import com.github.badbadbadbadbad.tsundoku.models.AppSettings;
 import com.github.badbadbadbadbad.tsundoku.models.ConfigModel;
 
-import java.util.Map;
-
 /**
  * Serves as a connector between views changing settings, and the config storing all settings.
  */
@@ -15,10 +14,10 @@ public class ConfigController implements GridFilterListener, SidebarListener, Se
     }
 
     /**
-     * Getter for full collection of current settings. Used to initialize the SettingsView.
-     * @return The full collection of current settings.
+     * Getter for the current settings snapshot. Used to initialize the SettingsView.
+     * @return The current (immutable) settings.
      */
-    public Map<String, Object> getCurrentSettings() {return configModel.getCurrentSettings();}
+    public AppSettings getCurrentSettings() {return configModel.getCurrentSettings();}
 
     /**
      * Invoked when the sidebar's media mode (Anime, Games, Manga..) is changed.
@@ -40,10 +39,10 @@ public class ConfigController implements GridFilterListener, SidebarListener, Se
 
     /**
      * Invoked when settings are changed in the settings view.
-     * @param settings The collection of new values to use for settings.
+     * @param settings The settings snapshot with the new values.
      */
     @Override
-    public void onSettingsChanged(Map<String, Object> settings) {configModel.updateSettings(settings);}
+    public void onSettingsChanged(AppSettings settings) {configModel.updateSettings(settings);}
 
     /**
      * Invoked when "Order by" setting in Anime Browse view is changed. Forwards it to config model.
@@ -1,13 +1,16 @@
 package com.github.badbadbadbadbad.tsundoku.controllers;
 
-import java.util.Map;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeAgeRating;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeType;
+
+import java.util.Set;
 
 /**
  * Describes how updates in settings in ConfigModel are forwarded to things dependent on those settings.
  * All functions are set to an empty default because not every listener uses every function here.
  */
 public interface ConfigListener {
-    default void onAnimeTypeAndRatingFiltersUpdated(Map<String, Boolean> animeTypeFilters, Map<String, Boolean> animeRatingFilters) {
+    default void onAnimeTypeAndRatingFiltersUpdated(Set<AnimeType> animeTypeFilters, Set<AnimeAgeRating> animeRatingFilters) {
 
     }
 
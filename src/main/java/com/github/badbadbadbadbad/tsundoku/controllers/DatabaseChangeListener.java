@@ -0,0 +1,19 @@
+package com.github.badbadbadbadbad.tsundoku.controllers;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeChange;
+
+import java.util.List;
+
+/**
+ * Describes how changes to the local database (saves from a popup, background refreshes, new image previews..)
+ * are forwarded to views showing the changed anime, so they can patch just those.
+ */
+public interface DatabaseChangeListener {
+
+    /**
+     * Changes are collected for a short moment and handed over together, at most one change per anime.
+     * Called on a background thread, so UI changes need a Platform.runLater.
+     * @param changes The changes since the last call, in the order they were first made.
+     */
+    void onAnimeEntriesChanged(List<AnimeChange> changes);
+}
@@ -4,6 +4,10 @@ import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeListInfo;
 import com.github.badbadbadbadbad.tsundoku.models.DatabaseModel;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Serves as a connector between the local database and any service trying to read / write data.
  */
@@ -16,32 +20,68 @@ public class DatabaseController implements DatabaseRequestListener {
     }
 
     /**
-     * Reads data on a single anime from local database.
+     * Reads data on a single anime from local database. Runs async.
      * @param id MyAnimeList ID of the requested anime.
-     * @return The full data of the requested anime.
+     * @return The full data of the requested anime, or null if it isn't in the database.
+     */
+    @Override
+    public CompletableFuture<AnimeInfo> requestAnimeFromDatabase(int id) {
+        return databaseModel.getAnimeEntryFromDatabaseAsync(id);
+    }
+
+    /**
+     * Reads data on several anime from local database in one go. Runs async.
+     * @param ids MyAnimeList IDs of the requested anime.
+     * @return The full data of the requested anime that are in the database, by ID.
      */
     @Override
-    public AnimeInfo requestAnimeFromDatabase(int id) {
-        return databaseModel.getAnimeEntryFromDatabase(id);
+    public CompletableFuture<Map<Integer, AnimeInfo>> requestAnimeFromDatabase(List<Integer> ids) {
+        return databaseModel.getAnimeEntriesFromDatabaseAsync(ids);
     }
 
     /**
-     * Reads data on all anime from local database.
+     * Reads data on all anime from local database. Runs async.
      * @return The full data of all locally saved anime.
      */
     @Override
-    public AnimeListInfo requestFullAnimeDatabase() {
-        return databaseModel.getFullAnimeDatabase();
+    public CompletableFuture<AnimeListInfo> requestFullAnimeDatabase() {
+        return databaseModel.getFullAnimeDatabaseAsync();
     }
 
     /**
-     * Writes data of a single anime to local database.
+     * Writes data of a single anime to local database. Runs async, after all writes made before it.
      * Implemented as an upsert: If data on this anime's ID already present, overwrite it.
      * @param animeInfo The full information to be saved for this anime.
+     * @return Completes once the data is written. Reads made after this call see it either way.
      */
     @Override
-    public void onAnimeSaveButtonPressed(AnimeInfo animeInfo) {
-        databaseModel.updateAnimeDatabaseWithEntry(animeInfo);
+    public CompletableFuture<Void> onAnimeSaveButtonPressed(AnimeInfo animeInfo) {
+        return databaseModel.updateAnimeDatabaseWithEntryAsync(animeInfo);
+    }
+
+    /**
+     * Stores the image preview a view computed from a cover it loaded, if the anime is in the database without one.
+     * @param animeInfo The anime the cover belongs to.
+     * @param imagePreview The preview computed from the cover.
+     * @return Completes once the preview is written (or turned out not to be needed).
+     */
+    @Override
+    public CompletableFuture<Void> onImagePreviewComputed(AnimeInfo animeInfo, String imagePreview) {
+        return databaseModel.storeImagePreviewAsync(animeInfo.getId(), animeInfo.getSmallImageUrl(), imagePreview);
+    }
+
+    /**
+     * Registers a view to be told about changes to database entries, whoever made them (popup saves, the background updater..).
+     * @param listener The view to notify. Should be removed again once the view is thrown away.
+     */
+    @Override
+    public void addDatabaseChangeListener(DatabaseChangeListener listener) {
+        databaseModel.addDatabaseChangeListener(listener);
+    }
+
+    @Override
+    public void removeDatabaseChangeListener(DatabaseChangeListener listener) {
+        databaseModel.removeDatabaseChangeListener(listener);
     }
 }
 
@@ -3,11 +3,20 @@ package com.github.badbadbadbadbad.tsundoku.controllers;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeListInfo;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Describes the functions for local database reads / writes.
+ * All of them run async, results arrive on a database thread (so UI changes need a Platform.runLater).
  */
 public interface DatabaseRequestListener {
-    AnimeInfo requestAnimeFromDatabase(int id);
-    AnimeListInfo requestFullAnimeDatabase();
-    void onAnimeSaveButtonPressed(AnimeInfo animeInfo);
+    CompletableFuture<AnimeInfo> requestAnimeFromDatabase(int id);
+    CompletableFuture<Map<Integer, AnimeInfo>> requestAnimeFromDatabase(List<Integer> ids);
+    CompletableFuture<AnimeListInfo> requestFullAnimeDatabase();
+    CompletableFuture<Void> onAnimeSaveButtonPressed(AnimeInfo animeInfo);
+    CompletableFuture<Void> onImagePreviewComputed(AnimeInfo animeInfo, String imagePreview);
+    void addDatabaseChangeListener(DatabaseChangeListener listener);
+    void removeDatabaseChangeListener(DatabaseChangeListener listener);
 }
@@ -1,10 +1,10 @@
 package com.github.badbadbadbadbad.tsundoku.controllers;
 
-import java.util.Map;
+import com.github.badbadbadbadbad.tsundoku.models.AppSettings;
 
 /**
  * Describes the invoked function when settings in the settings view are changed.
  */
 public interface SettingsListener {
-    void onSettingsChanged(Map<String, Object> settings);
+    void onSettingsChanged(AppSettings settings);
 }
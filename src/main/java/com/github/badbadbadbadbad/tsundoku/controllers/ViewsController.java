@@ -1,6 +1,10 @@
 package com.github.badbadbadbadbad.tsundoku.controllers;
 
+import com.github.badbadbadbadbad.tsundoku.models.AnimeAgeRating;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeType;
+import com.github.badbadbadbadbad.tsundoku.models.AppSettings;
 import com.github.badbadbadbadbad.tsundoku.models.ConfigModel;
+import com.github.badbadbadbadbad.tsundoku.util.Metrics;
 import com.github.badbadbadbadbad.tsundoku.views.*;
 import javafx.animation.*;
 import javafx.geometry.Insets;
@@ -13,15 +17,26 @@ import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 
 
 /**
  * This class serves as the manager to create every single view.
  * It also handles the switching of views in the main content area (when sidebar buttons are clicked).
+ *
+ * <p>Views switched away from aren't thrown away, but suspended (see CachedView) and kept in a cache, so switching back
+ * shows them as they were left without rebuilding anything. The least recently shown ones are thrown out once the
+ * cached views add up to more than VIEW_CACHE_BUDGET_BYTES (-Dtsundoku.viewCacheBytes=&lt;bytes&gt;).</p>
  */
 public class ViewsController implements LoadingBarListener, ConfigListener {
 
+    private static final long VIEW_CACHE_BUDGET_BYTES = Long.getLong("tsundoku.viewCacheBytes", 32L * 1024 * 1024);
+
     private final HBox root;
     private final StackPane rootStack;
     private final Stage stage;
@@ -30,9 +45,15 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
     private final DatabaseController databaseController;
     public Region loadingBar;
     private boolean firstTimeStartup = true;
-    private LazyLoaderView currentLazyLoaderView = null;
+
+    // Views by "mediaMode/browseMode", least recently shown first. All of them implement CachedView.
+    private final Map<String, Region> viewCache = new LinkedHashMap<>(16, 0.75f, true);
+    private String currentViewKey = null;
 
     private String languagePreference = "Default";
+    private Set<AnimeType> animeTypeFilters = null;
+    private Set<AnimeAgeRating> animeRatingFilters = null;
+    private long pulseLayoutStart;
 
 
     public ViewsController(Stage stage, APIController apiController, ConfigController configController, ConfigModel configModel, DatabaseController databaseController) {
@@ -74,6 +95,12 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
         scene.getStylesheets().add(getClass().getResource("/CSS/styles.css").toExternalForm());
 
 
+        // CSS + layout time of every pulse, for the Diagnostics view. That's the part of a pulse that grows with
+        // the amount of nodes in the scene (rendering happens on another thread, JavaFX doesn't let us time that).
+        scene.addPreLayoutPulseListener(() -> pulseLayoutStart = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> Metrics.timer("fx.pulseLayout").recordSince(pulseLayoutStart));
+
+
         // To prevent white flicker on expanding resize
         scene.setFill(Color.rgb(35, 36, 42));
 
@@ -136,22 +163,39 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
 
     /**
      * Invoked when sidebar buttons are clicked. Determines the new main content view to show.
-     * Removes the current main content view, then loads in the new main content view.
+     * Suspends the current main content view, then loads in the new main content view (from the cache, if it's in there).
      *
-     * <p>Loads a window darkener effect into the main stackPane as a "loading screen" when switching to a Browse view.</p>
+     * <p>Loads a window darkener effect into the main stackPane as a "loading screen" when switching to a new Browse view.
+     * Cached ones have nothing to load.</p>
      *
      * @param mediaMode
      * @param browseMode
      */
     private void updateMainContent(String mediaMode, String browseMode) {
-        if (currentLazyLoaderView != null) {
-            currentLazyLoaderView.shutdownLazyLoader();
-            currentLazyLoaderView = null;
+        String key = getViewKey(mediaMode, browseMode);
+        if (key.equals(currentViewKey)) {
+            return;
+        }
+
+        if (currentViewKey != null) {
+            ((CachedView) viewCache.get(currentViewKey)).suspend();
         }
 
-        Region newContent = createContentView(mediaMode, browseMode);
+        Region newContent = viewCache.get(key);
+        boolean isNew = newContent == null;
+        if (isNew) {
+            Metrics.cache("cache.views").miss();
+            newContent = createContentView(mediaMode, browseMode);
+            viewCache.put(key, newContent);
+        } else {
+            Metrics.cache("cache.views").hit();
+        }
+        currentViewKey = key;
 
-        boolean shouldAnimate = !firstTimeStartup && browseMode.equals("Browse");
+        evictViews(view -> true, true);
+
+        Region finalContent = newContent;
+        boolean shouldAnimate = !firstTimeStartup && isNew && browseMode.equals("Browse");
         if (shouldAnimate) {
             VBox overlay = new VBox();
             overlay.getStyleClass().add("grid-media-popup-background");
@@ -160,16 +204,57 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
             overlay.setOpacity(0);
 
             darkenWindow(overlay, 0.8, () -> {
-                setMainContent(newContent);
+                showMainContent(finalContent);
                 undarkenWindow(overlay, 0.8);
             });
         } else {
-            setMainContent(newContent);
+            showMainContent(finalContent);
         }
 
         firstTimeStartup = false;
     }
 
+
+    /**
+     * Settings and Diagnostics look the same whatever browse mode is active, so they get one view each.
+     */
+    private String getViewKey(String mediaMode, String browseMode) {
+        return switch (mediaMode) {
+            case "Anime", "Manga", "Games" -> mediaMode + "/" + browseMode;
+            default -> mediaMode;
+        };
+    }
+
+
+    /**
+     * Throws views out of the cache (except the one currently shown), least recently shown first.
+     * @param shouldEvict Which views may be thrown out.
+     * @param onlyOverBudget If true, only until the remaining views fit the memory budget. Else all matching ones.
+     */
+    private void evictViews(Predicate<Region> shouldEvict, boolean onlyOverBudget) {
+        long totalBytes = 0;
+        for (Region view : viewCache.values()) {
+            totalBytes += ((CachedView) view).getEstimatedMemoryBytes();
+        }
+
+        Iterator<Map.Entry<String, Region>> iterator = viewCache.entrySet().iterator();
+        while (iterator.hasNext() && (!onlyOverBudget || totalBytes > VIEW_CACHE_BUDGET_BYTES)) {
+            Map.Entry<String, Region> entry = iterator.next();
+            if (entry.getKey().equals(currentViewKey) || !shouldEvict.test(entry.getValue())) {
+                continue;
+            }
+
+            CachedView view = (CachedView) entry.getValue();
+            totalBytes -= view.getEstimatedMemoryBytes();
+            view.dispose();
+            iterator.remove();
+        }
+
+        Metrics.gauge("views.cachedBytes").set(totalBytes);
+        Metrics.gauge("views.cached").set(viewCache.size());
+    }
+
+
     private Region createContentView(String mediaMode, String browseMode) {
         switch (mediaMode) {
             case "Anime", "Manga", "Games" -> { // TODO placeholder for two of these
@@ -177,11 +262,7 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
                     case "Browse" -> new AnimeBrowseView(
                             stage, this, apiController, configController, databaseController, languagePreference
                     );
-                    case "Log" -> {
-                        AnimeLogView log = new AnimeLogView(stage, databaseController, languagePreference);
-                        currentLazyLoaderView = log;
-                        yield log;
-                    }
+                    case "Log" -> new AnimeLogView(stage, databaseController, languagePreference);
                     default -> throw new IllegalArgumentException("Unknown browse mode: " + browseMode);
                 };
             }
@@ -191,19 +272,23 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
                 );
             }
             case "Settings" -> {
-                Map<String, Object> currentSettings = configController.getCurrentSettings();
+                AppSettings currentSettings = configController.getCurrentSettings();
                 return new SettingsView(configController, currentSettings);
             }
+            case "Diagnostics" -> {
+                return new DiagnosticsView();
+            }
             default -> throw new IllegalArgumentException("Unknown media mode: " + mediaMode);
         }
     }
 
 
-    private void setMainContent(Region content) {
+    private void showMainContent(Region content) {
         if (root.getChildren().size() > 2) {
             root.getChildren().remove(2);
         }
         root.getChildren().add(content);
+        ((CachedView) content).resume();
     }
 
 
@@ -324,16 +409,39 @@ public class ViewsController implements LoadingBarListener, ConfigListener {
      */
     @Override
     public void onLanguagePreferenceUpdated(String language) {
+        if (Objects.equals(language, languagePreference)) {
+            return;
+        }
         this.languagePreference = language;
+
+        // Cached views still show the old titles (and the Log is sorted by them)
+        evictViews(view -> true, false);
+    }
+
+
+    /**
+     * Cached Browse views still show anime of types / ratings that may be filtered out now (or miss ones that aren't).
+     * The search filters don't matter here, each Browse view keeps its own.
+     */
+    @Override
+    public void onAnimeTypeAndRatingFiltersUpdated(Set<AnimeType> typeFilters, Set<AnimeAgeRating> ratingFilters) {
+        if (typeFilters.equals(animeTypeFilters) && ratingFilters.equals(animeRatingFilters)) {
+            return;
+        }
+        this.animeTypeFilters = typeFilters;
+        this.animeRatingFilters = ratingFilters;
+
+        evictViews(view -> view instanceof AnimeBrowseView, false);
     }
 
 
     /**
      * Shuts down active threads in use for background loading on program close.
      */
-    public void shutdownLazyLoader() {
-        if (currentLazyLoaderView != null) {
-            currentLazyLoaderView.shutdownLazyLoader();
+    public void shutdownViews() {
+        for (Region view : viewCache.values()) {
+            ((CachedView) view).dispose();
         }
+        viewCache.clear();
     }
 }
@@ -128,6 +128,71 @@ public class FlowGapPane extends GridPane
         });
     }
 
+    /**
+     * Arithmetic viewport culling helper. Since every row has the same fixed height and the vGap is constant,
+     * the rows overlapping some vertical range can be calculated directly instead of testing the bounds of every child.
+     * Coordinates are in the space of this pane's parent (which is the content of the wrapping scrollPane).
+     * @param minY Upper end of the vertical range.
+     * @param maxY Lower end of the vertical range.
+     * @return Index of the first child overlapping the range, or -1 if no child does.
+     */
+    public int getFirstChildIndexInRange(double minY, double maxY) {
+        int firstRow = getFirstRowInRange(minY);
+        int lastRow = getLastRowInRange(maxY);
+        if (firstRow > lastRow) {
+            return -1;
+        }
+        return firstRow * colsCount.get();
+    }
+
+    /**
+     * Counterpart to getFirstChildIndexInRange.
+     * @param minY Upper end of the vertical range.
+     * @param maxY Lower end of the vertical range.
+     * @return Index of the last child overlapping the range, or -1 if no child does.
+     */
+    public int getLastChildIndexInRange(double minY, double maxY) {
+        int firstRow = getFirstRowInRange(minY);
+        int lastRow = getLastRowInRange(maxY);
+        if (firstRow > lastRow) {
+            return -1;
+        }
+        return Math.min(getChildren().size() - 1, lastRow * colsCount.get() + colsCount.get() - 1);
+    }
+
+    /**
+     * Single child version of the range check, using the row constraint reflowAll assigned to the child.
+     * @param child Some child of this pane.
+     * @param minY Upper end of the vertical range.
+     * @param maxY Lower end of the vertical range.
+     * @return True if the row of the child overlaps the range.
+     */
+    public boolean isChildInRange(Node child, double minY, double maxY) {
+        Integer row = GridPane.getRowIndex(child);
+        if (row == null || child.getParent() != this) {
+            return false;
+        }
+        double rowMinY = getRowsMinY() + row * (fixedTileHeight + getVgap());
+        return rowMinY < maxY && rowMinY + fixedTileHeight > minY;
+    }
+
+    private double getRowsMinY() {
+        return getLayoutY() + snappedTopInset();
+    }
+
+    private int getFirstRowInRange(double minY) {
+        double pitch = fixedTileHeight + getVgap();
+        int row = (int) Math.floor((minY - getRowsMinY() - fixedTileHeight) / pitch) + 1;
+        return Math.max(0, row);
+    }
+
+    private int getLastRowInRange(double maxY) {
+        int filledRows = (int) Math.ceil((double) getChildren().size() / colsCount.get());
+        double pitch = fixedTileHeight + getVgap();
+        int row = (int) Math.ceil((maxY - getRowsMinY()) / pitch) - 1;
+        return Math.min(filledRows - 1, row);
+    }
+
     // Helper functions for coordinate conversions.
     private int coordsToOffset(int col, int row) { return row*colsCount.get() + col; }
     private int offsetToCol(int offset) { return offset%colsCount.get(); }
@@ -6,8 +6,12 @@ package com.github.badbadbadbadbad.tsundoku.models;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.badbadbadbadbad.tsundoku.util.JfrEvents;
+import com.github.badbadbadbadbad.tsundoku.util.Metrics;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -15,10 +19,14 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.zip.GZIPInputStream;
 import java.util.stream.Collectors;
 
 /**
@@ -28,11 +36,23 @@ import java.util.stream.Collectors;
 public class AnimeAPIModel {
 
     Clock utcClock = Clock.systemUTC();
-    private static final String BASE_URL = "https://api.jikan.moe/v4";
-    HttpClient client;
-
-    private Map<String, Boolean> typeFilters;               // Types like TV, Movie, OVA..
-    private Map<String, Boolean> ratingFilters;             // Age ratings like G, PG, R17+..
+    private static final String DEFAULT_BASE_URL = "https://api.jikan.moe/v4";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private final String baseUrl;
+
+    // One client for everything (Browse pages, popups, the background updater), so its connections are kept alive
+    // and reused instead of paying for a new TLS handshake with every request.
+    private final HttpClient client;
+
+    // Requests currently on their way, by URL. Identical requests made meanwhile (the same page clicked twice,
+    // the background updater and a popup asking for the same anime..) wait for the same response instead of sending
+    // their own, Jikan's rate limit is tight enough as is.
+    private final Map<String, CompletableFuture<HttpResponse<byte[]>>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private volatile Set<AnimeType> typeFilters = Set.of();             // Types like TV, Movie, OVA..
+    private volatile Set<AnimeAgeRating> ratingFilters = Set.of();      // Age ratings like G, PG, R17+..
     private String orderBy;
     private String status;
     private String startYear;
@@ -47,6 +67,27 @@ public class AnimeAPIModel {
     private String userAgent = programName + "/" + programVersion + " (Java " + javaVersion + ", " + os + " " + osVersion + ")";
 
 
+    /**
+     * Uses the real Jikan API, unless the program is started with -Dtsundoku.jikanBaseUrl=<url>
+     * (e.g. to point it at the Jikan stand-in server of the benchmarks module).
+     */
+    public AnimeAPIModel() {
+        this(System.getProperty("tsundoku.jikanBaseUrl", DEFAULT_BASE_URL));
+    }
+
+    /**
+     * @param baseUrl The base URL of the Jikan v4 API (or something answering like it), without trailing slash.
+     */
+    public AnimeAPIModel(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)            // Falls back to HTTP/1.1 by itself if the server can't
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+
     /**
      * API request for anime of the current season.
      * <p><a href="https://docs.api.jikan.moe/#tag/seasons/operation/getSeasonNow">Link to documentation</a></p>
@@ -54,33 +95,24 @@ public class AnimeAPIModel {
      * @return Result of API call, processed with parseAnimeData function.
      */
     public CompletableFuture<AnimeListInfo> getCurrentSeason(int page) {
-        String urlString = BASE_URL + "/seasons/now?page=" + page;
-        URI uri = URI.create(urlString);
-        client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("Accept", "application/json")
-                .header("User-Agent", userAgent)
-                .GET()
-                .build();
+        String urlString = baseUrl + "/seasons/now?page=" + page;
+        HttpRequest request = createRequest(urlString);
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .orTimeout(5, TimeUnit.SECONDS)
+        return sendRequest("seasons/now", page, request)
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("getCurrentSeason(): HTTP Error Code " + response.statusCode());
                     }
 
                     try {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode rootNode = mapper.readTree(response.body());
-                        return parseAnimeData(rootNode);
+                        return parseResponse("seasons/now", response, this::parseAnimeData, info -> info.getAnimeList().size());
                     } catch (IOException e) {
                         System.out.println("AnimeAPIModel getCurrentSeason() response parsing error: " + e.getMessage());
                         return new AnimeListInfo(Collections.emptyList(), 1);
                     }
                 })
                 .exceptionally(e -> {
+                    Metrics.counter("api.failures").increment();
                     System.out.println("AnimeAPIModel getCurrentSeason() error: " + e);
                     return new AnimeListInfo(Collections.emptyList(), 1);
                 });
@@ -94,33 +126,24 @@ public class AnimeAPIModel {
      * @return Result of API call, processed with parseAnimeData function.
      */
     public CompletableFuture<AnimeListInfo> getUpcoming(int page) {
-        String urlString = BASE_URL + "/seasons/upcoming?page=" + page;
-        URI uri = URI.create(urlString);
-        client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("Accept", "application/json")
-                .header("User-Agent", userAgent)
-                .GET()
-                .build();
+        String urlString = baseUrl + "/seasons/upcoming?page=" + page;
+        HttpRequest request = createRequest(urlString);
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .orTimeout(5, TimeUnit.SECONDS)
+        return sendRequest("seasons/upcoming", page, request)
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("getUpcoming(): HTTP Error Code " + response.statusCode());
                     }
                     // Handle the parsing and potential exceptions here
                     try {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode rootNode = mapper.readTree(response.body());
-                        return parseAnimeData(rootNode);
+                        return parseResponse("seasons/upcoming", response, this::parseAnimeData, info -> info.getAnimeList().size());
                     } catch (IOException e) {
                         System.out.println("AnimeAPIModel getUpcoming() response parsing error: " + e.getMessage());
                         return new AnimeListInfo(Collections.emptyList(), 1);
                     }
                 })
                 .exceptionally(e -> {
+                    Metrics.counter("api.failures").increment();
                     System.out.println("AnimeAPIModel getUpcoming() error: " + e);
                     return new AnimeListInfo(Collections.emptyList(), 1);
                 });
@@ -134,33 +157,24 @@ public class AnimeAPIModel {
      * @return Result of API call, processed with parseAnimeData function.
      */
     public CompletableFuture<AnimeListInfo> getTop(int page) {
-        String urlString = BASE_URL + "/top/anime?page=" + page;
-        URI uri = URI.create(urlString);
-        client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("Accept", "application/json")
-                .header("User-Agent", userAgent)
-                .GET()
-                .build();
+        String urlString = baseUrl + "/top/anime?page=" + page;
+        HttpRequest request = createRequest(urlString);
 
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .orTimeout(5, TimeUnit.SECONDS)
+        return sendRequest("top/anime", page, request)
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("getTop: HTTP Error Code " + response.statusCode());
                     }
                     try {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode rootNode = mapper.readTree(response.body());
-                        return parseAnimeData(rootNode);
+                        return parseResponse("top/anime", response, this::parseAnimeData, info -> info.getAnimeList().size());
                     } catch (IOException e) {
                         System.out.println("AnimeAPIModel getTop() response parsing error: " + e.getMessage());
                         return new AnimeListInfo(Collections.emptyList(), 1);
                     }
                 })
                 .exceptionally(e -> {
+                    Metrics.counter("api.failures").increment();
                     System.out.println("AnimeAPIModel getTop() error: " + e);
                     return new AnimeListInfo(Collections.emptyList(), 1);
                 });
@@ -175,43 +189,69 @@ public class AnimeAPIModel {
      * @return Result of API call, processed with parseAnimeData function.
      */
     public CompletableFuture<AnimeListInfo> getSearchByName(String query, int page) {
-        String urlString = BASE_URL + "/anime?page=" + page + "&q=" + URLEncoder.encode("\"" + query + "\"", StandardCharsets.UTF_8);
+        String urlString = baseUrl + "/anime?page=" + page + "&q=" + URLEncoder.encode("\"" + query + "\"", StandardCharsets.UTF_8);
         urlString += decodeOrderBy() + decodeStatus() + decodeStartYear() + decodeEndYear(); // Order and filters for search query
 
         
-        URI uri = URI.create(urlString);
-        client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("Accept", "application/json")
-                .header("User-Agent", userAgent)
-                .GET()
-                .build();
+        HttpRequest request = createRequest(urlString);
 
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .orTimeout(5, TimeUnit.SECONDS)
+        return sendRequest("anime (search)", page, request)
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("getSearchByName: HTTP Error Code " + response.statusCode());
                     }
 
                     try {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode rootNode = mapper.readTree(response.body());
-                        return parseAnimeData(rootNode);
+                        return parseResponse("anime (search)", response, this::parseAnimeData, info -> info.getAnimeList().size());
                     } catch (IOException e) {
                         System.out.println("AnimeAPIModel getSearchByName() response parsing error: " + e.getMessage());
                         return new AnimeListInfo(Collections.emptyList(), 1);
                     }
                 })
                 .exceptionally(e -> {
+                    Metrics.counter("api.failures").increment();
                     System.out.println("AnimeAPIModel getSearchByName() error: " + e);
                     return new AnimeListInfo(Collections.emptyList(), 1);
                 });
     }
 
 
+    /**
+     * API request for a page of one of the list endpoints, for refreshing the database in bulk.
+     * Unlike the Browse requests, the result is not filtered by the user's type and rating filters:
+     * the database may well contain anime the filters would hide now.
+     * <p>Used with "seasons/now", "seasons/upcoming" and
+     * <a href="https://docs.api.jikan.moe/#tag/schedules/operation/getSchedules">"schedules"</a>.</p>
+     * @param endpoint The list endpoint, e.g. "seasons/now".
+     * @param page Jikan.moe API always returns (max) 25 items as a page. This specifies the page to be returned of the full data.
+     * @return Result of API call, processed with parseAllAnimeData function. An empty list with last page 1 on a bad API call.
+     */
+    public CompletableFuture<AnimeListInfo> getAnimeListForRefresh(String endpoint, int page) {
+        String urlString = baseUrl + "/" + endpoint + "?page=" + page;
+        HttpRequest request = createRequest(urlString);
+
+        return sendRequest(endpoint, page, request)
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("getAnimeListForRefresh(): HTTP Error Code " + response.statusCode());
+                    }
+
+                    try {
+                        return parseResponse(endpoint, response, this::parseAllAnimeData, info -> info.getAnimeList().size());
+                    } catch (IOException e) {
+                        System.out.println("AnimeAPIModel getAnimeListForRefresh() response parsing error: " + e.getMessage());
+                        return new AnimeListInfo(Collections.emptyList(), 1);
+                    }
+                })
+                .exceptionally(e -> {
+                    Metrics.counter("api.failures").increment();
+                    System.out.println("AnimeAPIModel getAnimeListForRefresh() error: " + e);
+                    return new AnimeListInfo(Collections.emptyList(), 1);
+                });
+    }
+
+
     /**
      * API request for a specific anime depending on its MyAnimeList ID.
      * <p><a href="https://docs.api.jikan.moe/#tag/anime/operation/getAnimeById">Link to documentation</a></p>
@@ -219,39 +259,144 @@ public class AnimeAPIModel {
      * @return Result of API call, processed with parseSingleAnimeData function. Returns null on a bad API call.
      */
     public CompletableFuture<AnimeInfo> getAnimeByID(int id) {
-        String urlString = BASE_URL + "/anime/" + id;
-        URI uri = URI.create(urlString);
-        client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("Accept", "application/json")
-                .header("User-Agent", userAgent)
-                .GET()
-                .build();
+        String urlString = baseUrl + "/anime/" + id;
+        HttpRequest request = createRequest(urlString);
 
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .orTimeout(5, TimeUnit.SECONDS)
+        return sendRequest("anime/{id}", 0, request)
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("getAnimeByID: HTTP Error Code " + response.statusCode());
                     }
                     try {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode rootNode = mapper.readTree(response.body());
-                        return parseSingleAnimeData(rootNode);
+                        return parseResponse("anime/{id}", response, this::parseSingleAnimeData, info -> info == null ? 0 : 1);
                     } catch (IOException e) {
                         System.out.println("AnimeAPIModel getAnimeByID() response parsing error: " + e.getMessage());
                         return null;
                     }
                 })
                 .exceptionally(e -> {
+                    Metrics.counter("api.failures").increment();
                     System.out.println("AnimeAPIModel getAnimeByID() error: " + e);
                     return null;
                 });
     }
 
 
+    /**
+     * Builds a GET request with the headers every API call uses.
+     * Responses are asked for gzipped, Jikan's JSON shrinks to a fraction of its size.
+     */
+    private HttpRequest createRequest(String urlString) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(urlString))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .header("User-Agent", userAgent)
+                .GET()
+                .build();
+    }
+
+
+    /**
+     * Sends a request to the API, unless the same request is already on its way, then its response is shared.
+     * Only the raw response is shared: every caller parses its own AnimeInfo objects from it,
+     * as those are mutable (user's progress) and callers shouldn't see each other's changes.
+     * @param endpoint Name of the endpoint, for the metrics / events
+     * @param page The requested page, or 0 for endpoints without pages
+     * @param request The finished request
+     * @return The pending response. Fails with a timeout after REQUEST_TIMEOUT without one.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> sendRequest(String endpoint, int page, HttpRequest request) {
+        String key = request.uri().toString();
+
+        CompletableFuture<HttpResponse<byte[]>> shared = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<byte[]>> inFlight = inFlightRequests.putIfAbsent(key, shared);
+        if (inFlight != null) {
+            Metrics.counter("api.coalesced").increment();
+            return inFlight;
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> pending;
+        try {
+            pending = exchange(endpoint, page, request);
+        } catch (RuntimeException e) {
+            // sendAsync throws right away for some bad requests. The entry has to go, or every identical
+            // request after this one would wait on it forever.
+            inFlightRequests.remove(key, shared);
+            shared.completeExceptionally(e);
+            return shared;
+        }
+
+        // Removed before completing, so anyone asking after the response arrived gets a fresh one
+        pending.whenComplete((response, error) -> {
+            inFlightRequests.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(response);
+            }
+        });
+        return shared;
+    }
+
+
+    /**
+     * The actual HTTP exchange, recording its duration for the Diagnostics view and as a JFR event.
+     * The body is kept as it arrived (possibly gzipped), parseResponse decompresses it while parsing.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> exchange(String endpoint, int page, HttpRequest request) {
+        JfrEvents.HttpExchange event = new JfrEvents.HttpExchange();
+        event.begin();
+
+        return Metrics.timer("api." + endpoint).time(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .whenComplete((response, error) -> {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.endpoint = endpoint;
+                        event.page = page;
+                        event.statusCode = response != null ? response.statusCode() : -1;
+                        event.bytes = response != null ? response.body().length : 0;
+                        event.commit();
+                    }
+                });
+    }
+
+
+    /**
+     * Parses the body of an API response, recording it as a JFR event.
+     * Gzipped bodies are decompressed on the fly while Jackson reads them, there's no inflated copy of the JSON in between.
+     * @param endpoint Name of the endpoint the response came from, for the event
+     * @param response The response
+     * @param parser parseAnimeData or parseSingleAnimeData
+     * @param entryCount Counts the entries in the parsed result, for the event
+     */
+    private <T> T parseResponse(String endpoint, HttpResponse<byte[]> response, Function<JsonNode, T> parser, ToIntFunction<T> entryCount) throws IOException {
+        JfrEvents.JsonParse event = new JfrEvents.JsonParse();
+        event.begin();
+
+        InputStream body = new ByteArrayInputStream(response.body());
+        boolean gzipped = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+
+        T result;
+        try (InputStream in = gzipped ? new GZIPInputStream(body) : body) {
+            result = parser.apply(objectMapper.readTree(in));
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.bytes = response.body().length;
+            event.entries = entryCount.applyAsInt(result);
+            event.commit();
+        }
+        return result;
+    }
+
+
     /**
      * Processes results of an API call from JSON tree form to something more usable.
      * Data for every anime element is parsed and stored in a AnimeInfo container object.
@@ -259,7 +404,19 @@ public class AnimeAPIModel {
      * @param node The JSON tree full of anime data returned by an API request.
      * @return An AnimeListInfo object, containing a List of processed anime data in AnimeInfo form, together with the page number of the request.
      */
-    private AnimeListInfo parseAnimeData(JsonNode node) {
+    // Package-private (as are removeDuplicates and filterByTypeAndRating) so the benchmarks module can reach it
+    AnimeListInfo parseAnimeData(JsonNode node) {
+        AnimeListInfo allAnime = parseAllAnimeData(node);
+        return new AnimeListInfo(filterByTypeAndRating(allAnime.getAnimeList()), allAnime.getLastPage());
+    }
+
+
+    /**
+     * Same as parseAnimeData, but without applying the user's type and rating filters.
+     * @param node The JSON tree full of anime data returned by an API request.
+     * @return An AnimeListInfo object, containing all anime of the response (minus duplicates) and the last page.
+     */
+    private AnimeListInfo parseAllAnimeData(JsonNode node) {
         List<AnimeInfo> animeList = new ArrayList<>();
         JsonNode dataArray = node.get("data");
 
@@ -360,8 +517,7 @@ public class AnimeAPIModel {
 
         int lastPage = node.get("pagination").get("last_visible_page").asInt();
 
-        List<AnimeInfo> filteredAnimeList = filterByTypeAndRating(animeList);
-        return new AnimeListInfo(removeDuplicates(filteredAnimeList), lastPage);
+        return new AnimeListInfo(removeDuplicates(animeList), lastPage);
     }
 
 
@@ -568,7 +724,7 @@ public class AnimeAPIModel {
      * @param animeList A List of AnimeInfo objects, created by parseAnimeData().
      * @return The same List, with duplicates filtered from the List.
      */
-    private List<AnimeInfo> removeDuplicates(List<AnimeInfo> animeList) {
+    List<AnimeInfo> removeDuplicates(List<AnimeInfo> animeList) {
         Set<Integer> seenIds = new HashSet<>();
         return animeList.stream()
                 .filter(anime -> seenIds.add(anime.getId()))
@@ -583,20 +739,24 @@ public class AnimeAPIModel {
      * @param animeList A List of AnimeInfo objects, created by parseAnimeData().
      * @return The same List, with anime of unwanted age / type ratings removed from the List.
      */
-    private List<AnimeInfo> filterByTypeAndRating(List<AnimeInfo> animeList) {
+    List<AnimeInfo> filterByTypeAndRating(List<AnimeInfo> animeList) {
+        // Read once, so a whole page is filtered with the same settings even if they change meanwhile
+        Set<AnimeType> types = typeFilters;
+        Set<AnimeAgeRating> ratings = ratingFilters;
+
         return animeList.stream()
-                .filter(anime -> typeFilters.getOrDefault(anime.getType(), false))
-                .filter(anime -> ratingFilters.getOrDefault(anime.getAgeRating(), false))
+                .filter(anime -> anime.getAnimeType() != null && types.contains(anime.getAnimeType()))
+                .filter(anime -> anime.getAnimeAgeRating() != null && ratings.contains(anime.getAnimeAgeRating()))
                 .collect(Collectors.toList());
     }
 
 
-    public void setTypeFilters(Map<String, Boolean> typeFilters) {
+    public void setTypeFilters(Set<AnimeType> typeFilters) {
         this.typeFilters = typeFilters;
     }
 
 
-    public void setRatingFilters(Map<String, Boolean> ratingFilters) {
+    public void setRatingFilters(Set<AnimeAgeRating> ratingFilters) {
         this.ratingFilters = ratingFilters;
     }
 
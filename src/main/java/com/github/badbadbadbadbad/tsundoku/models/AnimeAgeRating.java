@@ -0,0 +1,50 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Anime age ratings as used by MyAnimeList, shortened the way AnimeAPIModel shortens them.
+ * The labels are the Strings stored in the database and config.
+ */
+public enum AnimeAgeRating {
+    G("G"), //
+    PG("PG"), //
+    PG13("PG13"), //
+    R17("R17+"), //
+    R_PLUS("R+"), //
+    RX("Rx"), //
+    NOT_YET_PROVIDED("Not yet provided"), //
+    ;
+
+    private static final Map<String, AnimeAgeRating> byLabel = new HashMap<>();
+
+    static {
+        for (AnimeAgeRating rating : values()) {
+            byLabel.put(rating.label, rating);
+        }
+    }
+
+    private final String label;
+
+    AnimeAgeRating(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The age rating with this label, or null for ratings we don't know (which filters then never let through).
+     */
+    public static AnimeAgeRating fromLabel(String label) {
+        return byLabel.get(label);
+    }
+
+    // The settings view lists these generically, by their labels
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A change to one anime in the database, as published by DatabaseModel to its DatabaseChangeListeners.
+ *
+ * @param id The ID of the changed anime.
+ * @param anime The anime as it is stored now, or null if it was removed from the database.
+ * @param fields What changed about it.
+ */
+public record AnimeChange(int id, AnimeInfo anime, Set<Field> fields) {
+
+    public enum Field {
+        ADDED,
+        REMOVED,
+        OWN_STATUS,
+        OWN_RATING,
+        EPISODES_PROGRESS,
+        API_DATA,               // Anything that comes from the API (title, status, episodes, cover..)
+        IMAGE_PREVIEW
+    }
+
+
+    /**
+     * Compares two versions of a database entry.
+     * @param oldAnime The entry before the write, or null if it wasn't in the database.
+     * @param newAnime The entry after the write, or null if it isn't in the database anymore.
+     * @return The change between the two, or null if nothing changed.
+     */
+    public static AnimeChange between(AnimeInfo oldAnime, AnimeInfo newAnime) {
+        if (oldAnime == null && newAnime == null) {
+            return null;
+        }
+        if (oldAnime == null) {
+            return new AnimeChange(newAnime.getId(), newAnime, EnumSet.of(Field.ADDED));
+        }
+        if (newAnime == null) {
+            return new AnimeChange(oldAnime.getId(), null, EnumSet.of(Field.REMOVED));
+        }
+
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        if (!Objects.equals(oldAnime.getOwnStatus(), newAnime.getOwnStatus())) {
+            fields.add(Field.OWN_STATUS);
+        }
+        if (!Objects.equals(oldAnime.getOwnRating(), newAnime.getOwnRating())) {
+            fields.add(Field.OWN_RATING);
+        }
+        if (oldAnime.getEpisodesProgress() != newAnime.getEpisodesProgress()) {
+            fields.add(Field.EPISODES_PROGRESS);
+        }
+        if (oldAnime.getContentHash() != newAnime.getContentHash()) {
+            fields.add(Field.API_DATA);
+        }
+        if (!Objects.equals(oldAnime.getImagePreview(), newAnime.getImagePreview())) {
+            fields.add(Field.IMAGE_PREVIEW);
+        }
+
+        return fields.isEmpty() ? null : new AnimeChange(newAnime.getId(), newAnime, fields);
+    }
+
+
+    /**
+     * Folds a later change to the same anime into this one, so listeners get one change per anime and batch.
+     * @param later The later change.
+     * @return The combined change, with the later state of the anime.
+     */
+    public AnimeChange mergedWith(AnimeChange later) {
+        if (later.isRemoved()) {
+            return later;
+        }
+
+        Set<Field> merged = EnumSet.copyOf(fields);
+        merged.addAll(later.fields);
+        merged.remove(Field.REMOVED);       // Removed and added again in the same batch
+        return new AnimeChange(id, later.anime, merged);
+    }
+
+
+    public boolean isRemoved() {
+        return anime == null;
+    }
+
+    public boolean affectsAny(Field... candidates) {
+        for (Field field : candidates) {
+            if (fields.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -10,6 +10,7 @@ public class AnimeInfo {
     private String ownRating = "Unscored";                  // Rating of "Unscored", "Heart", "Liked", "Disliked"
     private String ownStatus = "Untracked";                 // Own progress status of "Untracked", "Backlog", "In progress", "Completed", "Paused", "Dropped"
     private int episodesProgress = 0;                       // Amount of episodes watched
+    private String imagePreview = null;                     // Tiny colour preview of the cover computed by us (see ImagePreviewUtils), or null
 
     private final int id;                                   // MyAnimeList ID
     private final String title;                             // "Default" title used by MyAnimeList (usually roumaji)
@@ -27,6 +28,9 @@ public class AnimeInfo {
     private final String type;                              // Enum of "TV", "Movie", "OVA", "Special", "ONA", "Music", "CM", "PV", "TV Special", or "Not yet provided"
     private final String lastUpdated;                       // Last update of this information container in YYYY-MM-DD format, UTC time zone (because SQLite uses that)
 
+    private final AnimeType animeType;                      // Type and age rating parsed once here, so filtering doesn't compare Strings.
+    private final AnimeAgeRating animeAgeRating;            // null if the API ever sends something we don't know
+
     public AnimeInfo(int id, String title, String titleJapanese, String titleEnglish, String imageUrl,
                      String smallImageUrl, String publicationStatus, int episodesTotal, String source,
                      String ageRating, String synopsis, String release, String studios, String type, String lastUpdated) {
@@ -45,8 +49,26 @@ public class AnimeInfo {
         this.studios = studios;
         this.type = type;
         this.lastUpdated = lastUpdated;
+
+        this.animeType = AnimeType.fromLabel(type);
+        this.animeAgeRating = AnimeAgeRating.fromLabel(ageRating);
     }
 
+    /**
+     * A copy to edit, so the original (say, the data of a grid item) only changes once the edits are saved.
+     * @return A new AnimeInfo with the same API data, user's progress and image preview.
+     */
+    public AnimeInfo copy() {
+        AnimeInfo copy = new AnimeInfo(id, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl, publicationStatus,
+                episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdated);
+        copy.ownRating = ownRating;
+        copy.ownStatus = ownStatus;
+        copy.episodesProgress = episodesProgress;
+        copy.imagePreview = imagePreview;
+        return copy;
+    }
+
+
     public void setOwnRating(String newRating) {
         this.ownRating = newRating;
     }
@@ -71,6 +93,14 @@ public class AnimeInfo {
         return episodesProgress;
     }
 
+    public void setImagePreview(String imagePreview) {
+        this.imagePreview = imagePreview;
+    }
+
+    public String getImagePreview() {
+        return imagePreview;
+    }
+
 
     public int getId() {
         return id;
@@ -129,4 +159,37 @@ public class AnimeInfo {
     }
 
     public String getLastUpdated() { return lastUpdated; }
+
+    public AnimeType getAnimeType() {
+        return animeType;
+    }
+
+    public AnimeAgeRating getAnimeAgeRating() {
+        return animeAgeRating;
+    }
+
+
+    /**
+     * A hash of the data that comes from the API, i.e. everything except the user's progress, our image preview
+     * and the lastUpdated date. Stored with each database entry, so refreshes can tell whether anything changed
+     * without reading the entry back.
+     *
+     * <p>64-bit FNV-1a over the fields, so it stays the same across program versions and JVMs (unlike hashCode()).
+     * Fields are separated by a character that doesn't show up in them, so "ab" + "c" and "a" + "bc" differ.</p>
+     * @return The hash. Never 0, which the database uses for "not known yet".
+     */
+    public long getContentHash() {
+        long hash = 0xcbf29ce484222325L;
+        String[] fields = {title, titleJapanese, titleEnglish, imageUrl, smallImageUrl, publicationStatus,
+                String.valueOf(episodesTotal), source, ageRating, synopsis, release, studios, type};
+
+        for (String field : fields) {
+            String value = field == null ? "\u0000" : field;
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ '\u001F') * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
 }
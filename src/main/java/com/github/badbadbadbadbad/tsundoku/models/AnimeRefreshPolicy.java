@@ -0,0 +1,119 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when an anime in the database should next be refreshed from the API.
+ *
+ * <p>The base interval depends on how likely the data is to change: airing anime and anime about to start get
+ * daily refreshes, upcoming ones further out less often, and finished ones rarely (the older, the rarer).
+ * On top of that, each refresh in a row that didn't change anything doubles the interval (up to MAX_BACKOFF_STEPS times),
+ * and any change resets it. That way entries MAL just doesn't touch anymore stop eating into the API budget.</p>
+ */
+public class AnimeRefreshPolicy {
+
+    private static final Duration MAX_INTERVAL = Duration.ofDays(180);
+    private static final int MAX_BACKOFF_STEPS = 3;
+    private static final double JITTER = 0.1;
+
+    // Used when an API call for the anime failed, so it isn't retried in a tight loop but also isn't lost for days
+    public static final Duration RETRY_INTERVAL = Duration.ofHours(6);
+
+
+    /**
+     * @param anime The (just refreshed or just added) data of the anime.
+     * @param unchangedRefreshes How many refreshes in a row, up to this one, didn't change the anime's data.
+     * @param now The current time.
+     * @return The time from which on the anime is due to be refreshed again.
+     */
+    public static Instant nextRefreshAt(AnimeInfo anime, int unchangedRefreshes, Instant now) {
+        LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        Duration base = baseInterval(anime, today);
+        Duration interval = base.multipliedBy(1L << Math.min(unchangedRefreshes, MAX_BACKOFF_STEPS));
+
+        // Backing off must not skip past an upcoming anime's start, so it is capped at half the time until then
+        Duration max = MAX_INTERVAL;
+        LocalDate start = getReleaseStart(anime.getRelease());
+        if (!"Complete".equals(anime.getPublicationStatus()) && start != null && start.isAfter(today)) {
+            max = Duration.ofDays(Math.max(ChronoUnit.DAYS.between(today, start) / 2, base.toDays()));
+        }
+        if (interval.compareTo(max) > 0) {
+            interval = max;
+        }
+
+        // A bit of jitter, so entries added together (like a whole season at once) don't all come due on the same launch
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        return now.plusSeconds((long) (interval.toSeconds() * factor));
+    }
+
+
+    private static Duration baseInterval(AnimeInfo anime, LocalDate today) {
+        LocalDate start = getReleaseStart(anime.getRelease());
+
+        switch (anime.getPublicationStatus()) {
+            case "Airing":
+                return Duration.ofDays(1);
+
+            case "Upcoming":
+            case "Not yet provided":
+                if (start == null) {
+                    return Duration.ofDays(7);
+                }
+                long daysUntilStart = ChronoUnit.DAYS.between(today, start);
+                if (daysUntilStart <= 14) {
+                    return Duration.ofDays(1); // Also covers "should have started by now", the status will change soon
+                } else if (daysUntilStart <= 90) {
+                    return Duration.ofDays(3);
+                } else {
+                    return Duration.ofDays(14);
+                }
+
+            case "Complete":
+                if (start != null && start.isAfter(today.minusYears(1))) {
+                    return Duration.ofDays(30); // Recent stuff still gets the odd correction
+                }
+                return Duration.ofDays(90);
+
+            default:
+                return Duration.ofDays(7);
+        }
+    }
+
+
+    /**
+     * Turns our "Season Year" release Strings back into a date. Seasons start in January, April, July and October.
+     * @return The first day of the release season, or null for "Not yet provided" (or anything else we can't read).
+     */
+    private static LocalDate getReleaseStart(String release) {
+        if (release == null) {
+            return null;
+        }
+
+        String[] parts = release.split(" ");
+        if (parts.length != 2) {
+            return null;
+        }
+
+        int month = switch (parts[0]) {
+            case "Winter" -> 1;
+            case "Spring" -> 4;
+            case "Summer" -> 7;
+            case "Fall" -> 10;
+            default -> 0;
+        };
+        if (month == 0) {
+            return null;
+        }
+
+        try {
+            return LocalDate.of(Integer.parseInt(parts[1]), month, 1);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
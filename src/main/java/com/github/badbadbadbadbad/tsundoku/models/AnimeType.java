@@ -0,0 +1,52 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Anime types as used by MyAnimeList (and hence, Jikan). The labels are the Strings stored in the database and config.
+ */
+public enum AnimeType {
+    TV("TV"), //
+    MOVIE("Movie"), //
+    OVA("OVA"), //
+    ONA("ONA"), //
+    SPECIAL("Special"), //
+    TV_SPECIAL("TV Special"), //
+    PV("PV"), //
+    CM("CM"), //
+    MUSIC("Music"), //
+    NOT_YET_PROVIDED("Not yet provided"), //
+    ;
+
+    private static final Map<String, AnimeType> byLabel = new HashMap<>();
+
+    static {
+        for (AnimeType type : values()) {
+            byLabel.put(type.label, type);
+        }
+    }
+
+    private final String label;
+
+    AnimeType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The type with this label, or null for types we don't know (which filters then never let through).
+     */
+    public static AnimeType fromLabel(String label) {
+        return byLabel.get(label);
+    }
+
+    // The settings view lists these generically, by their labels
+    @Override
+    public String toString() {
+        return label;
+    }
+}
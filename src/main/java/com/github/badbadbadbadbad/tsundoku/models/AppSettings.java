@@ -0,0 +1,63 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of all settings of this program. ConfigModel publishes a new snapshot on every change,
+ * so anyone holding one can read it (from any thread) without copying or locking.
+ *
+ * <p>The type and rating filters are the sets of types / ratings that should be shown.
+ * They are EnumSet-backed, so checking an anime against them is a bit test.</p>
+ */
+public record AppSettings(
+        String igdbSecret,
+        String mangadexSecret,
+        String profiles,
+        String lastMediaMode,
+        String lastBrowseMode,
+        Set<AnimeType> animeTypeFilters,
+        Set<AnimeAgeRating> animeRatingFilters,
+        String animeOrderBy,
+        String animeStatus,
+        String animeStartYear,
+        String animeEndYear,
+        String weebLanguagePreference
+) {
+
+    public AppSettings {
+        animeTypeFilters = Collections.unmodifiableSet(copyOf(animeTypeFilters, AnimeType.class));
+        animeRatingFilters = Collections.unmodifiableSet(copyOf(animeRatingFilters, AnimeAgeRating.class));
+    }
+
+    // EnumSet.copyOf throws on empty non-EnumSet collections. Thanks, Java.
+    private static <E extends Enum<E>> EnumSet<E> copyOf(Set<E> set, Class<E> type) {
+        EnumSet<E> copy = EnumSet.noneOf(type);
+        if (set != null) {
+            copy.addAll(set);
+        }
+        return copy;
+    }
+
+
+    public AppSettings withSidebarModes(String mediaMode, String browseMode) {
+        return new AppSettings(igdbSecret, mangadexSecret, profiles, mediaMode, browseMode, animeTypeFilters,
+                animeRatingFilters, animeOrderBy, animeStatus, animeStartYear, animeEndYear, weebLanguagePreference);
+    }
+
+    public AppSettings withAnimeFilters(Set<AnimeType> typeFilters, Set<AnimeAgeRating> ratingFilters) {
+        return new AppSettings(igdbSecret, mangadexSecret, profiles, lastMediaMode, lastBrowseMode, typeFilters,
+                ratingFilters, animeOrderBy, animeStatus, animeStartYear, animeEndYear, weebLanguagePreference);
+    }
+
+    public AppSettings withAnimeSearchFilters(String orderBy, String status, String startYear, String endYear) {
+        return new AppSettings(igdbSecret, mangadexSecret, profiles, lastMediaMode, lastBrowseMode, animeTypeFilters,
+                animeRatingFilters, orderBy, status, startYear, endYear, weebLanguagePreference);
+    }
+
+    public AppSettings withLanguagePreference(String languagePreference) {
+        return new AppSettings(igdbSecret, mangadexSecret, profiles, lastMediaMode, lastBrowseMode, animeTypeFilters,
+                animeRatingFilters, animeOrderBy, animeStatus, animeStartYear, animeEndYear, languagePreference);
+    }
+}
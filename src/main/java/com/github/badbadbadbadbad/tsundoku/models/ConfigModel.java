@@ -1,45 +1,58 @@
 package com.github.badbadbadbadbad.tsundoku.models;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.badbadbadbadbad.tsundoku.controllers.ConfigListener;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * This module takes care of everything related to configuration input / output.
  * Updated settings are taken in from the SettingsView and forwarded to all Listeners of this class.
+ *
+ * <p>All settings live in one immutable AppSettings snapshot, which is swapped out on every change.
+ * Readers just take the current snapshot, no copies needed.</p>
+ *
+ * <p>Saving is debounced and done off the FX thread: a change only hands the new snapshot to the config writer,
+ * and the file is written once things have been quiet for a moment. Writes go to a temporary file first, which is
+ * then moved over the config, so a crash mid-write can't leave a half-written config behind.</p>
  */
 public class ConfigModel {
     private static final String appName = "tsundoku";
-    private final String configFilePath;
-
-    private final List<ConfigListener> listeners = new ArrayList<>();
+    private static final long SAVE_DELAY_MS = 500;
 
-    private String igdbSecret;
-    private String mangadexSecret;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    private String profiles;
+    private final String configFilePath;
 
-    // Sidebar listener data
-    private String lastMediaMode;
-    private String lastBrowseMode;
+    private final ScheduledExecutorService saveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "config-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<AppSettings> pendingSave = new AtomicReference<>();  // Latest unsaved snapshot
+    private ScheduledFuture<?> scheduledSave;
 
-    // Anime grid listener
-    private Map<String, Boolean> animeTypeFilters;
-    private Map<String, Boolean> animeRatingFilters;
-    private String animeOrderBy;
-    private String animeStatus;
-    private String animeStartYear;
-    private String animeEndYear;
+    private final List<ConfigListener> listeners = new ArrayList<>();
 
-    private String weebLanguagePreference;
+    private volatile AppSettings settings;
 
     public ConfigModel() {
         this.configFilePath = Paths.get(getAppDataPath(), "config.json").toString();
@@ -66,26 +79,29 @@ public class ConfigModel {
 
 
     /**
-     * Reads the config file's settings on program startup into the corresponding variables of this class.
+     * Reads the config file's settings on program startup into the settings snapshot of this class.
      */
     private void readConfigFile() {
         File configFile = new File(configFilePath);
         if (configFile.exists()) {
             try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                Map<String, Object> settings = objectMapper.readValue(configFile, new TypeReference<Map<String, Object>>() {
-                });
-
-                this.igdbSecret = (String) settings.get("igdbSecret");
-                this.mangadexSecret = (String) settings.get("mangadexSecret");
-                this.profiles = (String) settings.get("profiles");
-
-                this.weebLanguagePreference = (String) settings.get("weebLanguagePreference");
-
-
-                updateSidebarModes((String) settings.get("lastMediaMode"), (String) settings.get("lastBrowseMode"));
-                updateAnimeFilters((Map<String, Boolean>) settings.get("animeTypeFilters"), (Map<String, Boolean>) settings.get("animeRatingFilters"));
-                updateAnimeSearchFilters((Map<String, String>) settings.get("animeSearchFilters"));
+                JsonNode config = objectMapper.readTree(configFile);
+                JsonNode searchFilters = config.path("animeSearchFilters");
+
+                this.settings = new AppSettings(
+                        textOrNull(config, "igdbSecret"),
+                        textOrNull(config, "mangadexSecret"),
+                        textOrNull(config, "profiles"),
+                        textOrNull(config, "lastMediaMode"),
+                        textOrNull(config, "lastBrowseMode"),
+                        readFilterSet(config.path("animeTypeFilters"), AnimeType.class, AnimeType::fromLabel),
+                        readFilterSet(config.path("animeRatingFilters"), AnimeAgeRating.class, AnimeAgeRating::fromLabel),
+                        textOrNull(searchFilters, "Order by"),
+                        textOrNull(searchFilters, "Status"),
+                        textOrNull(searchFilters, "Start year"),
+                        textOrNull(searchFilters, "End year"),
+                        textOrNull(config, "weebLanguagePreference")
+                );
             } catch (IOException e) {
                 System.exit(1);
             }
@@ -94,69 +110,142 @@ public class ConfigModel {
         }
     }
 
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return (value == null || value.isNull()) ? null : value.asText();
+    }
 
     /**
-     * Saves current settings variables of this class to config file.
+     * The config stores filters as label -> true / false maps. Unknown labels are skipped.
      */
-    private void saveConfigFile() {
-        File configFile = new File(configFilePath);
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> settings = new HashMap<>();
+    private static <E extends Enum<E>> Set<E> readFilterSet(JsonNode filterMap, Class<E> type, Function<String, E> fromLabel) {
+        EnumSet<E> set = EnumSet.noneOf(type);
+        filterMap.fields().forEachRemaining(entry -> {
+            E value = fromLabel.apply(entry.getKey());
+            if (value != null && entry.getValue().asBoolean(false)) {
+                set.add(value);
+            }
+        });
+        return set;
+    }
+
 
-            settings.put("igdbSecret", this.igdbSecret);
-            settings.put("mangadexSecret", this.mangadexSecret);
-            settings.put("profiles", this.profiles);
-            settings.put("lastMediaMode", this.lastMediaMode);
-            settings.put("lastBrowseMode", this.lastBrowseMode);
+    /**
+     * Schedules saving the current settings to the config file.
+     * The snapshot is only handed over here, the write happens on the config writer thread once no further
+     * changes came in for SAVE_DELAY_MS, so a burst of changes (toggling through filters etc.) is a single write.
+     */
+    private synchronized void saveConfigFile() {
+        pendingSave.set(settings);
 
-            settings.put("animeTypeFilters", this.animeTypeFilters);
-            settings.put("animeRatingFilters", this.animeRatingFilters);
+        if (scheduledSave != null) {
+            scheduledSave.cancel(false);
+        }
+        scheduledSave = saveExecutor.schedule(this::writePendingSave, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
 
-            Map<String, String> animeSearchFilters = new HashMap<>();
-            animeSearchFilters.put("Order by", this.animeOrderBy);
-            animeSearchFilters.put("Status", this.animeStatus);
-            animeSearchFilters.put("Start year", this.animeStartYear);
-            animeSearchFilters.put("End year", this.animeEndYear);
-            settings.put("animeSearchFilters", animeSearchFilters);
 
-            settings.put("weebLanguagePreference", this.weebLanguagePreference);
+    /**
+     * Writes any pending settings right away and stops the config writer. Called on program close.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (scheduledSave != null) {
+                scheduledSave.cancel(false);
+            }
+        }
+
+        saveExecutor.execute(this::writePendingSave);
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            objectMapper.writeValue(configFile, settings);
 
+    /**
+     * Runs on the config writer thread. Writes the latest snapshot (if there is one) to a temporary file,
+     * then moves it over the config file.
+     */
+    private void writePendingSave() {
+        AppSettings settings = pendingSave.getAndSet(null);
+        if (settings == null) {
+            return;
+        }
+
+        Path configFile = Paths.get(configFilePath);
+        Path tempFile = Paths.get(configFilePath + ".tmp");
+        try {
+            objectMapper.writeValue(tempFile.toFile(), createConfigTree(settings));
+
+            try {
+                Files.move(tempFile, configFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                // Some file systems can't, a plain replace is still better than writing into the config directly
+                Files.move(tempFile, configFile, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
 
-    public Map<String, Object> getCurrentSettings() {
-        Map<String, Object> settings = new HashMap<>();
+    /**
+     * Converts a settings snapshot to the format of the config file.
+     */
+    private ObjectNode createConfigTree(AppSettings settings) {
+        ObjectNode config = objectMapper.createObjectNode();
+
+        config.put("igdbSecret", settings.igdbSecret());
+        config.put("mangadexSecret", settings.mangadexSecret());
+        config.put("profiles", settings.profiles());
+        config.put("lastMediaMode", settings.lastMediaMode());
+        config.put("lastBrowseMode", settings.lastBrowseMode());
+
+        // Every label is written, with false for the hidden ones, so the file stays readable and editable by hand
+        ObjectNode typeFilters = config.putObject("animeTypeFilters");
+        for (AnimeType type : AnimeType.values()) {
+            typeFilters.put(type.getLabel(), settings.animeTypeFilters().contains(type));
+        }
+        ObjectNode ratingFilters = config.putObject("animeRatingFilters");
+        for (AnimeAgeRating rating : AnimeAgeRating.values()) {
+            ratingFilters.put(rating.getLabel(), settings.animeRatingFilters().contains(rating));
+        }
 
-        settings.put("igdbSecret", this.igdbSecret);
-        settings.put("mangadexSecret", this.mangadexSecret);
-        settings.put("profiles", this.profiles);
+        ObjectNode animeSearchFilters = config.putObject("animeSearchFilters");
+        animeSearchFilters.put("Order by", settings.animeOrderBy());
+        animeSearchFilters.put("Status", settings.animeStatus());
+        animeSearchFilters.put("Start year", settings.animeStartYear());
+        animeSearchFilters.put("End year", settings.animeEndYear());
 
-        // Deep copy of animeTypeFilters and animeRatingFilters. They are mutable otherwise.
-        settings.put("animeTypeFilters", new HashMap<>(this.animeTypeFilters));
-        settings.put("animeRatingFilters", new HashMap<>(this.animeRatingFilters));
+        config.put("weebLanguagePreference", settings.weebLanguagePreference());
 
+        return config;
+    }
 
-        settings.put("weebLanguagePreference", this.weebLanguagePreference);
 
+    /**
+     * @return The current settings snapshot. Immutable, so it can be kept and shared freely.
+     */
+    public AppSettings getCurrentSettings() {
         return settings;
     }
 
 
     /**
      * Updates settings stored in this module, saves them to settings file, and notifies settings listeners of changes.
-     * @param settings Updated settings map received by SettingsView.
+     * Only the settings the SettingsView can change are taken over, everything else may have changed since it got its snapshot.
+     * @param newSettings Updated settings received by SettingsView.
      */
-    public void updateSettings(Map<String, Object> settings) {
+    public void updateSettings(AppSettings newSettings) {
         // Update internal settings values
-        this.weebLanguagePreference = (String) settings.get("weebLanguagePreference");
-        this.animeRatingFilters = (Map<String, Boolean>) settings.get("animeRatingFilters");
-        this.animeTypeFilters = (Map<String, Boolean>) settings.get("animeTypeFilters");
+        synchronized (this) {
+            settings = settings
+                    .withLanguagePreference(newSettings.weebLanguagePreference())
+                    .withAnimeFilters(newSettings.animeTypeFilters(), newSettings.animeRatingFilters());
+        }
 
         // Save to file
         saveConfigFile();
@@ -168,73 +257,64 @@ public class ConfigModel {
 
 
     public void setSidebarMediaMode(String mode) {
-        this.lastMediaMode = mode;
+        synchronized (this) {
+            settings = settings.withSidebarModes(mode, settings.lastBrowseMode());
+        }
         notifyListenersSidebarChange();
         saveConfigFile();
     }
 
     public void setSidebarBrowseMode(String mode) {
-        this.lastBrowseMode = mode;
+        synchronized (this) {
+            settings = settings.withSidebarModes(settings.lastMediaMode(), mode);
+        }
         notifyListenersSidebarChange();
         saveConfigFile();
     }
 
     public void setAnimeOrderBy(String orderBy) {
-        this.animeOrderBy = orderBy;
+        synchronized (this) {
+            settings = settings.withAnimeSearchFilters(orderBy, settings.animeStatus(), settings.animeStartYear(), settings.animeEndYear());
+        }
         notifyListenersAPIChange();
         saveConfigFile();
     }
 
     public String getAnimeOrderBy() {
-        return this.animeOrderBy;
+        return settings.animeOrderBy();
     }
 
     public void setAnimeStatus(String status) {
-        this.animeStatus = status;
+        synchronized (this) {
+            settings = settings.withAnimeSearchFilters(settings.animeOrderBy(), status, settings.animeStartYear(), settings.animeEndYear());
+        }
         notifyListenersAPIChange();
     }
 
     public String getAnimeStatus() {
-        return this.animeStatus;
+        return settings.animeStatus();
     }
 
     public void setAnimeStartYear(String startYear) {
-        this.animeStartYear = startYear;
+        synchronized (this) {
+            settings = settings.withAnimeSearchFilters(settings.animeOrderBy(), settings.animeStatus(), startYear, settings.animeEndYear());
+        }
         notifyListenersAPIChange();
     }
 
     public String getAnimeStartYear() {
-         return this.animeStartYear;
+         return settings.animeStartYear();
     }
 
     public void setAnimeEndYear(String endYear) {
-        this.animeEndYear = endYear;
+        synchronized (this) {
+            settings = settings.withAnimeSearchFilters(settings.animeOrderBy(), settings.animeStatus(), settings.animeStartYear(), endYear);
+        }
         notifyListenersAPIChange();
     }
 
     public String getAnimeEndYear() {
-        return this.animeEndYear;
-    }
-
-    public void updateAnimeFilters(Map<String, Boolean> newTypeFilters, Map<String, Boolean> newRatingFilters) {
-        this.animeTypeFilters = newTypeFilters;
-        this.animeRatingFilters = newRatingFilters;
-        notifyListenersAPIChange();
-    }
-
-
-    public void updateAnimeSearchFilters(Map<String, String> newSearchFilters) {
-        this.animeOrderBy = newSearchFilters.get("Order by");
-        this.animeStatus = newSearchFilters.get("Status");
-        this.animeStartYear = newSearchFilters.get("Start year");
-        this.animeEndYear = newSearchFilters.get("End year");
-        notifyListenersAPIChange();
-    }
-
-    public void updateSidebarModes(String mediaMode, String browseMode) {
-        this.lastMediaMode = mediaMode;
-        this.lastBrowseMode = browseMode;
-        notifyListenersSidebarChange();
+        return settings.animeEndYear();
     }
 
 
@@ -252,21 +332,24 @@ public class ConfigModel {
 
 
     private void notifyListenersAPIChange() {
+        AppSettings current = settings;
         for (ConfigListener listener : listeners) {
-            listener.onAnimeTypeAndRatingFiltersUpdated(animeTypeFilters, animeRatingFilters);
-            listener.onAnimeSearchFiltersUpdated(animeOrderBy, animeStatus, animeStartYear, animeEndYear);
+            listener.onAnimeTypeAndRatingFiltersUpdated(current.animeTypeFilters(), current.animeRatingFilters());
+            listener.onAnimeSearchFiltersUpdated(current.animeOrderBy(), current.animeStatus(), current.animeStartYear(), current.animeEndYear());
         }
     }
 
     private void notifyListenersSidebarChange() {
+        AppSettings current = settings;
         for (ConfigListener listener : listeners) {
-            listener.onSidebarModesUpdated(lastMediaMode, lastBrowseMode);
+            listener.onSidebarModesUpdated(current.lastMediaMode(), current.lastBrowseMode());
         }
     }
 
     private void notifyListenersLanguageChange() {
+        AppSettings current = settings;
         for (ConfigListener listener : listeners) {
-            listener.onLanguagePreferenceUpdated(this.weebLanguagePreference);
+            listener.onLanguagePreferenceUpdated(current.weebLanguagePreference());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,257 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import com.github.badbadbadbadbad.tsundoku.util.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Makes the regular backups of a profile database, in the background. Whether one is due is checked shortly after
+ * startup and then once a day, so a program that is left open for weeks still gets its backups.
+ *
+ * <p>The backup is taken with VACUUM INTO on a connection of its own. That is a read transaction, so it sees one
+ * consistent state of the database (WAL contents included), and since the database is in WAL mode the writer thread
+ * just carries on in the meantime. Copying the file itself, like we used to, could catch a write halfway.
+ * The snapshot is checked with quick_check before it replaces anything, then compressed with a capped amount of
+ * disk I/O per second, so it doesn't compete with the grids loading covers.</p>
+ *
+ * <p>Backups are named Backup-YYYY-MM-DD.db(.gz) and live next to the database. Compressed ones can be restored
+ * by unpacking them (any gzip tool) and renaming the result to the profile's name. Settings (as system properties):</p>
+ * <ul>
+ *     <li>tsundoku.backup.intervalDays - Days between backups (default 7)</li>
+ *     <li>tsundoku.backup.keep - How many backups to keep, older ones are deleted (default 4)</li>
+ *     <li>tsundoku.backup.compress - Whether to gzip backups (default true)</li>
+ *     <li>tsundoku.backup.maxBytesPerSecond - I/O cap for compressing (default 4 MB)</li>
+ *     <li>tsundoku.backup.startDelayMs - How long after the window is painted to first check for a due backup (default 10 seconds)</li>
+ *     <li>tsundoku.backup.checkIntervalMs - How often to check again while the program runs (default 1 day)</li>
+ * </ul>
+ */
+public class DatabaseBackupService {
+
+    private static final int INTERVAL_DAYS = Integer.getInteger("tsundoku.backup.intervalDays", 7);
+    private static final int KEEP = Math.max(1, Integer.getInteger("tsundoku.backup.keep", 4));
+    private static final boolean COMPRESS = Boolean.parseBoolean(System.getProperty("tsundoku.backup.compress", "true"));
+    private static final long MAX_BYTES_PER_SECOND = Long.getLong("tsundoku.backup.maxBytesPerSecond", 4L * 1024 * 1024);
+    private static final long START_DELAY_MS = Long.getLong("tsundoku.backup.startDelayMs", TimeUnit.SECONDS.toMillis(10));
+    private static final long CHECK_INTERVAL_MS = Math.max(1, Long.getLong("tsundoku.backup.checkIntervalMs", TimeUnit.DAYS.toMillis(1)));
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final Pattern BACKUP_NAME = Pattern.compile("Backup-(\\d{4})-(\\d{2})-(\\d{2})\\.db(\\.gz)?");
+
+    private final Path databaseFile;
+    private final Path backupDir;
+
+    private final ScheduledExecutorService backupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "db-backup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+
+    /**
+     * @param databaseFile The database to back up. Backups are put in the same folder.
+     */
+    public DatabaseBackupService(Path databaseFile) {
+        this.databaseFile = databaseFile;
+        this.backupDir = databaseFile.getParent();
+    }
+
+
+    /**
+     * Schedules the check for a due backup, START_DELAY_MS from now and every CHECK_INTERVAL_MS after. Returns right away.
+     * Called once the window is painted, so the short delay only keeps the backup out of the first few scrolls.
+     */
+    public void start() {
+        backupExecutor.scheduleAtFixedRate(this::backupIfDue, START_DELAY_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+
+    private void backupIfDue() {
+        try {
+            deleteLeftoverTempFiles();
+
+            List<Backup> backups = findBackups();
+            LocalDate today = LocalDate.now();
+            if (!backups.isEmpty() && ChronoUnit.DAYS.between(backups.get(0).date(), today) < INTERVAL_DAYS) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            createBackup(today);
+            Metrics.timer("db.backup").recordSince(start);
+
+            rotateBackups();
+        } catch (IOException | SQLException | RuntimeException e) {
+            // Anything thrown out of here would cancel the later checks too
+            e.printStackTrace();
+            Metrics.counter("db.backupFailed").increment();
+        }
+    }
+
+
+    /**
+     * Takes the snapshot into a temporary file, checks it, compresses it if wanted, and only then moves it into place.
+     * @param date Date for the backup's name.
+     */
+    private void createBackup(LocalDate date) throws IOException, SQLException {
+        String baseName = String.format("Backup-%d-%02d-%02d.db", date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        Path snapshot = backupDir.resolve(baseName + ".tmp");
+        Files.deleteIfExists(snapshot);     // VACUUM INTO refuses to overwrite anything
+
+        try {
+            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("VACUUM INTO '" + snapshot.toString().replace("'", "''") + "'");
+            }
+
+            verifySnapshot(snapshot);
+
+            if (COMPRESS) {
+                Path compressed = backupDir.resolve(baseName + ".gz.tmp");
+                try {
+                    compressThrottled(snapshot, compressed);
+                    moveIntoPlace(compressed, backupDir.resolve(baseName + ".gz"));
+                } finally {
+                    Files.deleteIfExists(compressed);
+                }
+            } else {
+                moveIntoPlace(snapshot, backupDir.resolve(baseName));
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+
+    /**
+     * A backup that doesn't open is worse than none, it would rotate a working one out.
+     */
+    private void verifySnapshot(Path snapshot) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + snapshot);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+
+            String result = rs.next() ? rs.getString(1) : null;
+            if (!"ok".equals(result)) {
+                throw new SQLException("Database backup failed its integrity check: " + result);
+            }
+        }
+    }
+
+
+    /**
+     * Gzips a file, sleeping between chunks whenever we're ahead of MAX_BYTES_PER_SECOND.
+     */
+    private void compressThrottled(Path source, Path target) throws IOException {
+        long start = System.nanoTime();
+        long written = 0;
+        byte[] buffer = new byte[CHUNK_SIZE];
+
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), CHUNK_SIZE)) {
+
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                written += read;
+
+                long aheadMs = written * 1000 / MAX_BYTES_PER_SECOND - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (aheadMs > 0) {
+                    try {
+                        Thread.sleep(aheadMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Database backup interrupted", e);
+                    }
+                }
+            }
+        }
+    }
+
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    /**
+     * Deletes all but the KEEP newest backups.
+     */
+    private void rotateBackups() throws IOException {
+        List<Backup> backups = findBackups();
+        for (int i = KEEP; i < backups.size(); i++) {
+            Files.deleteIfExists(backups.get(i).file());
+        }
+    }
+
+
+    /**
+     * Temporary files of a backup the program was closed during.
+     */
+    private void deleteLeftoverTempFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(backupDir, "Backup-*.tmp")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+
+    private record Backup(Path file, LocalDate date) {}
+
+    /**
+     * Lists the backups in the database folder. Files that just look a bit like backups (because the user put them
+     * there, say "Backup-old.db") are left alone, and never rotated out.
+     * @return The backups, newest first.
+     */
+    private List<Backup> findBackups() throws IOException {
+        List<Backup> backups = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(backupDir, "Backup-*")) {
+            for (Path file : files) {
+                Matcher matcher = BACKUP_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                try {
+                    LocalDate date = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+                    backups.add(new Backup(file, date));
+                } catch (DateTimeException e) {
+                    // Not a real date, so not one of ours
+                }
+            }
+        }
+
+        backups.sort(Comparator.comparing(Backup::date).reversed());
+        return backups;
+    }
+}
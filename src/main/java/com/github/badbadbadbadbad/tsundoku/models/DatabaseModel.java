@@ -1,23 +1,28 @@
 package com.github.badbadbadbadbad.tsundoku.models;
 
 import com.github.badbadbadbadbad.tsundoku.controllers.APIRequestListener;
+import com.github.badbadbadbadbad.tsundoku.controllers.DatabaseChangeListener;
+import com.github.badbadbadbadbad.tsundoku.util.JfrEvents;
+import com.github.badbadbadbadbad.tsundoku.util.Metrics;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.*;
-import java.time.LocalDate;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * This module takes care of everything related to database input / output.
@@ -25,18 +30,231 @@ import java.util.stream.Collectors;
 public class DatabaseModel {
     private static final String appName = "tsundoku";
     private static final long REQUEST_COOLDOWN_MS = 5000;
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_IDS_PER_QUERY = 500;
+    private static final int REFRESH_BATCH_SIZE = 50;
+    private static final long MAX_REFRESH_IDLE_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int BULK_REFRESH_MIN_DUE = 10;
+    private static final int MAX_BULK_REFRESH_PAGES = 20;
+    private static final int READER_THREADS = 2;
+    private static final long CHANGE_COALESCE_MS = 100;
+
+    private static final String SQL_UPSERT = """
+        INSERT INTO anime (id, ownRating, ownStatus, episodesProgress, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl,
+                           publicationStatus, episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate, imagePreview,
+                           nextRefreshAt, unchangedRefreshes, contentHash)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)
+        ON CONFLICT(id) DO UPDATE SET
+            ownRating = excluded.ownRating,
+            ownStatus = excluded.ownStatus,
+            episodesProgress = excluded.episodesProgress,
+            title = excluded.title,
+            titleJapanese = excluded.titleJapanese,
+            titleEnglish = excluded.titleEnglish,
+            imageUrl = excluded.imageUrl,
+            smallImageUrl = excluded.smallImageUrl,
+            publicationStatus = excluded.publicationStatus,
+            episodesTotal = excluded.episodesTotal,
+            source = excluded.source,
+            ageRating = excluded.ageRating,
+            synopsis = excluded.synopsis,
+            release = excluded.release,
+            studios = excluded.studios,
+            type = excluded.type,
+            lastUpdate = excluded.lastUpdate,
+            contentHash = excluded.contentHash,
+            imagePreview = CASE WHEN excluded.smallImageUrl = anime.smallImageUrl
+                                THEN COALESCE(excluded.imagePreview, anime.imagePreview)
+                                ELSE excluded.imagePreview END;""";
 
     private final String databaseFilePath;
     private final APIRequestListener apiRequestListener;
+    private final DatabaseBackupService backupService;
+
+    // All writes go through this one thread, in the order they were made, so the background updater's writes and
+    // the user's edits can never interleave or run into each other's locks.
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "db-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Reads get a small pool of their own. The database is in WAL mode, so they can run while a write is going on.
+    private final ExecutorService readExecutor = Executors.newFixedThreadPool(READER_THREADS, r -> {
+        Thread thread = new Thread(r, "db-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Completes once every write submitted so far is done. Reads wait for it, so they see all writes made before them
+    // (like the Log reading an entry right after the popup saved it).
+    private CompletableFuture<?> lastWrite = CompletableFuture.completedFuture(null);
+
+    // Set on program close, after which no new reads or writes are taken
+    private boolean shutDown = false;
+
+    // Views showing database entries, told about changes to them. Pending changes are collected by anime ID first.
+    private final List<DatabaseChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final Map<Integer, AnimeChange> pendingChanges = new LinkedHashMap<>();
+
+    // Start of the last bulk refresh pass in epoch seconds. Anime that were due by then were looked for in the lists
+    // already, the ones that weren't found are left to the single refreshes instead of paging the lists again.
+    private volatile long lastBulkRefreshAt = 0;
 
     public DatabaseModel(APIRequestListener apiRequestListener) {
         this.apiRequestListener = apiRequestListener;
         this.databaseFilePath = Paths.get(getAppDataPath(), "profiles", "Default.db").toString();
+        this.backupService = new DatabaseBackupService(Paths.get(databaseFilePath));
+    }
+
+
+    /**
+     * Starts the backup service and the background updater service.
+     * Neither is needed to show the program, so this is called once the window is painted, and runs off the JavaFX thread.
+     */
+    public void startBackgroundServices() {
+        backupService.start();
+
+        CompletableFuture.runAsync(this::refreshDueAnime);
+    }
+
+
+    /**
+     * Queues a write on the writer thread, after all writes queued before it.
+     * @param write The write, returning whatever its caller needs back.
+     * @return Completes with the result of the write, once it's done.
+     */
+    private synchronized <T> CompletableFuture<T> submitWrite(Supplier<T> write) {
+        if (shutDown) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Database is shut down"));
+        }
+
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(write, writeExecutor);
+        lastWrite = future.handle((result, error) -> null);
+        return future;
+    }
+
+
+    /**
+     * Queues a read on the reader pool. It runs once all writes queued before it are done.
+     * @param read The read.
+     * @return Completes with the result of the read.
+     */
+    private <T> CompletableFuture<T> submitRead(Supplier<T> read) {
+        CompletableFuture<?> pendingWrites;
+        synchronized (this) {
+            if (shutDown) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Database is shut down"));
+            }
+            pendingWrites = lastWrite;
+        }
+        return pendingWrites.thenApplyAsync(ignored -> read.get(), readExecutor);
+    }
+
+
+    /**
+     * Stops taking new reads and writes, waits (a few seconds at most) for the queued writes to finish, then stops the
+     * writer and reader threads. Called on program close, so a save made right before closing still makes it to disk.
+     */
+    public void shutdown() {
+        CompletableFuture<?> pendingWrites;
+        synchronized (this) {
+            shutDown = true;
+            pendingWrites = lastWrite;
+        }
+
+        try {
+            pendingWrites.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            e.printStackTrace();
+        }
+
+        writeExecutor.shutdown();
+        readExecutor.shutdown();
+    }
+
+
+    /**
+     * Async version of getAnimeEntryFromDatabase, for the views. Never blocks the caller.
+     */
+    public CompletableFuture<AnimeInfo> getAnimeEntryFromDatabaseAsync(int id) {
+        return submitRead(() -> getAnimeEntryFromDatabase(id));
+    }
+
+    /**
+     * Async version of getAnimeEntriesFromDatabase, for the views. Never blocks the caller.
+     */
+    public CompletableFuture<Map<Integer, AnimeInfo>> getAnimeEntriesFromDatabaseAsync(List<Integer> ids) {
+        return submitRead(() -> getAnimeEntriesFromDatabase(ids));
+    }
+
+    /**
+     * Async version of getFullAnimeDatabase, for the views. Never blocks the caller.
+     */
+    public CompletableFuture<AnimeListInfo> getFullAnimeDatabaseAsync() {
+        return submitRead(this::getFullAnimeDatabase);
+    }
+
+    /**
+     * Async version of updateAnimeDatabaseWithEntry, for the views. Never blocks the caller.
+     * Writes happen in the order they were made, and reads made afterwards already see them.
+     */
+    public CompletableFuture<Void> updateAnimeDatabaseWithEntryAsync(AnimeInfo anime) {
+        // The writer gets a snapshot of its own, the caller's copy may still be edited on the JavaFX thread meanwhile
+        AnimeInfo snapshot = anime.copy();
+        return submitWrite(() -> {
+            updateAnimeDatabaseWithEntry(snapshot);
+            return null;
+        });
+    }
+
+
+    public void addDatabaseChangeListener(DatabaseChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeDatabaseChangeListener(DatabaseChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+
+    /**
+     * Queues a change for the change listeners. They are handed over at most every CHANGE_COALESCE_MS, with several
+     * changes to the same anime folded into one. That way a bulk refresh or a burst of image previews reaches the views
+     * as one batch, instead of one grid update per anime.
+     * @param change The change, or null if nothing changed.
+     */
+    private void publishChange(AnimeChange change) {
+        if (change == null) {
+            return;
+        }
+
+        synchronized (pendingChanges) {
+            boolean firstOfBatch = pendingChanges.isEmpty();
+            pendingChanges.merge(change.id(), change, AnimeChange::mergedWith);
+            if (firstOfBatch) {
+                CompletableFuture.delayedExecutor(CHANGE_COALESCE_MS, TimeUnit.MILLISECONDS).execute(this::notifyChangeListeners);
+            }
+        }
+    }
 
-        updateDatabaseBackup();
 
-        startAnimeUpdaterBackgroundService();
+    private void notifyChangeListeners() {
+        List<AnimeChange> changes;
+        synchronized (pendingChanges) {
+            changes = List.copyOf(pendingChanges.values());
+            pendingChanges.clear();
+        }
+
+        Metrics.counter("db.changesPublished").add(changes.size());
+        for (DatabaseChangeListener listener : changeListeners) {
+            try {
+                listener.onAnimeEntriesChanged(changes);
+            } catch (RuntimeException e) {
+                e.printStackTrace();    // One broken view shouldn't keep the others from updating
+            }
+        }
     }
 
 
@@ -71,62 +289,104 @@ public class DatabaseModel {
         }
 
         String sqlDelete = "DELETE FROM anime WHERE id = ?";
-        String sqlUpsert = """
-        INSERT INTO anime (id, ownRating, ownStatus, episodesProgress, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl,
-                           publicationStatus, episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate)
-        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-        ON CONFLICT(id) DO UPDATE SET
-            ownRating = excluded.ownRating,
-            ownStatus = excluded.ownStatus,
-            episodesProgress = excluded.episodesProgress,
-            title = excluded.title,
-            titleJapanese = excluded.titleJapanese,
-            titleEnglish = excluded.titleEnglish,
-            imageUrl = excluded.imageUrl,
-            smallImageUrl = excluded.smallImageUrl,
-            publicationStatus = excluded.publicationStatus,
-            episodesTotal = excluded.episodesTotal,
-            source = excluded.source,
-            ageRating = excluded.ageRating,
-            synopsis = excluded.synopsis,
-            release = excluded.release,
-            studios = excluded.studios,
-            type = excluded.type,
-            lastUpdate = excluded.lastUpdate;""";
 
+        // The entry before and after the write tell the change listeners what actually changed.
+        // Not worth the two reads if nobody is listening (like the benchmarks).
+        boolean publish = !changeListeners.isEmpty();
+        AnimeInfo oldAnime = publish ? getAnimeEntryFromDatabase(anime.getId()) : null;
+
+        long start = System.nanoTime();
+        JfrEvents.SqlStatement event = new JfrEvents.SqlStatement();
+        event.begin();
         try (Connection conn = DriverManager.getConnection(url)) {
             if (anime.getOwnStatus().equals("Untracked")) {
+                event.statement = "delete";
                 try (PreparedStatement pstmt = conn.prepareStatement(sqlDelete)) {
                     pstmt.setInt(1, anime.getId());
-                    pstmt.executeUpdate();
+                    event.rows = pstmt.executeUpdate();
                 }
             } else {
-                try (PreparedStatement pstmt = conn.prepareStatement(sqlUpsert)) {
-                    pstmt.setInt(1, anime.getId());
-                    pstmt.setString(2, anime.getOwnRating());
-                    pstmt.setString(3, anime.getOwnStatus());
-                    pstmt.setInt(4, anime.getEpisodesProgress());
-                    pstmt.setString(5, anime.getTitle());
-                    pstmt.setString(6, anime.getTitleJapanese());
-                    pstmt.setString(7, anime.getTitleEnglish());
-                    pstmt.setString(8, anime.getImageUrl());
-                    pstmt.setString(9, anime.getSmallImageUrl());
-                    pstmt.setString(10, anime.getPublicationStatus());
-                    pstmt.setInt(11, anime.getEpisodesTotal());
-                    pstmt.setString(12, anime.getSource());
-                    pstmt.setString(13, anime.getAgeRating());
-                    pstmt.setString(14, anime.getSynopsis());
-                    pstmt.setString(15, anime.getRelease());
-                    pstmt.setString(16, anime.getStudios());
-                    pstmt.setString(17, anime.getType());
-                    pstmt.setString(18, anime.getLastUpdated());
-                    pstmt.executeUpdate();
-                }
+                event.statement = "upsert";
+                event.rows = upsertAnimeEntry(conn, anime);
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            Metrics.timer("db.updateEntry").recordSince(start);
+            event.commit();
         }
 
+        if (publish) {
+            publishChange(AnimeChange.between(oldAnime, getAnimeEntryFromDatabase(anime.getId())));
+        }
+    }
+
+
+    /**
+     * The upsert itself, on an open connection (so several can share one transaction).
+     * @param conn The open connection.
+     * @param anime The data of the anime to be inserted into the database.
+     * @return The amount of changed rows.
+     */
+    private int upsertAnimeEntry(Connection conn, AnimeInfo anime) throws SQLException {
+        int rows;
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_UPSERT)) {
+            pstmt.setInt(1, anime.getId());
+            pstmt.setString(2, anime.getOwnRating());
+            pstmt.setString(3, anime.getOwnStatus());
+            pstmt.setInt(4, anime.getEpisodesProgress());
+            pstmt.setString(5, anime.getTitle());
+            pstmt.setString(6, anime.getTitleJapanese());
+            pstmt.setString(7, anime.getTitleEnglish());
+            pstmt.setString(8, anime.getImageUrl());
+            pstmt.setString(9, anime.getSmallImageUrl());
+            pstmt.setString(10, anime.getPublicationStatus());
+            pstmt.setInt(11, anime.getEpisodesTotal());
+            pstmt.setString(12, anime.getSource());
+            pstmt.setString(13, anime.getAgeRating());
+            pstmt.setString(14, anime.getSynopsis());
+            pstmt.setString(15, anime.getRelease());
+            pstmt.setString(16, anime.getStudios());
+            pstmt.setString(17, anime.getType());
+            pstmt.setString(18, anime.getLastUpdated());
+            pstmt.setString(19, anime.getImagePreview());
+
+            // Only used for new entries, the refresh schedule of existing ones is left alone (see scheduleRefresh)
+            pstmt.setLong(20, AnimeRefreshPolicy.nextRefreshAt(anime, 0, Instant.now()).getEpochSecond());
+            pstmt.setLong(21, anime.getContentHash());
+            rows = pstmt.executeUpdate();
+        }
+        return rows;
+    }
+
+
+    /**
+     * Stores the image preview of an anime in the database, if it doesn't have one yet.
+     * The previews are computed by the views from covers they loaded anyway (see ImagePreviewUtils).
+     * Anime that aren't in the database, already have a preview, or got a new cover since are left alone.
+     * @param id The ID of the anime.
+     * @param smallImageUrl The small cover URL of the anime the preview was computed for.
+     * @param imagePreview The preview.
+     */
+    public CompletableFuture<Void> storeImagePreviewAsync(int id, String smallImageUrl, String imagePreview) {
+        return submitWrite(() -> {
+            String url = "jdbc:sqlite:" + databaseFilePath;
+            String sqlUpdate = "UPDATE anime SET imagePreview = ? WHERE id = ? AND smallImageUrl = ? AND imagePreview IS NULL";
+
+            try (Connection conn = DriverManager.getConnection(url);
+                 PreparedStatement pstmt = conn.prepareStatement(sqlUpdate)) {
+
+                pstmt.setString(1, imagePreview);
+                pstmt.setInt(2, id);
+                pstmt.setString(3, smallImageUrl);
+                if (pstmt.executeUpdate() > 0 && !changeListeners.isEmpty()) {
+                    publishChange(new AnimeChange(id, getAnimeEntryFromDatabase(id), EnumSet.of(AnimeChange.Field.IMAGE_PREVIEW)));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            return null;
+        });
     }
 
 
@@ -137,8 +397,12 @@ public class DatabaseModel {
     public AnimeInfo getAnimeEntryFromDatabase(int id) {
         String url = "jdbc:sqlite:" + databaseFilePath;
         String sqlSelect = "SELECT id, ownRating, ownStatus, episodesProgress, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl, publicationStatus, "
-                + "episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate FROM anime WHERE id = ?";
+                + "episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate, imagePreview FROM anime WHERE id = ?";
 
+        long start = System.nanoTime();
+        JfrEvents.SqlStatement event = new JfrEvents.SqlStatement();
+        event.statement = "selectById";
+        event.begin();
         try (Connection conn = DriverManager.getConnection(url);
              PreparedStatement pstmt = conn.prepareStatement(sqlSelect)) {
 
@@ -146,19 +410,14 @@ public class DatabaseModel {
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-
-                AnimeInfo animeInfo = new AnimeInfo(rs.getInt("id"), rs.getString("title"), rs.getString("titleJapanese"), rs.getString("titleEnglish"),
-                        rs.getString("imageUrl"), rs.getString("smallImageUrl"), rs.getString("publicationStatus"), rs.getInt("episodesTotal"), rs.getString("source"),
-                        rs.getString("ageRating"), rs.getString("synopsis"), rs.getString("release"), rs.getString("studios"), rs.getString("type"), rs.getString("lastUpdate")
-                );
-                animeInfo.setOwnRating(rs.getString("ownRating"));
-                animeInfo.setOwnStatus(rs.getString("ownStatus"));
-                animeInfo.setEpisodesProgress(rs.getInt("episodesProgress"));
-
-                return animeInfo;
+                event.rows = 1;
+                return readAnimeInfo(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            Metrics.timer("db.getEntry").recordSince(start);
+            event.commit();
         }
 
         // If the requested ID isn't in the database, we return null. Is handled on the receiver end.
@@ -171,194 +430,528 @@ public class DatabaseModel {
     public AnimeListInfo getFullAnimeDatabase() {
         String url = "jdbc:sqlite:" + databaseFilePath;
         String sqlSelectAll = "SELECT id, ownRating, ownStatus, episodesProgress, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl, publicationStatus, "
-                + "episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate FROM anime";
+                + "episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate, imagePreview FROM anime";
         List<AnimeInfo> animeList = new ArrayList<>();
 
+        long start = System.nanoTime();
+        JfrEvents.SqlStatement event = new JfrEvents.SqlStatement();
+        event.statement = "selectAll";
+        event.begin();
         try (Connection conn = DriverManager.getConnection(url);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sqlSelectAll)) {
 
             while (rs.next()) {
-                AnimeInfo animeInfo = new AnimeInfo(rs.getInt("id"), rs.getString("title"), rs.getString("titleJapanese"), rs.getString("titleEnglish"),
-                        rs.getString("imageUrl"), rs.getString("smallImageUrl"), rs.getString("publicationStatus"), rs.getInt("episodesTotal"), rs.getString("source"),
-                        rs.getString("ageRating"), rs.getString("synopsis"), rs.getString("release"), rs.getString("studios"), rs.getString("type"), rs.getString("lastUpdate")
-                );
-                animeInfo.setOwnRating(rs.getString("ownRating"));
-                animeInfo.setOwnStatus(rs.getString("ownStatus"));
-                animeInfo.setEpisodesProgress(rs.getInt("episodesProgress"));
-
-                animeList.add(animeInfo);
+                animeList.add(readAnimeInfo(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            Metrics.timer("db.getFullDatabase").recordSince(start);
+            event.rows = animeList.size();
+            event.commit();
         }
 
         return new AnimeListInfo(animeList, 0);
     }
 
+
     /**
-     * Data on anime - especially upcoming anime - may change every so often. Hence, the local database needs to be updated regularly.
-     * This function reads the full anime database once on startup, then updates it slowly while the program is open.
+     * Reads data of several anime from the database at once, e.g. for all anime of a Browse page.
+     * One connection and one query per MAX_IDS_PER_QUERY IDs, instead of one each per anime.
+     * @param ids The IDs of the anime to be read from the database.
+     * @return The anime found in the database by their ID. Anime that aren't in the database are simply missing.
+     */
+    public Map<Integer, AnimeInfo> getAnimeEntriesFromDatabase(List<Integer> ids) {
+        String url = "jdbc:sqlite:" + databaseFilePath;
+        Map<Integer, AnimeInfo> animeById = new HashMap<>();
+
+        if (ids.isEmpty()) {
+            return animeById;
+        }
+
+        long start = System.nanoTime();
+        JfrEvents.SqlStatement event = new JfrEvents.SqlStatement();
+        event.statement = "selectByIds";
+        event.begin();
+        try (Connection conn = DriverManager.getConnection(url)) {
+
+            // Older SQLite versions only allow 999 parameters per statement
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+                String sqlSelect = "SELECT id, ownRating, ownStatus, episodesProgress, title, titleJapanese, titleEnglish, imageUrl, smallImageUrl, publicationStatus, "
+                        + "episodesTotal, source, ageRating, synopsis, release, studios, type, lastUpdate, imagePreview FROM anime WHERE id IN ("
+                        + "?,".repeat(chunk.size() - 1) + "?)";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlSelect)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        AnimeInfo animeInfo = readAnimeInfo(rs);
+                        animeById.put(animeInfo.getId(), animeInfo);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            Metrics.timer("db.getEntries").recordSince(start);
+            event.rows = animeById.size();
+            event.commit();
+        }
+
+        return animeById;
+    }
+
+
+    /**
+     * Turns the current row of a "SELECT id, ownRating, ..., imagePreview" query into an AnimeInfo.
      */
-    private void startAnimeUpdaterBackgroundService() {
-        AnimeListInfo animeListInfo = getFullAnimeDatabase();
-        List<AnimeInfo> animeList = filterAndSortAnimeList(animeListInfo.getAnimeList());
-        processNextAnime(animeList, 0);
+    private AnimeInfo readAnimeInfo(ResultSet rs) throws SQLException {
+        AnimeInfo animeInfo = new AnimeInfo(rs.getInt("id"), rs.getString("title"), rs.getString("titleJapanese"), rs.getString("titleEnglish"),
+                rs.getString("imageUrl"), rs.getString("smallImageUrl"), rs.getString("publicationStatus"), rs.getInt("episodesTotal"), rs.getString("source"),
+                rs.getString("ageRating"), rs.getString("synopsis"), rs.getString("release"), rs.getString("studios"), rs.getString("type"), rs.getString("lastUpdate")
+        );
+        animeInfo.setOwnRating(rs.getString("ownRating"));
+        animeInfo.setOwnStatus(rs.getString("ownStatus"));
+        animeInfo.setEpisodesProgress(rs.getInt("episodesProgress"));
+        animeInfo.setImagePreview(rs.getString("imagePreview"));
+        return animeInfo;
     }
 
+    /**
+     * An anime that is due for a refresh, how many refreshes in a row didn't change it so far,
+     * and the hash of its stored API data (0 if not known yet).
+     */
+    private record DueRefresh(int id, int unchangedRefreshes, String publicationStatus, long contentHash) {}
+
+
+    /**
+     * A list endpoint of the API used for bulk refreshes, and the publication statuses of the anime it (mostly) contains.
+     */
+    private record BulkRefreshList(String endpoint, Set<String> publicationStatuses) {}
+
+    private static final List<BulkRefreshList> BULK_REFRESH_LISTS = List.of(
+            new BulkRefreshList("seasons/now", Set.of("Airing")),
+            new BulkRefreshList("schedules", Set.of("Airing")),                 // Also has long-running shows from older seasons
+            new BulkRefreshList("seasons/upcoming", Set.of("Upcoming", "Not yet provided"))
+    );
+
 
     /**
-     * A difficulty with the database update service is that the API only allows requests for single anime by ID instead of a list at once.
-     * Yet, we also don't want to overload the API.
+     * Refreshes as many due anime as possible through the API's list endpoints, instead of one request each.
+     * A list page holds 25 anime for the price of one request, so for users tracking lots of airing or upcoming anime
+     * this takes care of most due entries in a handful of requests.
+     *
+     * <p>Each list is only paged through if at least BULK_REFRESH_MIN_DUE due anime could be in it (else the single
+     * requests are cheaper), and only until all of them were found. Everything found is written in one transaction
+     * at the end. Due anime that weren't found are left for the single refreshes.</p>
      *
-     * <p>We filter anime entries that were updated somewhat recently from this updating process, and also
-     * assign a lower priority to entries that are not releasing right now or upcoming.</p>
-     * @param animeList The anime information to be filtered in List form.
-     * @return The same List, but filtered and sorted by importance.
+     * @return Completes once the pass is done.
      */
-    private List<AnimeInfo> filterAndSortAnimeList(List<AnimeInfo> animeList) {
-        LocalDate currentDate = LocalDate.now(ZoneOffset.UTC);
-
-        return animeList.stream()
-
-                // Filter out:
-                // Completed entries that were updated in the last 30 days
-                // All other entries that were updated today
-                .filter(anime -> {
-                    LocalDate lastUpdated = LocalDate.parse(anime.getLastUpdated(), DATE_FORMATTER);
-                    if ("Complete".equals(anime.getPublicationStatus())) {
-                        return lastUpdated.isBefore(currentDate.minusDays(30));
-                    } else {
-                        return !lastUpdated.isEqual(currentDate);
-                    }
-                })
-
-                // Sort by publication status and last updated
-                .sorted(Comparator
-                        .comparing((AnimeInfo anime) -> {
-                            switch (anime.getPublicationStatus()) {
-                                case "Upcoming":
-                                case "Not yet provided":
-                                    return 0;
-                                case "Airing":
-                                    return 1;
-                                case "Complete":
-                                    return 2;
-                                default:
-                                    return Integer.MAX_VALUE;
-                            }
-                        })
-                        .thenComparing(anime -> LocalDate.parse(anime.getLastUpdated(), DATE_FORMATTER)))
-                .collect(Collectors.toList());
+    private CompletableFuture<Void> bulkRefreshDueAnime() {
+        Map<Integer, DueRefresh> remaining = new HashMap<>();
+        for (DueRefresh dueRefresh : getDueRefreshes(Instant.now().getEpochSecond(), Integer.MAX_VALUE)) {
+            remaining.put(dueRefresh.id(), dueRefresh);
+        }
+        Map<Integer, DueRefresh> due = new HashMap<>(remaining);
+        Map<Integer, AnimeInfo> found = new HashMap<>();
+
+        // The lists are gone through one after another, a page at a time, with the usual cooldown in between
+        CompletableFuture<Void> pass = CompletableFuture.completedFuture(null);
+        for (BulkRefreshList list : BULK_REFRESH_LISTS) {
+            pass = pass.thenCompose(v -> {
+                if (countDueIn(list, remaining) < BULK_REFRESH_MIN_DUE) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return collectFromList(list, 1, remaining, found);
+            });
+        }
+
+        return pass.thenCompose(v -> submitWrite(() -> {
+            if (!found.isEmpty()) {
+                storeBulkRefresh(due, found);
+            }
+            return null;
+        }));
     }
 
 
     /**
-     * The actual "update this database entry with updated information" function for the background updater service.
-     * Forwards the request for current data on some anime to the API communication service, then invokes a database update with the returned data.
-     * If the API call returns a null (API issues, internet timeout..), we just skip that iteration.
-     * @param animeList The full list of anime to be updated.
-     * @param index Current index of the list to update. Updates when the update is finished and a timeout has passed.
+     * Whether enough anime came due since the last bulk pass for one of the lists to be worth paging through.
+     * @param now Current time in epoch seconds.
      */
-    private void processNextAnime(List<AnimeInfo> animeList, int index) {
+    private boolean isBulkRefreshDue(long now) {
+        String url = "jdbc:sqlite:" + databaseFilePath;
+        String sqlSelect = "SELECT publicationStatus, COUNT(*) AS due FROM anime WHERE nextRefreshAt <= ? AND nextRefreshAt > ? GROUP BY publicationStatus";
+        Map<String, Integer> dueByStatus = new HashMap<>();
 
-        // No more anime to process
-        if (index >= animeList.size()) {
-            // System.out.println("Finished updating database.");
-            return;
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement pstmt = conn.prepareStatement(sqlSelect)) {
+
+            pstmt.setLong(1, now);
+            pstmt.setLong(2, lastBulkRefreshAt);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                dueByStatus.put(rs.getString("publicationStatus"), rs.getInt("due"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
         }
 
-        AnimeInfo animeInfo = animeList.get(index);
-        int animeId = animeInfo.getId();
+        for (BulkRefreshList list : BULK_REFRESH_LISTS) {
+            int due = list.publicationStatuses().stream().mapToInt(status -> dueByStatus.getOrDefault(status, 0)).sum();
+            if (due >= BULK_REFRESH_MIN_DUE) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        apiRequestListener.getAnimeByID(animeId).thenAccept(newAnimeInfo -> {
 
-            if (newAnimeInfo == null) {
-                System.out.println("Skipping anime ID in database update cycle " + animeId + " due to bad API call.");
-                // Still continue to next
-                CompletableFuture.delayedExecutor(REQUEST_COOLDOWN_MS, TimeUnit.MILLISECONDS)
-                        .execute(() -> processNextAnime(animeList, index + 1));
-                return;
+    private static long countDueIn(BulkRefreshList list, Map<Integer, DueRefresh> remaining) {
+        return remaining.values().stream()
+                .filter(dueRefresh -> list.publicationStatuses().contains(dueRefresh.publicationStatus()))
+                .count();
+    }
+
+
+    /**
+     * Requests a page of a list endpoint, takes every due anime in it, and goes on with the next page after a cooldown.
+     * @param list The list endpoint.
+     * @param page The page to request.
+     * @param remaining Due anime not found in any list so far. Found ones are removed.
+     * @param found Fresh data of the due anime found so far, by ID. Found ones are added.
+     * @return Completes once the list is done, or no due anime that could be in it are left.
+     */
+    private CompletableFuture<Void> collectFromList(BulkRefreshList list, int page, Map<Integer, DueRefresh> remaining, Map<Integer, AnimeInfo> found) {
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(REQUEST_COOLDOWN_MS, TimeUnit.MILLISECONDS))
+                .thenCompose(v -> apiRequestListener.getAnimeListForRefresh(list.endpoint(), page))
+                .thenCompose(animeListInfo -> {
+                    for (AnimeInfo anime : animeListInfo.getAnimeList()) {
+                        if (remaining.remove(anime.getId()) != null) {
+                            found.put(anime.getId(), anime);
+                        }
+                    }
+
+                    // Failed requests come back empty, no point in asking for more pages then
+                    boolean done = animeListInfo.getAnimeList().isEmpty()
+                            || page >= animeListInfo.getLastPage()
+                            || page >= MAX_BULK_REFRESH_PAGES
+                            || countDueIn(list, remaining) == 0;
+                    if (done) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return collectFromList(list, page + 1, remaining, found);
+                });
+    }
+
+
+    /**
+     * Writes the anime found by a bulk refresh pass, with their new due times, in a single transaction.
+     * Anime whose data didn't change only get their dates updated.
+     * @param due All anime that were due at the start of the pass, by ID.
+     * @param found Fresh data of the due anime that were found, by ID.
+     */
+    private void storeBulkRefresh(Map<Integer, DueRefresh> due, Map<Integer, AnimeInfo> found) {
+        String url = "jdbc:sqlite:" + databaseFilePath;
+        Instant now = Instant.now();
+
+        List<Integer> changedIds = new ArrayList<>();
+        for (AnimeInfo newAnimeInfo : found.values()) {
+            if (newAnimeInfo.getContentHash() != due.get(newAnimeInfo.getId()).contentHash()) {
+                changedIds.add(newAnimeInfo.getId());
             }
+        }
 
-            // We only update the static info, the user's info needs to be kept
-            newAnimeInfo.setOwnRating(animeInfo.getOwnRating());
-            newAnimeInfo.setOwnStatus(animeInfo.getOwnStatus());
-            newAnimeInfo.setEpisodesProgress(animeInfo.getEpisodesProgress());
+        // Read fresh, the user may have changed their progress (or removed some anime) during the pass
+        Map<Integer, AnimeInfo> stored = getAnimeEntriesFromDatabase(changedIds);
 
-            updateAnimeDatabaseWithEntry(newAnimeInfo);
+        long start = System.nanoTime();
+        JfrEvents.SqlStatement event = new JfrEvents.SqlStatement();
+        event.statement = "bulkRefresh";
+        event.begin();
+        List<AnimeChange> changes = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(url)) {
+            conn.setAutoCommit(false);
+            try {
+                for (AnimeInfo newAnimeInfo : found.values()) {
+                    DueRefresh dueRefresh = due.get(newAnimeInfo.getId());
+                    AnimeInfo animeInfo = stored.get(newAnimeInfo.getId());
+
+                    if (newAnimeInfo.getContentHash() == dueRefresh.contentHash()) {
+                        event.rows += storeUnchangedAnime(conn, dueRefresh, newAnimeInfo, now);
+                    } else if (animeInfo != null) {
+                        changes.add(storeRefreshedAnime(conn, animeInfo, newAnimeInfo, now));
+                        event.rows++;
+                    }
+                }
+                conn.commit();
 
-            // Schedule the next anime processing with a delay
-            CompletableFuture.delayedExecutor(REQUEST_COOLDOWN_MS, TimeUnit.MILLISECONDS)
-                    .execute(() -> processNextAnime(animeList, index + 1));
-        });
+                // Only once they're committed, a view reading them back would see the old data before that
+                changes.forEach(this::publishChange);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            Metrics.timer("db.bulkRefresh").recordSince(start);
+            Metrics.counter("updater.bulkRefreshed").add(event.rows);
+            event.commit();
+        }
     }
 
 
     /**
-     * Attempts to create a backup of the database.
-     * If a recent backup (under a week) exists, it is overwritten, else no new backup is made.
+     * Data on anime - especially upcoming anime - may change every so often. Hence, the local database needs to be updated regularly.
+     *
+     * <p>Every entry stores when it is next due for a refresh (see AnimeRefreshPolicy). Whenever enough airing or
+     * upcoming entries came due (on startup, and daily while the program stays open), they are refreshed through the
+     * list endpoints first (see bulkRefreshDueAnime). Everything else is taken in batches, most overdue first, from the
+     * nextRefreshAt index and refreshed one by one with a cooldown, as the API only gives us single anime by ID.
+     * Each refresh stores the entry's next due time right away, so closing the program in between loses nothing.
+     * Once nothing is due, we check back when the next entry comes due.</p>
      */
-    private void updateDatabaseBackup() {
-        try {
-            File backupFile = getExistingBackup();
-            if (backupFile != null) {
-                LocalDate backupDate = getDateFromBackupFile(backupFile.getName());
-                LocalDate currentDate = LocalDate.now();
+    private void refreshDueAnime() {
+        long now = Instant.now().getEpochSecond();
 
-                if (ChronoUnit.DAYS.between(backupDate, currentDate) < 7) {
-                    return;
+        if (isBulkRefreshDue(now)) {
+            bulkRefreshDueAnime().whenComplete((result, error) -> {
+                if (error != null) {
+                    error.printStackTrace();
                 }
-                Files.delete(backupFile.toPath());
+                lastBulkRefreshAt = now;
+                refreshDueAnime();
+            });
+            return;
+        }
+
+        List<DueRefresh> dueRefreshes = getDueRefreshes(now, REFRESH_BATCH_SIZE);
+
+        if (dueRefreshes.isEmpty()) {
+            long earliest = getEarliestRefreshAt();
+            long waitMs = earliest < 0 ? MAX_REFRESH_IDLE_MS : Math.min(MAX_REFRESH_IDLE_MS, TimeUnit.SECONDS.toMillis(earliest - now));
+            CompletableFuture.delayedExecutor(Math.max(waitMs, REQUEST_COOLDOWN_MS), TimeUnit.MILLISECONDS)
+                    .execute(this::refreshDueAnime);
+            return;
+        }
+
+        processNextAnime(dueRefreshes, 0);
+    }
+
+
+    /**
+     * @param now Current time in epoch seconds.
+     * @param limit The maximum amount of anime to return.
+     * @return Up to limit anime whose refresh is due, most overdue first.
+     */
+    private List<DueRefresh> getDueRefreshes(long now, int limit) {
+        String url = "jdbc:sqlite:" + databaseFilePath;
+        String sqlSelect = "SELECT id, unchangedRefreshes, publicationStatus, contentHash FROM anime WHERE nextRefreshAt <= ? ORDER BY nextRefreshAt LIMIT ?";
+        List<DueRefresh> dueRefreshes = new ArrayList<>();
+
+        JfrEvents.SqlStatement event = new JfrEvents.SqlStatement();
+        event.statement = "selectDue";
+        event.begin();
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement pstmt = conn.prepareStatement(sqlSelect)) {
+
+            pstmt.setLong(1, now);
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                // getLong gives 0 for NULL, entries from before content hashes just count as changed once
+                dueRefreshes.add(new DueRefresh(rs.getInt("id"), rs.getInt("unchangedRefreshes"), rs.getString("publicationStatus"), rs.getLong("contentHash")));
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            event.rows = dueRefreshes.size();
+            event.commit();
+        }
+
+        return dueRefreshes;
+    }
+
+
+    /**
+     * @return The earliest due time of any entry in epoch seconds, or -1 if the database is empty.
+     */
+    private long getEarliestRefreshAt() {
+        String url = "jdbc:sqlite:" + databaseFilePath;
 
-            Path backupFilePath = getBackupFilePath();
-            Files.copy(Paths.get(this.databaseFilePath), backupFilePath);
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(nextRefreshAt) FROM anime")) {
 
-        } catch (IOException e) {
+            if (rs.next()) {
+                long earliest = rs.getLong(1);
+                return rs.wasNull() ? -1 : earliest;
+            }
+        } catch (SQLException e) {
             e.printStackTrace();
         }
+        return -1;
     }
 
 
     /**
-     * Checks the database folder for an existing backup.
-     * If multiple backups exist (because the user added some to the folder), we just take the first one found.
-     * This is slightly lazy, but oh well.
-     * @return The backup file, if it exists. Else null.
+     * Stores when an anime is next due for a refresh.
+     * @param id The ID of the anime.
+     * @param nextRefreshAt The due time.
+     * @param unchangedRefreshes How many refreshes in a row didn't change the anime so far.
      */
-    private File getExistingBackup() {
-        Path databaseDir = Paths.get(getAppDataPath(), "profiles");
-        File[] files = databaseDir.toFile().listFiles((dir, name) -> name.startsWith("Backup-") && name.endsWith(".db"));
-        if (files != null && files.length > 0) {
-            return files[0];
+    private void scheduleRefresh(int id, Instant nextRefreshAt, int unchangedRefreshes) {
+        String url = "jdbc:sqlite:" + databaseFilePath;
+
+        try (Connection conn = DriverManager.getConnection(url)) {
+            scheduleRefresh(conn, id, nextRefreshAt, unchangedRefreshes);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void scheduleRefresh(Connection conn, int id, Instant nextRefreshAt, int unchangedRefreshes) throws SQLException {
+        String sqlUpdate = "UPDATE anime SET nextRefreshAt = ?, unchangedRefreshes = ? WHERE id = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlUpdate)) {
+            pstmt.setLong(1, nextRefreshAt.getEpochSecond());
+            pstmt.setInt(2, unchangedRefreshes);
+            pstmt.setInt(3, id);
+            pstmt.executeUpdate();
         }
-        return null;
     }
 
 
     /**
-     * For some backup file, reads the date in its filename to a LocalDate object.
-     * @param fileName The provided backup file
-     * @return The corresponding LocalDote object
+     * Processes one batch of due anime, one at a time with a cooldown in between. Asks for the next batch once done.
+     * @param dueRefreshes The batch of anime to be refreshed.
+     * @param index Current index of the batch. Updates when the refresh is finished and a timeout has passed.
      */
-    private LocalDate getDateFromBackupFile(String fileName) {
-        String[] parts = fileName.replace("Backup-", "").replace(".db", "").split("-");
-        int year = Integer.parseInt(parts[0]);
-        int month = Integer.parseInt(parts[1]);
-        int day = Integer.parseInt(parts[2]);
-        return LocalDate.of(year, month, day);
+    private void processNextAnime(List<DueRefresh> dueRefreshes, int index) {
+
+        // Batch done, anything still due is picked up by the next one
+        if (index >= dueRefreshes.size()) {
+            refreshDueAnime();
+            return;
+        }
+
+        DueRefresh dueRefresh = dueRefreshes.get(index);
+
+        apiRequestListener.getAnimeByID(dueRefresh.id())
+                .thenCompose(newAnimeInfo -> submitWrite(() -> {
+                    refreshAnime(dueRefresh, newAnimeInfo);
+                    return null;
+                }))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                    }
+
+                    // Schedule the next anime processing with a delay
+                    CompletableFuture.delayedExecutor(REQUEST_COOLDOWN_MS, TimeUnit.MILLISECONDS)
+                            .execute(() -> processNextAnime(dueRefreshes, index + 1));
+                });
+    }
+
+
+    /**
+     * The actual "update this database entry with updated information" function for the background updater service.
+     * If the API call returned a null (API issues, internet timeout..), the anime is just tried again a bit later.
+     * @param dueRefresh The anime that was due.
+     * @param newAnimeInfo Its current data from the API, or null.
+     */
+    private void refreshAnime(DueRefresh dueRefresh, AnimeInfo newAnimeInfo) {
+        int animeId = dueRefresh.id();
+        Instant now = Instant.now();
+
+        if (newAnimeInfo == null) {
+            System.out.println("Skipping anime ID in database update cycle " + animeId + " due to bad API call.");
+            Metrics.counter("updater.skipped").increment();
+            scheduleRefresh(animeId, now.plus(AnimeRefreshPolicy.RETRY_INTERVAL), dueRefresh.unchangedRefreshes());
+            return;
+        }
+
+        String url = "jdbc:sqlite:" + databaseFilePath;
+        try (Connection conn = DriverManager.getConnection(url)) {
+            if (newAnimeInfo.getContentHash() == dueRefresh.contentHash()) {
+                storeUnchangedAnime(conn, dueRefresh, newAnimeInfo, now);
+                return;
+            }
+
+            // Read fresh, the user may have changed their progress since the batch was fetched (or removed the anime)
+            AnimeInfo animeInfo = getAnimeEntryFromDatabase(animeId);
+            if (animeInfo != null) {
+                publishChange(storeRefreshedAnime(conn, animeInfo, newAnimeInfo, now));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * For a refreshed anime whose API data is the same as what's stored: only the dates are updated,
+     * instead of rewriting the whole row (and bloating the database file, journal and backups for nothing).
+     * <p>The user's own fields (status, rating, progress) aren't touched here, so their edits are safe either way.
+     * The "AND contentHash = ?" only guards against the stored API data having been replaced since the due entries
+     * were read, e.g. by a popup save carrying newer data from Browse. Then the fresh data isn't known to match
+     * anymore, so the dates are left alone.</p>
+     * @param conn The open connection.
+     * @param dueRefresh The anime that was due.
+     * @param newAnimeInfo Its fresh data from the API, with the same content hash as stored.
+     * @param now The current time.
+     * @return The amount of changed rows. 0 if the entry was removed or its API data replaced since the refresh started,
+     *         a removed entry is gone, a replaced one stays due and is simply picked up again.
+     */
+    private int storeUnchangedAnime(Connection conn, DueRefresh dueRefresh, AnimeInfo newAnimeInfo, Instant now) throws SQLException {
+        String sqlUpdate = "UPDATE anime SET lastUpdate = ?, nextRefreshAt = ?, unchangedRefreshes = ? WHERE id = ? AND contentHash = ?";
+        int unchangedRefreshes = dueRefresh.unchangedRefreshes() + 1;
+        Metrics.counter("updater.unchanged").increment();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlUpdate)) {
+            pstmt.setString(1, newAnimeInfo.getLastUpdated());
+            pstmt.setLong(2, AnimeRefreshPolicy.nextRefreshAt(newAnimeInfo, unchangedRefreshes, now).getEpochSecond());
+            pstmt.setInt(3, unchangedRefreshes);
+            pstmt.setInt(4, dueRefresh.id());
+            pstmt.setLong(5, dueRefresh.contentHash());
+            return pstmt.executeUpdate();
+        }
     }
 
 
     /**
-     * Gets file path to use for a new backup file with today's date.
-     * @return The finished path
+     * Writes the fresh data of a refreshed anime whose API data changed over the stored one, and stores its next due time.
+     * @param conn The open connection.
+     * @param animeInfo The anime as currently stored.
+     * @param newAnimeInfo Its fresh data from the API.
+     * @param now The current time.
+     * @return The change to publish to the change listeners (null if there is none).
      */
-    private Path getBackupFilePath() {
-        LocalDate currentDate = LocalDate.now();
-        String backupFileName = String.format("Backup-%d-%02d-%02d.db",
-                currentDate.getYear(), currentDate.getMonthValue(), currentDate.getDayOfMonth());
-        return Paths.get(getAppDataPath(), "profiles", backupFileName);
+    private AnimeChange storeRefreshedAnime(Connection conn, AnimeInfo animeInfo, AnimeInfo newAnimeInfo, Instant now) throws SQLException {
+
+        // We only update the static info, the user's info needs to be kept
+        newAnimeInfo.setOwnRating(animeInfo.getOwnRating());
+        newAnimeInfo.setOwnStatus(animeInfo.getOwnStatus());
+        newAnimeInfo.setEpisodesProgress(animeInfo.getEpisodesProgress());
+
+        // Same goes for our image preview, unless the cover changed
+        if (newAnimeInfo.getSmallImageUrl().equals(animeInfo.getSmallImageUrl())) {
+            newAnimeInfo.setImagePreview(animeInfo.getImagePreview());
+        }
+
+        Metrics.counter("updater.changed").increment();
+
+        upsertAnimeEntry(conn, newAnimeInfo);
+        scheduleRefresh(conn, newAnimeInfo.getId(), AnimeRefreshPolicy.nextRefreshAt(newAnimeInfo, 0, now), 0);
+        return AnimeChange.between(animeInfo, newAnimeInfo);
     }
 }
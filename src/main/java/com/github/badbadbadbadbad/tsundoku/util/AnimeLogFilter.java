@@ -0,0 +1,155 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+
+/**
+ * The filters of the anime Log view, evaluated on a single anime.
+ * Created once per filter change with the current filter values, so the search string is only lowercased
+ * and the number inputs are only parsed once instead of once per item.
+ *
+ * <p>Kept out of the view so it can be measured by the benchmarks without any JavaFX running.</p>
+ */
+public class AnimeLogFilter {
+
+    private final String lowerSearchString;
+    private final String personalStatus;
+    private final String personalRating;
+    private final String releaseStatus;
+    private final String ageRating;
+    private final String season;
+    private final String type;
+
+    // Episode filters are ignored if the input isn't a number, year filters reject everything instead.
+    // That's how the Log has always behaved, so we keep it. The year filters are on if there's any input at all,
+    // their parsed values are null if it isn't a number.
+    private final Integer minEpisodes;
+    private final Integer maxEpisodes;
+    private final boolean filterStartYear;
+    private final boolean filterEndYear;
+    private final Integer startYear;
+    private final Integer endYear;
+
+    public AnimeLogFilter(String searchString, String personalStatus, String personalRating, String releaseStatus,
+                          String ageRating, String season, String type, String minEpisodes, String maxEpisodes,
+                          String startYear, String endYear) {
+        this.lowerSearchString = searchString.toLowerCase();
+        this.personalStatus = personalStatus;
+        this.personalRating = personalRating;
+        this.releaseStatus = releaseStatus;
+        this.ageRating = ageRating;
+        this.season = season;
+        this.type = type;
+        this.minEpisodes = parseOrNull(minEpisodes);
+        this.maxEpisodes = parseOrNull(maxEpisodes);
+        this.filterStartYear = startYear != null && !startYear.isEmpty();
+        this.filterEndYear = endYear != null && !endYear.isEmpty();
+        this.startYear = parseOrNull(startYear);
+        this.endYear = parseOrNull(endYear);
+    }
+
+
+    /**
+     * @param animeInfo The anime to check.
+     * @return True if the anime passes all filters.
+     */
+    public boolean matches(AnimeInfo animeInfo) {
+
+        // Search string filter
+        if (!lowerSearchString.isEmpty()) {
+            String title = animeInfo.getTitle() != null ? animeInfo.getTitle().toLowerCase() : "";
+            String titleJapanese = animeInfo.getTitleJapanese() != null ? animeInfo.getTitleJapanese().toLowerCase() : "";
+            String titleEnglish = animeInfo.getTitleEnglish() != null ? animeInfo.getTitleEnglish().toLowerCase() : "";
+
+            if (!(title.contains(lowerSearchString) ||
+                    titleJapanese.contains(lowerSearchString) ||
+                    titleEnglish.contains(lowerSearchString))) {
+                return false;
+            }
+        }
+
+        // Personal status filter
+        if (!"Any".equals(personalStatus) && !personalStatus.equals(animeInfo.getOwnStatus())) {
+            return false;
+        }
+
+        // Personal rating filter
+        if (!"Any".equals(personalRating) && !personalRating.equals(animeInfo.getOwnRating())) {
+            return false;
+        }
+
+        // Release status filter
+        if (!"Any".equals(releaseStatus) && !releaseStatus.equals(animeInfo.getPublicationStatus())) {
+            return false;
+        }
+
+        // Age rating filter
+        if (!"Any".equals(ageRating) && !ageRating.equals(animeInfo.getAgeRating())) {
+            return false;
+        }
+
+        // Episode filters
+        if (minEpisodes != null && animeInfo.getEpisodesTotal() < minEpisodes) {
+            return false;
+        }
+
+        if (maxEpisodes != null && animeInfo.getEpisodesTotal() > maxEpisodes) {
+            return false;
+        }
+
+        // Release year filters
+        if (filterStartYear || filterEndYear) {
+            Integer releaseYear = parseReleaseYear(animeInfo.getRelease());
+            if (releaseYear == null) {
+                return false;
+            }
+
+            if (filterStartYear && (startYear == null || releaseYear < startYear)) {
+                return false;
+            }
+
+            if (filterEndYear && (endYear == null || releaseYear > endYear)) {
+                return false;
+            }
+        }
+
+        // Release season filter
+        if (!"Any".equals(season)) {
+            String release = animeInfo.getRelease();
+            if (!"Not yet provided".equals(release)) {
+                String seasonStr = release.substring(0, release.length() - 5); // Trim space bar and four-digit release year
+                if (!season.equals(seasonStr)) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+
+        // Type filter
+        return "Any".equals(type) || type.equals(animeInfo.getType());
+    }
+
+
+    /**
+     * @param release A release String of the form "[Season] Year", see AnimeInfo
+     * @return The year, or null if the anime doesn't have one
+     */
+    private static Integer parseReleaseYear(String release) {
+        if (release == null || release.length() < 4 || "Not yet provided".equals(release)) {
+            return null;
+        }
+        return parseOrNull(release.substring(release.length() - 4));
+    }
+
+
+    private static Integer parseOrNull(String number) {
+        if (number == null || number.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
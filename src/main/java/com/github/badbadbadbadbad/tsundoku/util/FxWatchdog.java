@@ -0,0 +1,176 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import javafx.application.Platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the JavaFX thread for stalls (anything blocking it long enough for the UI to visibly freeze),
+ * and finds out what it was stuck in.
+ *
+ * <p>A background thread keeps posting heartbeats via Platform.runLater. If one isn't answered within
+ * STALL_THRESHOLD_MS, the FX thread's stack is sampled every few ms until it is. Once the stall is over,
+ * the frame of this program the FX thread was found in most often is reported: printed to the console,
+ * and counted in the "fxStalls" group of the Diagnostics view (next to fx.stalls, the stall durations).</p>
+ *
+ * <p>Started with -Dtsundoku.debug=true, the full stack of that frame is printed too.
+ * The threshold can be changed with -Dtsundoku.stallThresholdMs=&lt;ms&gt;.</p>
+ */
+public class FxWatchdog {
+
+    private static final boolean DEBUG = Boolean.getBoolean("tsundoku.debug");
+    private static final long STALL_THRESHOLD_MS = Long.getLong("tsundoku.stallThresholdMs", 250);
+    private static final long HEARTBEAT_INTERVAL_MS = 100;
+    private static final long SAMPLE_INTERVAL_MS = 10;
+    private static final int MAX_PRINTED_FRAMES = 20;
+
+    private static final String OWN_PACKAGE = "com.github.badbadbadbadbad.tsundoku.";
+
+    private static Thread watchdogThread;
+
+    private final Thread fxThread;
+    private volatile long answeredHeartbeatNanos;
+
+    // Only touched by the watchdog thread
+    private long sentHeartbeatNanos = 0;
+    private final Map<StackTraceElement, Integer> stallFrameCounts = new HashMap<>();
+    private final Map<StackTraceElement, StackTraceElement[]> stallStacks = new HashMap<>();
+
+
+    private FxWatchdog(Thread fxThread) {
+        this.fxThread = fxThread;
+        this.answeredHeartbeatNanos = System.nanoTime();
+    }
+
+
+    /**
+     * Starts watching the JavaFX thread. Has to be called from it.
+     */
+    public static synchronized void start() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("FxWatchdog.start() has to be called from the JavaFX thread");
+        }
+        if (watchdogThread != null) {
+            return;
+        }
+
+        FxWatchdog watchdog = new FxWatchdog(Thread.currentThread());
+        watchdogThread = new Thread(watchdog::run, "fx-watchdog");
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+    }
+
+
+    public static synchronized void stop() {
+        if (watchdogThread != null) {
+            watchdogThread.interrupt();
+            watchdogThread = null;
+        }
+    }
+
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                tick(System.nanoTime());
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            // Program is closing
+        }
+    }
+
+
+    private void tick(long now) {
+        long answered = answeredHeartbeatNanos;
+        boolean waitingForHeartbeat = sentHeartbeatNanos > answered;
+
+        if (waitingForHeartbeat) {
+            if (now - sentHeartbeatNanos > TimeUnit.MILLISECONDS.toNanos(STALL_THRESHOLD_MS)) {
+                sampleFxThread();
+            }
+            return;
+        }
+
+        // Heartbeat came back. If we were sampling, the stall just ended.
+        if (!stallFrameCounts.isEmpty()) {
+            reportStall(answered - sentHeartbeatNanos);
+        }
+
+        if (now - answered >= TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_INTERVAL_MS)) {
+            sentHeartbeatNanos = now;
+            Platform.runLater(() -> answeredHeartbeatNanos = System.nanoTime());
+        }
+    }
+
+
+    /**
+     * Takes a stack sample of the FX thread and counts the frame of this program it is in.
+     */
+    private void sampleFxThread() {
+        StackTraceElement[] stack = fxThread.getStackTrace();
+        if (stack.length == 0) {
+            return;
+        }
+
+        StackTraceElement frame = findOwnFrame(stack);
+        stallFrameCounts.merge(frame, 1, Integer::sum);
+        stallStacks.putIfAbsent(frame, stack);
+    }
+
+
+    /**
+     * JavaFX / JDK internals at the top of the stack aren't very helpful (it's always "waiting on a socket" or similar),
+     * the interesting part is which of our functions called into them.
+     * @return The topmost frame of this program, or the topmost frame at all if there is none.
+     */
+    private static StackTraceElement findOwnFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith(OWN_PACKAGE)) {
+                return frame;
+            }
+        }
+        return stack[0];
+    }
+
+
+    private void reportStall(long durationNanos) {
+        StackTraceElement worstFrame = null;
+        int worstCount = 0;
+        int totalSamples = 0;
+        for (Map.Entry<StackTraceElement, Integer> entry : stallFrameCounts.entrySet()) {
+            totalSamples += entry.getValue();
+            if (entry.getValue() > worstCount) {
+                worstFrame = entry.getKey();
+                worstCount = entry.getValue();
+            }
+        }
+
+        String location = shortLocation(worstFrame);
+        Metrics.timer("fx.stalls").record(durationNanos);
+        Metrics.counter("fxStalls." + location).increment();
+
+        System.out.println("JavaFX thread stalled for " + TimeUnit.NANOSECONDS.toMillis(durationNanos) + " ms, in "
+                + location + " for " + worstCount + " of " + totalSamples + " samples");
+
+        if (DEBUG) {
+            StackTraceElement[] stack = stallStacks.get(worstFrame);
+            for (int i = 0; i < Math.min(stack.length, MAX_PRINTED_FRAMES); i++) {
+                System.out.println("\tat " + stack[i]);
+            }
+        }
+
+        stallFrameCounts.clear();
+        stallStacks.clear();
+    }
+
+
+    // "AnimeBrowseView.initComponent:153" instead of the full package and file name
+    private static String shortLocation(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        return simpleName + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+    }
+}
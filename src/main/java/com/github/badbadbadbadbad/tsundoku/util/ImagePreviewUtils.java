@@ -0,0 +1,65 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+
+/**
+ * Computes tiny previews of cover images, so grid items have something to show while the real cover is still loading.
+ * A preview is just a few colours (the averages of horizontal bands of the cover, top to bottom), stored as a
+ * comma-separated String of hex colours like "#1a2b3c,#4d5e6f,#7a8b9c". Small enough to go into the database.
+ *
+ * <p>Previews are only ever computed from covers the program loaded anyway (Log grid items, the popup),
+ * so they cost no extra downloads.</p>
+ */
+public class ImagePreviewUtils {
+
+    private static final int PREVIEW_BANDS = 3;
+
+    // An average doesn't need every pixel, a grid of samples this wide per band is plenty
+    private static final int SAMPLES_PER_ROW = 24;
+
+    /**
+     * Averages the colours of an already loaded image per band.
+     * Only samples a few hundred pixels, so this is cheap enough for the JavaFX thread.
+     * @param image The image, small or full cover.
+     * @return The preview String, or null if the image isn't (successfully) loaded.
+     */
+    public static String computeImagePreview(Image image) {
+        if (image == null || image.isError() || image.getProgress() < 1.0) {
+            return null;
+        }
+
+        PixelReader reader = image.getPixelReader();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        if (reader == null || width == 0 || height < PREVIEW_BANDS) {
+            return null;
+        }
+
+        StringBuilder preview = new StringBuilder();
+        int bandHeight = height / PREVIEW_BANDS;
+        int step = Math.max(1, width / SAMPLES_PER_ROW);
+
+        for (int band = 0; band < PREVIEW_BANDS; band++) {
+            long r = 0, g = 0, b = 0;
+            int count = 0;
+
+            for (int y = band * bandHeight; y < (band + 1) * bandHeight; y += step) {
+                for (int x = 0; x < width; x += step) {
+                    int argb = reader.getArgb(x, y);
+                    r += (argb >> 16) & 0xFF;
+                    g += (argb >> 8) & 0xFF;
+                    b += argb & 0xFF;
+                    count++;
+                }
+            }
+
+            if (band > 0) {
+                preview.append(',');
+            }
+            preview.append(String.format("#%02x%02x%02x", r / count, g / count, b / count));
+        }
+
+        return preview.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events for the hot paths of this program, so a recording of a sluggish session shows which
+ * part (API, JSON parsing, database, images, grid layout..) the time went into, next to the JVM's own GC / thread events.
+ *
+ * <p>Record with e.g. {@code -XX:StartFlightRecording=filename=tsundoku.jfr,settings=profile} and open the file in
+ * JDK Mission Control. All events are under the "tsundoku" category.</p>
+ *
+ * <p>While no recording is running, JFR disables the events and begin() / commit() do nothing, so the
+ * instrumented code only pays for creating the (usually scalar-replaced) event object.
+ * Fields only worth setting for an actual recording are set behind shouldCommit().</p>
+ */
+public class JfrEvents {
+
+    @Name("tsundoku.HttpExchange")
+    @Label("HTTP Exchange")
+    @Category({"tsundoku", "API"})
+    @Description("A request to the anime API, from sending it until the full response arrived (or it failed)")
+    public static class HttpExchange extends Event {
+        @Label("Endpoint")
+        public String endpoint;
+
+        @Label("Page")
+        public int page;
+
+        @Label("Status Code")
+        @Description("HTTP status of the response, or -1 if the request failed")
+        public int statusCode;
+
+        @Label("Response Size")
+        @DataAmount
+        public long bytes;
+    }
+
+
+    @Name("tsundoku.JsonParse")
+    @Label("JSON Parse")
+    @Category({"tsundoku", "API"})
+    @Description("Parsing an API response into AnimeInfo objects")
+    public static class JsonParse extends Event {
+        @Label("Endpoint")
+        public String endpoint;
+
+        @Label("Input Size")
+        @DataAmount
+        public long bytes;
+
+        @Label("Entries")
+        public int entries;
+    }
+
+
+    @Name("tsundoku.SqlStatement")
+    @Label("SQL Statement")
+    @Category({"tsundoku", "Database"})
+    @Description("A database query or update, including opening the connection")
+    public static class SqlStatement extends Event {
+        @Label("Statement")
+        public String statement;
+
+        @Label("Rows")
+        @Description("Rows read or changed")
+        public int rows;
+    }
+
+
+    @Name("tsundoku.ImageDecode")
+    @Label("Image Load")
+    @Category({"tsundoku", "Images"})
+    @Description("Downloading and decoding a cover image")
+    public static class ImageDecode extends Event {
+        @Label("URL")
+        public String url;
+
+        @Label("Purpose")
+        @Description("What the image was loaded for, like the Log grid or an image preview")
+        public String purpose;
+
+        @Label("Width")
+        public int width;
+
+        @Label("Height")
+        public int height;
+    }
+
+
+    @Name("tsundoku.VisibilityUpdate")
+    @Label("Visibility Update")
+    @Category({"tsundoku", "Layout"})
+    @Description("Working out which grid items are in the viewport and (un)loading their covers")
+    public static class VisibilityUpdate extends Event {
+        @Label("View")
+        public String view;
+
+        @Label("First Visible Index")
+        public int firstIndex;
+
+        @Label("Last Visible Index")
+        public int lastIndex;
+
+        @Label("Fast Scrolling")
+        public boolean fastScrolling;
+    }
+
+
+    @Name("tsundoku.GridRebuild")
+    @Label("Grid Rebuild")
+    @Category({"tsundoku", "Layout"})
+    @Description("Swapping the items of a view's grids for new ones")
+    public static class GridRebuild extends Event {
+        @Label("View")
+        public String view;
+
+        @Label("Node Count")
+        @Description("Grid items in the rebuilt grids")
+        public int nodeCount;
+    }
+}
@@ -1,19 +1,18 @@
 package com.github.badbadbadbadbad.tsundoku.util;
 
 import com.github.badbadbadbadbad.tsundoku.external.FlowGapPane;
+import com.github.badbadbadbadbad.tsundoku.external.SmoothScroll;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
-import javafx.animation.FadeTransition;
-import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.geometry.Bounds;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
-import javafx.util.Duration;
 import javafx.util.Pair;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.BiConsumer;
 
 import javafx.animation.AnimationTimer;
 
@@ -26,40 +25,59 @@ import javafx.animation.AnimationTimer;
  */
 public class LazyLoader {
 
+    // Above this scroll speed, visible items only get their small cover and the full covers are loaded
+    // for the viewport the smooth scroll is going to land on instead.
+    private static final double FAST_SCROLL_PX_PER_SECOND = 4000;
+    private static final int MAX_IMAGE_UPDATES_PER_FRAME = 3;
+
     // Threads dedicated to image loading
     private final ExecutorService imageLoaderExecutor = Executors.newFixedThreadPool(3);
 
-    // Simple background timer taking loaded images and setting them as backgrounds, once per frame
+    // Simple background timer running once per frame. Tracks the scroll speed, runs visibility updates,
+    // and takes loaded images and sets them as backgrounds.
     // (Somewhat hacky JavaFX way to have a timed background service in the JavaFX thread without Platform.runLater)
     private AnimationTimer batchImageUpdaterTimer;
     private final ConcurrentLinkedQueue<Pair<Node, String>> pendingImageUpdates = new ConcurrentLinkedQueue<>();
 
+    // The image URL each item has requested (or is displaying). Items not in here have no image.
+    // Concurrent because the loader threads check it to drop requests that went stale while queued.
+    private final Map<Node, String> requestedImageUrls = new ConcurrentHashMap<>();
+
     private final AspectRatio aspectRatio;
     private final PaneFinder paneFinder;
     private final ScrollPane scrollPane;
+    private final SmoothScroll smoothScroll;
     private final List<FlowGapPane> flowPanes;
+    private final BiConsumer<AnimeInfo, String> onImagePreviewComputed;
     private int firstVisibleIndex;
     private int lastVisibleIndex;
 
-    // There's some slight issues if the image loader / image setter services run all the time;
-    // it's possible for actions to "overwrite" each other in a way.
-    // Hence, we pause the services on scroll events, and resume them when the scrolling ends.
-    // May have to tinker with the timers still.
-    private final PauseTransition loaderPause = new PauseTransition(Duration.seconds(0.1));
-    private final PauseTransition imagePause = new PauseTransition(Duration.seconds(0.1));
+    // This used to pause the services on scroll events and resume them 200ms after scrolling ended,
+    // so images only ever appeared after the user had stopped. Instead, we now track the scroll speed every frame
+    // and keep loading while scrolling, adjusting what is loaded to how fast the user is moving.
+    private boolean visibilityUpdateRequested = false;
+    private boolean suspended = false;
+    private boolean fastScrolling = false;
+    private double scrollVelocity = 0;              // Smoothed, in pixels per second
+    private double lastViewportMinY = 0;
+    private long lastFrameTime = 0;
 
-    public LazyLoader(ScrollPane scrollPane, List<FlowGapPane> flowPanes, AspectRatio aspectRatio) {
+    /**
+     * @param onImagePreviewComputed Gets the image preview of items that didn't have one yet, computed from the
+     *                               cover once it's loaded, so it can be stored.
+     */
+    public LazyLoader(ScrollPane scrollPane, SmoothScroll smoothScroll, List<FlowGapPane> flowPanes, AspectRatio aspectRatio,
+                      BiConsumer<AnimeInfo, String> onImagePreviewComputed) {
         this.aspectRatio = aspectRatio;
+        this.onImagePreviewComputed = onImagePreviewComputed;
         this.scrollPane = scrollPane;
+        this.smoothScroll = smoothScroll;
         this.flowPanes = flowPanes;
         this.paneFinder = new PaneFinder(flowPanes);
 
-        loaderPause.setOnFinished(e -> executeUpdateVisibilityFull());
-        imagePause.setOnFinished(e -> loadVisibleImages());
-
         startBatchImageUpdater();
 
-        Pair<FlowGapPane, Integer> first = paneFinder.findPaneAndChildIndex(0);
+        Node first = paneFinder.findNode(0);
 
         // We only initialize stuff if the log actually contains items.
         // If the log contains no items, then it's impossible to add any without switching to Browse view first.
@@ -68,7 +86,7 @@ public class LazyLoader {
 
             setFirstVisibleIndex(0);
             setLastVisibleIndex(0);
-            makeItemVisible(first.getKey().getChildren().get(first.getValue()));
+            makeItemVisible(first, true);
 
 
             // Force adjustGridItemHeights to run post-layout-calculated so the grid items actually have a width.
@@ -123,241 +141,240 @@ public class LazyLoader {
 
 
     /**
-     * Unloads the image backgrounds of all log items currently visible,
-     * which is the items with indices from firstVisible to lastVisible.
+     * Unloads the image backgrounds of all log items that currently have one (or have one on its way).
      */
     public void unloadVisible() {
 
-        // Also stop any potential loading still going on right now
-        loaderPause.stop();
-        imagePause.stop();
-        if (batchImageUpdaterTimer != null) {
-            batchImageUpdaterTimer.stop();
-            pendingImageUpdates.clear();
-        }
-
-
-        while (firstVisibleIndex <= lastVisibleIndex) {
-            Pair<FlowGapPane, Integer> firstNodePair = paneFinder.findPaneAndChildIndex(firstVisibleIndex);
-
-            if (firstNodePair == null) {
-                return;
-            }
-
-            Node firstNode = firstNodePair.getKey().getChildren().get(firstNodePair.getValue());
-
-            makeItemInvisible(firstNode);
-            firstVisibleIndex++;
-
+        // Also drop any images that finished loading but were not set yet
+        pendingImageUpdates.clear();
 
+        for (Node node : requestedImageUrls.keySet()) {
+            hideItem(node);
         }
+        requestedImageUrls.clear();
     }
 
 
     /**
      * Does not actually start the visibility update.
-     * Instead, this starts the timer that initiates the visibility update when it ends
-     * (which may be interrupted / restarted by other calls).
+     * Instead, this flags the per-frame timer to run one on its next frame, so any amount of calls within the same frame
+     * (vvalue changes, resizes, filter changes) only cause a single update.
      */
     public void updateVisibilityFull() {
-        loaderPause.stop();
-        imagePause.stop();
+        visibilityUpdateRequested = true;
+        if (batchImageUpdaterTimer != null && !suspended) {
+            batchImageUpdaterTimer.start();
+        }
+    }
+
+
+    /**
+     * For when the Log view is switched away from but kept around: stops the per-frame timer and unloads all images.
+     * Visibility updates requested meanwhile (like database changes patching the grids) wait for resume.
+     */
+    public void suspend() {
+        suspended = true;
         if (batchImageUpdaterTimer != null) {
             batchImageUpdaterTimer.stop();
         }
+        unloadVisible();
+    }
 
-        loaderPause.playFromStart();
+
+    /**
+     * Counterpart to suspend, loads the images of whatever is in the viewport again.
+     */
+    public void resume() {
+        suspended = false;
+        lastFrameTime = 0;      // Else the time away would count as one very long frame for the scroll speed
+        updateVisibilityFull();
     }
 
 
     /**
      * The actual function to start up a new visibility update.
-     * Step 1: Go through visible items and turn them invisible if they left the viewport.
-     * Step 2: If no visible items remain, get a new visible item via binary search over the full Log.
-     * Step 3: Go through nearby invisible items (starting at visible items) and turn them invisible if in viewport.
+     * Step 1: Calculate the viewport, and the viewport the smooth scroll will land on, from the scroll offsets.
+     * Step 2: Unload items that are in neither of the two.
+     * Step 3: Calculate the range of items inside the viewport from the fixed grid geometry and request their images.
+     *         At low scroll speed, that's the full cover. At high speed, only the small cover, while the items
+     *         of the landing viewport get their full covers so they are ready when the scroll stops.
      */
     public void executeUpdateVisibilityFull() {
-        Bounds paneBounds = scrollPane.localToScene(scrollPane.getBoundsInLocal());
-
-        // Currently visible items: Downwards from start
-        while (firstVisibleIndex <= lastVisibleIndex) {
-            Pair<FlowGapPane, Integer> firstNodePair = paneFinder.findPaneAndChildIndex(firstVisibleIndex);
-
-            if (firstNodePair == null) {
-                return;
+        visibilityUpdateRequested = false;
+        long start = System.nanoTime();
+        JfrEvents.VisibilityUpdate event = new JfrEvents.VisibilityUpdate();
+        event.begin();
+
+        double viewportHeight = scrollPane.getViewportBounds().getHeight();
+        double viewportMinY = ViewportUtils.getViewportMinY(scrollPane);
+        double viewportMaxY = viewportMinY + viewportHeight;
+        double landingMinY = ViewportUtils.getViewportMinY(scrollPane, smoothScroll.getAccumulatedVValue());
+        double landingMaxY = landingMinY + viewportHeight;
+
+
+        // Items which left both the viewport and the landing viewport
+        requestedImageUrls.keySet().removeIf(node -> {
+            boolean keep = isItemInRange(node, viewportMinY, viewportMaxY) || isItemInRange(node, landingMinY, landingMaxY);
+            if (!keep) {
+                hideItem(node);
             }
+            return !keep;
+        });
 
-            Node firstNode = firstNodePair.getKey().getChildren().get(firstNodePair.getValue());
-            boolean inViewport = isItemInViewport(firstNode, paneBounds);
-
-            if (inViewport) {
-                break;
-            } else {
-                makeItemInvisible(firstNode);
-                firstVisibleIndex++;
-            }
-        }
-
-        // Currently visible items: Upwards from end
-        while (lastVisibleIndex >= firstVisibleIndex) {
-            Pair<FlowGapPane, Integer> lastNodePair = paneFinder.findPaneAndChildIndex(lastVisibleIndex);
-            Node lastNode = lastNodePair.getKey().getChildren().get(lastNodePair.getValue());
-
-
-            boolean inViewport = isItemInViewport(lastNode, paneBounds);
-
-            if (inViewport) {
-                break;
-            } else {
-                makeItemInvisible(lastNode);
-                lastVisibleIndex--;
-            }
-        }
 
+        // Empty viewport is stored as an empty range (first > last)
+        firstVisibleIndex = Math.max(0, findFirstIndexInRange(viewportMinY, viewportMaxY));
+        lastVisibleIndex = findLastIndexInRange(viewportMinY, viewportMaxY);
+        loadImagesInRange(firstVisibleIndex, lastVisibleIndex, !fastScrolling);
 
-        // Get new index via binary search if we scrolled too far
-        if (firstVisibleIndex >= lastVisibleIndex) {
-            identifyNewVisibleNode(paneBounds);
+        if (fastScrolling) {
+            int firstLandingIndex = Math.max(0, findFirstIndexInRange(landingMinY, landingMaxY));
+            int lastLandingIndex = findLastIndexInRange(landingMinY, landingMaxY);
+            loadImagesInRange(firstLandingIndex, lastLandingIndex, true);
         }
 
-
-        // Check upwards for new visible items
-        int index = firstVisibleIndex - 1;
-        while (index >= 0) {
-            
-            Pair<FlowGapPane, Integer> nodePair = paneFinder.findPaneAndChildIndex(index);
-            if (nodePair == null) {
-                break;
-            }
-
-            Node node = nodePair.getKey().getChildren().get(nodePair.getValue());
-            boolean inViewport = isItemInViewport(node, paneBounds);
-
-            if (inViewport) {
-                firstVisibleIndex = index;
-                index--;
-            } else {
-                break;
-            }
+        Metrics.timer("lazyLoader.visibilityUpdate").recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = "Log";
+            event.firstIndex = firstVisibleIndex;
+            event.lastIndex = lastVisibleIndex;
+            event.fastScrolling = fastScrolling;
+            event.commit();
         }
+    }
 
 
-        // Check downwards for new visible items
-        index = lastVisibleIndex + 1;
-        while (index < paneFinder.getTotalItemCount()) {
-            Pair<FlowGapPane, Integer> nodePair = paneFinder.findPaneAndChildIndex(index);
-            if (nodePair == null) {
-                break;
-            }
-
-            Node node = nodePair.getKey().getChildren().get(nodePair.getValue());
-            boolean inViewport = isItemInViewport(node, paneBounds);
-
-            if (inViewport) {
-                lastVisibleIndex = index;
-                index++;
-            } else {
-                break;
+    /**
+     * Panes are stacked vertically in super-index order, so the items of all panes overlapping
+     * some vertical range form one contiguous super-index range.
+     * @param minY Upper end of the range, in coordinates of the scrollPane's content.
+     * @param maxY Lower end of the range, in coordinates of the scrollPane's content.
+     * @return The super-index of the first item overlapping the range, or -1 if no item does.
+     */
+    private int findFirstIndexInRange(double minY, double maxY) {
+        int paneOffset = 0;
+        for (int i = 0; i < flowPanes.size(); i++) {
+            FlowGapPane pane = flowPanes.get(i);
+            int paneFirst = pane.getFirstChildIndexInRange(minY, maxY);
+            if (paneFirst != -1) {
+                return paneOffset + paneFirst;
             }
+            paneOffset += pane.getChildren().size();
         }
-
-        imagePause.playFromStart();
-        if (batchImageUpdaterTimer != null) {
-            batchImageUpdaterTimer.start();
-        }
+        return -1;
     }
 
+
     /**
-     * Basic binary search to identify some child of the Log which is currently in the viewport.
-     * The test performed in each search step is just an intersection test between the currently chosen item and the viewport.
-     * @param paneBounds The viewport bounds of the scrollPane containing the Log.
+     * Counterpart to findFirstIndexInRange.
+     * @param minY Upper end of the range, in coordinates of the scrollPane's content.
+     * @param maxY Lower end of the range, in coordinates of the scrollPane's content.
+     * @return The super-index of the last item overlapping the range, or -2 if no item does.
      */
-    void identifyNewVisibleNode(Bounds paneBounds) {
-        int low = 0;
-        int high = paneFinder.getTotalItemCount() - 1;
-
-        while (low <= high) {
-            int mid = (low + high) / 2;
-
-            Pair<FlowGapPane, Integer> nodePair = paneFinder.findPaneAndChildIndex(mid);
-            Node node = nodePair.getKey().getChildren().get(nodePair.getValue());
-
-            boolean inViewport = isItemInViewport(node, paneBounds);
-
-            if (inViewport) {
-                setFirstVisibleIndex(mid);
-                setLastVisibleIndex(mid);
-                return;
-            } else {
-                Bounds nodeBounds = node.localToScene(node.getBoundsInLocal());
-                double nodeY = nodeBounds.getMinY();
-
-                if (nodeY < 0)
-                    low = mid + 1;
-                else
-                    high = mid - 1;
+    private int findLastIndexInRange(double minY, double maxY) {
+        int lastIndex = -2;
+        int paneOffset = 0;
+        for (int i = 0; i < flowPanes.size(); i++) {
+            FlowGapPane pane = flowPanes.get(i);
+            int paneLast = pane.getLastChildIndexInRange(minY, maxY);
+            if (paneLast != -1) {
+                lastIndex = paneOffset + paneLast;
             }
+            paneOffset += pane.getChildren().size();
         }
+        return lastIndex;
     }
 
 
-
-    private boolean isItemInViewport(Node n, Bounds paneBounds) {
-        Bounds nodeBounds = n.localToScene(n.getBoundsInLocal());
-        return paneBounds.intersects(nodeBounds);
+    private boolean isItemInRange(Node n, double minY, double maxY) {
+        if (!(n.getParent() instanceof FlowGapPane pane)) {
+            return false;
+        }
+        return pane.isChildInRange(n, minY, maxY);
     }
 
 
     /**
      * Does not actually start the image loading itself.
-     * This goes through the items that _should_ be visible and adds the task to make them visible to the background async pipeline.
-     * It's done this way to have an extra check of sorts if this item is still visible or if the user already scrolled past
-     * by the time the loader routine reaches this item.
+     * This goes through the items of some super-index range and adds the task to load their images to the background async pipeline.
+     * @param first First super-index of the range.
+     * @param last Last super-index of the range.
+     * @param fullImage Whether to load the full cover or the small cover.
      */
-    private void loadVisibleImages() {
-        for (int i = firstVisibleIndex; i <= lastVisibleIndex; i++) {
-            Pair<FlowGapPane, Integer> nodePair = paneFinder.findPaneAndChildIndex(i);
+    private void loadImagesInRange(int first, int last, boolean fullImage) {
+        for (int i = first; i <= last; i++) {
+            Node node = paneFinder.findNode(i);
 
-            if (nodePair == null) {
+            if (node == null) {
                 return;
             }
 
-            Node node = nodePair.getKey().getChildren().get(nodePair.getValue());
-            makeItemVisible(node);
+            makeItemVisible(node, fullImage);
         }
     }
 
 
     /**
      * Adds a background thread task to the queue of image loader tasks so this image will be loaded eventually.
+     * Items that already requested the same image are skipped, and items with a full cover are never downgraded to the small one.
      * @param n The Log grid node for which an image needs to be loaded.
+     * @param fullImage Whether to load the full cover or the small cover.
      */
-    private void makeItemVisible(Node n) {
-        if (!n.isVisible()){
-            AnimeInfo anime = (AnimeInfo) n.getUserData();
+    private void makeItemVisible(Node n, boolean fullImage) {
+        AnimeInfo anime = (AnimeInfo) n.getUserData();
+        String imageUrl = fullImage ? anime.getImageUrl() : anime.getSmallImageUrl();
+        String currentUrl = requestedImageUrls.get(n);
+
+        if (imageUrl.equals(currentUrl) || (currentUrl != null && !fullImage)) {
+            return;
+        }
+
+        requestedImageUrls.put(n, imageUrl);
+        Metrics.gauge("images.loadQueue").add(1);
+
+        CompletableFuture.runAsync(() -> {
+            Metrics.gauge("images.loadQueue").add(-1);
 
-            Future<?> future = CompletableFuture.runAsync(() -> {
-                String imageUrl = anime.getImageUrl();
-                // String imageUrl = anime.getSmallImageUrl();
+            // The user may have scrolled past this item while the task was queued
+            if (!imageUrl.equals(requestedImageUrls.get(n))) {
+                return;
+            }
+
+            JfrEvents.ImageDecode event = new JfrEvents.ImageDecode();
+            event.begin();
 
-                // "true" enables background loading
-                Image image = new Image(imageUrl, true);
+            // "true" enables background loading
+            Image image = new Image(imageUrl, true);
 
-                image.progressProperty().addListener((obs, oldProgress, newProgress) -> {
-                    if (newProgress.doubleValue() >= 1.0) {
-                        pendingImageUpdates.add(new Pair<>(n, imageUrl));
+            image.progressProperty().addListener((obs, oldProgress, newProgress) -> {
+                if (newProgress.doubleValue() >= 1.0) {
+                    pendingImageUpdates.add(new Pair<>(n, imageUrl));
+
+                    // The cover is decoded now anyway, so entries without a preview get theirs from it for free
+                    if (anime.getImagePreview() == null) {
+                        String imagePreview = ImagePreviewUtils.computeImagePreview(image);
+                        if (imagePreview != null) {
+                            anime.setImagePreview(imagePreview);
+                            onImagePreviewComputed.accept(anime, imagePreview);
+                        }
                     }
-                });
-            }, imageLoaderExecutor);
 
-        }
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.url = imageUrl;
+                        event.purpose = "Log grid";
+                        event.width = (int) image.getWidth();
+                        event.height = (int) image.getHeight();
+                        event.commit();
+                    }
+                }
+            });
+        }, imageLoaderExecutor);
     }
 
-    private void makeItemInvisible(Node n) {
-        if (n.isVisible()) {
-            n.setVisible(false);
-            n.setStyle("-fx-background-image: none;");
-        }
+    private void hideItem(Node n) {
+        TileEffects.setCover(n, null);
     }
 
     public void setFirstVisibleIndex(int index) {
@@ -378,31 +395,62 @@ public class LazyLoader {
 
 
     /**
-     * Initialization for the background image setter timer running once per frame.
-     * If some image has finished loading, the timer takes it and sets it as the background of the corresponding node.
+     * Measures the scroll speed since the last frame (smoothed over a few frames).
+     * @param now Timestamp of the current frame in nanoseconds.
+     * @return True if the viewport moved since the last frame.
+     */
+    private boolean updateScrollVelocity(long now) {
+        double viewportMinY = ViewportUtils.getViewportMinY(scrollPane);
+        boolean moved = viewportMinY != lastViewportMinY;
+
+        if (lastFrameTime > 0 && now > lastFrameTime) {
+            double seconds = (now - lastFrameTime) / 1_000_000_000.0;
+            double frameVelocity = Math.abs(viewportMinY - lastViewportMinY) / seconds;
+            scrollVelocity = 0.5 * scrollVelocity + 0.5 * frameVelocity;
+        }
+
+        lastViewportMinY = viewportMinY;
+        lastFrameTime = now;
+        return moved;
+    }
+
+
+    /**
+     * Initialization for the background timer running once per frame.
+     * Runs a visibility update whenever the viewport moved (or one was requested), and once more when fast scrolling
+     * slows down, so visible items are upgraded from small to full covers.
+     * If some images have finished loading, the timer takes them and sets them as the background of the corresponding nodes.
      */
     public void startBatchImageUpdater() {
 
         this.batchImageUpdaterTimer = new AnimationTimer() {
             @Override
-            public void handle(long l) {
-                Pair<Node, String> pair = pendingImageUpdates.poll();
-                if (pair != null) {
-                    Node node = pair.getKey();
-                    Bounds paneBounds = scrollPane.localToScene(scrollPane.getBoundsInLocal());
-                    if (isItemInViewport(node, paneBounds)) {
-                        node.setVisible(true);
-                        node.setOpacity(0.0);
+            public void handle(long now) {
+                boolean moved = updateScrollVelocity(now);
 
-                        node.setStyle("-fx-background-image: url('" + pair.getValue() + "');");
+                boolean wasFastScrolling = fastScrolling;
+                fastScrolling = scrollVelocity > FAST_SCROLL_PX_PER_SECOND;
 
+                if (moved || visibilityUpdateRequested || wasFastScrolling != fastScrolling) {
+                    executeUpdateVisibilityFull();
+                }
+
+                Metrics.gauge("images.pendingUpdates").set(pendingImageUpdates.size());
+
+                for (int i = 0; i < MAX_IMAGE_UPDATES_PER_FRAME; i++) {
+                    Pair<Node, String> pair = pendingImageUpdates.poll();
+                    if (pair == null) {
+                        break;
+                    }
 
-                        FadeTransition fadeIn = new FadeTransition(Duration.seconds(0.2), node);
-                        fadeIn.setFromValue(0.0);
-                        fadeIn.setToValue(1.0);
-                        fadeIn.play();
+                    // Skip images that were unloaded or replaced by another request in the meantime
+                    Node node = pair.getKey();
+                    if (!pair.getValue().equals(requestedImageUrls.get(node))) {
+                        continue;
                     }
 
+                    // No fade-in, the item already shows its image preview and the cover is just drawn over it
+                    TileEffects.setCover(node, pair.getValue());
                 }
             }
         };
@@ -415,15 +463,25 @@ public class LazyLoader {
      * (Else they stay open when the program is closed. That's bad.)
      */
     public void shutdownImageLoaderExecutor() {
+        if (batchImageUpdaterTimer != null) {
+            batchImageUpdaterTimer.stop();
+        }
+
         imageLoaderExecutor.shutdown();
 
         // Force close if issues arise. Internet said this is a good idea
         try {
             if (!imageLoaderExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
-                imageLoaderExecutor.shutdownNow();
+                forceShutdown();
             }
         } catch (InterruptedException e) {
-            imageLoaderExecutor.shutdownNow();
+            forceShutdown();
         }
     }
+
+    private void forceShutdown() {
+        // Tasks that never got to run never left the load queue
+        int dropped = imageLoaderExecutor.shutdownNow().size();
+        Metrics.gauge("images.loadQueue").add(-dropped);
+    }
 }
@@ -0,0 +1,90 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Which Log grid an anime goes into, and where in it. Kept apart from the view so it works on plain lists.
+ */
+public class LogGridUtils {
+
+    // Personal status of each Log grid, top to bottom
+    public static final List<String> GRID_STATUSES = List.of("In progress", "Backlog", "Completed", "Paused", "Dropped");
+
+
+    /**
+     * @param ownStatus The personal status of an anime
+     * @return Index of the grid anime with this status go into, or -1 if they aren't shown in the Log ("Untracked").
+     */
+    public static int getGridIndex(String ownStatus) {
+        return GRID_STATUSES.indexOf(ownStatus);
+    }
+
+
+    /**
+     * Order of anime within a grid: by personal rating first, then alphanumerically by title (in the preferred language).
+     * @param languagePreference The title language setting, "Default", "Japanese" or "English"
+     */
+    public static Comparator<AnimeInfo> createGridComparator(String languagePreference) {
+        Comparator<AnimeInfo> byRating = Comparator.comparingInt(anime -> switch (anime.getOwnRating()) {
+            case "Heart" -> 1;
+            case "Liked" -> 2;
+            case "Disliked" -> 3;
+            case "Unscored" -> 4;
+            default -> Integer.MAX_VALUE; // fallback, in case of unexpected value
+        });
+
+        // Alphanumerical title sort
+        Comparator<AnimeInfo> byTitle;
+        if (languagePreference.equals("Japanese")) {
+            byTitle = Comparator.comparing(AnimeInfo::getTitleJapanese);
+        } else if (languagePreference.equals("English")) {
+            byTitle = Comparator.comparing(AnimeInfo::getTitleEnglish);
+        } else {
+            byTitle = Comparator.comparing(AnimeInfo::getTitle);
+        }
+
+        // Combine the two sorts
+        return byRating.thenComparing(byTitle);
+    }
+
+
+    /**
+     * Binary search for where an item goes into a sorted list.
+     * @param sortedList The list, sorted by the comparator
+     * @param item The item to insert. May be in the list already, it's compared like any other.
+     * @return The index after every item that sorts before or equal to the given one.
+     */
+    public static <T> int findInsertIndex(List<? extends T> sortedList, T item, Comparator<? super T> comparator) {
+        int low = 0;
+        int high = sortedList.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(sortedList.get(mid), item) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * Whether the item at some index still sorts between its neighbours, e.g. after its anime changed.
+     * @return False for an index that isn't in the list.
+     */
+    public static <T> boolean isInSortedPosition(List<? extends T> sortedList, int index, Comparator<? super T> comparator) {
+        if (index < 0 || index >= sortedList.size()) {
+            return false;
+        }
+
+        T item = sortedList.get(index);
+        boolean afterPrevious = index == 0 || comparator.compare(sortedList.get(index - 1), item) <= 0;
+        boolean beforeNext = index == sortedList.size() - 1 || comparator.compare(item, sortedList.get(index + 1)) <= 0;
+        return afterPrevious && beforeNext;
+    }
+}
@@ -0,0 +1,347 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A tiny metrics registry for the hot paths of this program (API calls, database queries, caches, image loading,
+ * FX pulses..), so slowdowns can be narrowed down on a user's machine via the Diagnostics view.
+ *
+ * <p>Metrics are created on first use and looked up by name. Names are "group.metric", the group is used by the
+ * Diagnostics view to put related metrics together. Recording is lock-free and cheap enough to leave on all the time.</p>
+ */
+public class Metrics {
+
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+
+    public static Counter counter(String name) {
+        return get(name, Counter.class);
+    }
+
+    public static Gauge gauge(String name) {
+        return get(name, Gauge.class);
+    }
+
+    public static Histogram histogram(String name) {
+        return get(name, Histogram.class);
+    }
+
+    public static Timer timer(String name) {
+        return get(name, Timer.class);
+    }
+
+    public static CacheStats cache(String name) {
+        return get(name, CacheStats.class);
+    }
+
+
+    private static <T extends Metric> T get(String name, Class<T> type) {
+        Metric metric = metrics.computeIfAbsent(name, n -> {
+            if (type == Counter.class) return new Counter(n);
+            if (type == Gauge.class) return new Gauge(n);
+            if (type == Timer.class) return new Timer(n);
+            if (type == Histogram.class) return new Histogram(n);
+            return new CacheStats(n);
+        });
+
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " already exists as a " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+
+    /**
+     * @return All metrics recorded so far, sorted by name (so groups stay together).
+     */
+    public static List<Metric> getAll() {
+        List<Metric> all = new ArrayList<>(metrics.values());
+        all.sort(Comparator.comparing(Metric::getName));
+        return all;
+    }
+
+
+    /**
+     * Starts all metrics over from zero. Gauges are left alone, they describe the current state, not a history.
+     */
+    public static void reset() {
+        for (Metric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+
+    public abstract static class Metric {
+        private final String name;
+
+        Metric(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The part of the name before the first dot.
+         */
+        public String getGroup() {
+            int dot = name.indexOf('.');
+            return dot < 0 ? name : name.substring(0, dot);
+        }
+
+        /**
+         * @return A short human-readable summary of the current values, for the Diagnostics view.
+         */
+        public abstract String getSummary();
+
+        abstract void reset();
+    }
+
+
+    /**
+     * Counts events, like failed API calls.
+     */
+    public static class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        Counter(String name) {
+            super(name);
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public String getSummary() {
+            return String.valueOf(getCount());
+        }
+
+        @Override
+        void reset() {
+            count.reset();
+        }
+    }
+
+
+    /**
+     * A current value, like the amount of images waiting to be loaded.
+     */
+    public static class Gauge extends Metric {
+        private final AtomicLong value = new AtomicLong();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Gauge(String name) {
+            super(name);
+        }
+
+        public void set(long newValue) {
+            value.set(newValue);
+            max.accumulate(newValue);
+        }
+
+        public void add(long delta) {
+            max.accumulate(value.addAndGet(delta));
+        }
+
+        public long getValue() {
+            return value.get();
+        }
+
+        @Override
+        public String getSummary() {
+            return getValue() + " (max " + max.get() + ")";
+        }
+
+        @Override
+        void reset() {
+            max.reset();
+            max.accumulate(value.get());
+        }
+    }
+
+
+    /**
+     * Distribution of some recorded values. Values are sorted into buckets of four per power of two,
+     * so percentiles are approximate (within about 20%) but recording never allocates or locks.
+     */
+    public static class Histogram extends Metric {
+        private static final int SUB_BUCKETS = 4;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram(String name) {
+            super(name);
+        }
+
+        public void record(long value) {
+            value = Math.max(0, value);
+            buckets.incrementAndGet(bucketIndex(value));
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        // Values 0..3 get a bucket each, after that each power of two is split into SUB_BUCKETS
+        private static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return (exponent - 1) * SUB_BUCKETS + subBucket;
+        }
+
+        // Largest value that lands in the bucket
+        private static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + 1;
+            int subBucket = index % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - 2)) - 1;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        /**
+         * @param percentile Percentile from 0 to 100
+         * @return Approximate value at that percentile, or 0 if nothing was recorded yet
+         */
+        public long getPercentile(double percentile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(percentile / 100.0 * n);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), getMax());
+                }
+            }
+            return getMax();
+        }
+
+        @Override
+        public String getSummary() {
+            return String.format("n=%d  mean %.1f  p50 %d  p99 %d  max %d",
+                    getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+        }
+
+        @Override
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+
+
+    /**
+     * A histogram of durations. Recorded in nanoseconds, shown in milliseconds.
+     */
+    public static class Timer extends Histogram {
+
+        Timer(String name) {
+            super(name);
+        }
+
+        /**
+         * Records the time passed since some System.nanoTime() timestamp.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Records how long the future takes to complete (successfully or not), measured from this call.
+         * @return The same future, for chaining
+         */
+        public <T> CompletableFuture<T> time(CompletableFuture<T> future) {
+            long start = System.nanoTime();
+            return future.whenComplete((result, error) -> recordSince(start));
+        }
+
+        @Override
+        public String getSummary() {
+            return String.format("n=%d  mean %.2f ms  p50 %.2f ms  p99 %.2f ms  max %.2f ms",
+                    getCount(), getMean() / 1e6, getPercentile(50) / 1e6, getPercentile(99) / 1e6, getMax() / 1e6);
+        }
+    }
+
+
+    /**
+     * Hits and misses of some cache.
+     */
+    public static class CacheStats extends Metric {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        CacheStats(String name) {
+            super(name);
+        }
+
+        public void hit() {
+            hits.increment();
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+
+        public double getHitRate() {
+            long h = hits.sum();
+            long total = h + misses.sum();
+            return total == 0 ? 0 : (double) h / total;
+        }
+
+        @Override
+        public String getSummary() {
+            return String.format("%.1f%% hits  (%d hits, %d misses)", getHitRate() * 100, hits.sum(), misses.sum());
+        }
+
+        @Override
+        void reset() {
+            hits.reset();
+            misses.reset();
+        }
+    }
+}
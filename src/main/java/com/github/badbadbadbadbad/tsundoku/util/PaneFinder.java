@@ -2,6 +2,7 @@ package com.github.badbadbadbadbad.tsundoku.util;
 
 import com.github.badbadbadbadbad.tsundoku.external.FlowGapPane;
 import com.github.badbadbadbadbad.tsundoku.external.FlowGridPane;
+import javafx.scene.Node;
 import javafx.scene.layout.VBox;
 import javafx.util.Pair;
 
@@ -38,6 +39,28 @@ public class PaneFinder {
     }
 
 
+    /**
+     * Same lookup as findPaneAndChildIndex, but returns the child directly (without allocating a Pair).
+     * @param nodeIndex The requested index (shared across all the panes).
+     * @return The child at the requested super-index, or null if the index is out of range.
+     */
+    public Node findNode(int nodeIndex) {
+        if (nodeIndex < 0) {
+            return null;
+        }
+
+        int cumulativeCount = 0;
+        for (int i = 0; i < flowPanes.size(); i++) {
+            List<Node> children = flowPanes.get(i).getChildren();
+            if (nodeIndex < cumulativeCount + children.size()) {
+                return children.get(nodeIndex - cumulativeCount);
+            }
+            cumulativeCount += children.size();
+        }
+        return null;
+    }
+
+
     /**
      * Reverse functionality of findPaneAndChildIndex.
      * For some child of the Panes of this PaneFinder, we identify its corresponding super-index (shared across all Panes).
@@ -0,0 +1,59 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of how long the separate phases of program startup took, so slow startups can actually be narrowed down.
+ * Each phase is measured from the end of the previous one (or from JVM start for the first phase).
+ *
+ * <p>Timings are printed when the program is started with -Dtsundoku.debug=true, and are shown in the Settings view.</p>
+ */
+public class StartupTimer {
+
+    private static final boolean DEBUG = Boolean.getBoolean("tsundoku.debug");
+
+    // Phase name -> duration in ms, in the order the phases finished
+    private static final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static long lastMarkMillis = ProcessHandle.current().info().startInstant()
+            .map(instant -> instant.toEpochMilli())
+            .orElse(System.currentTimeMillis());
+
+
+    /**
+     * Ends the current startup phase.
+     * @param phase Name of the phase that just finished.
+     */
+    public static synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        long duration = now - lastMarkMillis;
+        lastMarkMillis = now;
+
+        phases.put(phase, duration);
+
+        if (DEBUG) {
+            System.out.println("Startup: " + phase + " took " + duration + " ms");
+        }
+    }
+
+
+    /**
+     * @return All finished phases with their duration in ms, in the order they finished.
+     */
+    public static Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+
+    /**
+     * @return The summed up duration of all finished phases in ms.
+     */
+    public static long getTotal() {
+        synchronized (phases) {
+            return phases.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
@@ -32,4 +32,35 @@ public class StyleUtils {
 
         return "grid-media-box-grey";
     }
+
+
+    /**
+     * Builds the inline style for the background of an anime in the FlowPane.
+     * The image preview (if the anime has one) is always drawn as the background colour, so the item shows
+     * something immediately and the cover simply gets drawn on top of it once it has loaded.
+     * @param anime The anime shown by the box
+     * @param imageUrl The cover to show, or null if only the preview should be shown
+     */
+    public static String computeBackgroundStyle(AnimeInfo anime, String imageUrl) {
+        StringBuilder style = new StringBuilder();
+
+        // Without a preview, the background colour of the stylesheet is used
+        String preview = (anime == null) ? null : anime.getImagePreview();
+        if (preview != null) {
+            String[] colors = preview.split(",");
+            if (colors.length == 1) {
+                style.append("-fx-background-color: ").append(colors[0]).append(";");
+            } else {
+                style.append("-fx-background-color: linear-gradient(to bottom, ").append(String.join(", ", colors)).append(");");
+            }
+        }
+
+        if (imageUrl != null) {
+            style.append(" -fx-background-image: url('").append(imageUrl).append("');");
+        } else {
+            style.append(" -fx-background-image: none;");
+        }
+
+        return style.toString().trim();
+    }
 }
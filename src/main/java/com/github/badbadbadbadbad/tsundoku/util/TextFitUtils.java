@@ -0,0 +1,138 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Insets;
+import javafx.scene.control.Labeled;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finds the largest font size at which some text fits into a rectangular container without overflow.
+ *
+ * <p>The size is binary-searched (in steps of one point, like the old shrink-by-one loops did) instead of walked down
+ * one point at a time, and results are cached per text, font family and container size. Popups and grid title overlays
+ * get the same few sizes over and over, so most lookups never measure anything.</p>
+ *
+ * <p>Only to be used from the FX thread (measuring uses a single shared Text node).</p>
+ */
+public class TextFitUtils {
+
+    private static final int MAX_CACHED_FITS = 2048;
+
+    private static final Text measuringText = new Text();
+
+    // Least recently used fits get thrown out once the cache is full
+    private static final Map<FitKey, Double> fitCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FitKey, Double> eldest) {
+            return size() > MAX_CACHED_FITS;
+        }
+    };
+
+    private record FitKey(String text, String fontFamily, double containerWidth, double containerHeight,
+                          double minFontSize, double startingFontSize, boolean wrapText) {}
+
+
+    /**
+     * Adjusts font size on the text of some Labeled (labels, buttons..) downwards until it fits into the rectangular
+     * label container without overflow, both vertical and horizontal, padding included in the calculation.
+     * @param labeled The Labeled whose font is to be adjusted
+     * @param minFontSize A minimum font size at which point the routine is forced to stop
+     * @param startingFontSize An optional font size to start from instead of the font size the label currently has.
+     *                         Ignored if not a positive number.
+     * @return The final font size the Labeled is set to
+     */
+    public static double adjustFontSizeToContainer(Labeled labeled, double minFontSize, double startingFontSize) {
+        Font font = labeled.getFont();
+        double fontSize = fitFontSize(labeled, minFontSize, startingFontSize > 0 ? startingFontSize : font.getSize(), false);
+
+        if (fontSize != font.getSize()) {
+            labeled.setFont(Font.font(font.getFamily(), fontSize));
+        }
+        return fontSize;
+    }
+
+
+    /**
+     * Computes the font size some Labeled should use so its text fits into the label container without overflow,
+     * padding included in the calculation. Does not change the Labeled, so callers whose font size comes from CSS
+     * (which overrides setFont) can apply it with an inline style instead.
+     * @param labeled The Labeled to fit
+     * @param minFontSize A minimum font size at which point the search stops
+     * @param startingFontSize The largest font size to consider
+     * @param wrapText Whether the text is wrapped at the container width (then only the height has to fit)
+     * @return The largest fitting font size
+     */
+    public static double fitFontSize(Labeled labeled, double minFontSize, double startingFontSize, boolean wrapText) {
+        Insets insets = labeled.getInsets();
+        double containerWidth = labeled.getWidth() - insets.getLeft() - insets.getRight();
+        double containerHeight = labeled.getHeight() - insets.getTop() - insets.getBottom();
+
+        return fitFontSize(labeled.getText(), labeled.getFont().getFamily(), containerWidth, containerHeight,
+                minFontSize, startingFontSize, wrapText);
+    }
+
+
+    /**
+     * Computes the largest font size (startingFontSize minus some whole number of points) at which the text fits
+     * into the container. Like the old shrink loops, the result can undershoot minFontSize by less than a point
+     * if even minFontSize doesn't fit.
+     * @param text The text to fit
+     * @param fontFamily Font family the text is drawn with
+     * @param containerWidth Available width, padding already removed
+     * @param containerHeight Available height, padding already removed
+     * @param minFontSize A minimum font size at which point the search stops
+     * @param startingFontSize The largest font size to consider
+     * @param wrapText Whether the text is wrapped at the container width
+     * @return The largest fitting font size
+     */
+    public static double fitFontSize(String text, String fontFamily, double containerWidth, double containerHeight,
+                                     double minFontSize, double startingFontSize, boolean wrapText) {
+        if (text == null || text.isEmpty() || startingFontSize <= minFontSize) {
+            return startingFontSize;
+        }
+
+        FitKey key = new FitKey(text, fontFamily, containerWidth, containerHeight, minFontSize, startingFontSize, wrapText);
+        Double cached = fitCache.get(key);
+        if (cached != null) {
+            Metrics.cache("cache.textFit").hit();
+            return cached;
+        }
+        Metrics.cache("cache.textFit").miss();
+
+        // Candidates are startingFontSize - steps for steps in [0, maxSteps], fitting is monotonic in the font size.
+        // Search for the smallest number of steps that fits; if none does, we end up at maxSteps like the old loops.
+        int maxSteps = (int) Math.ceil(startingFontSize - minFontSize);
+        int low = 0;
+        int high = maxSteps;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fits(text, fontFamily, startingFontSize - mid, containerWidth, containerHeight, wrapText)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        double fontSize = startingFontSize - low;
+        fitCache.put(key, fontSize);
+        return fontSize;
+    }
+
+
+    private static boolean fits(String text, String fontFamily, double fontSize, double containerWidth, double containerHeight, boolean wrapText) {
+        measuringText.setText(text);
+        measuringText.setFont(Font.font(fontFamily, fontSize));
+        measuringText.setWrappingWidth(wrapText ? Math.max(containerWidth, 1) : 0);
+        measuringText.setTextAlignment(wrapText ? TextAlignment.CENTER : TextAlignment.LEFT);
+
+        // Wrapped text never gets wider than the wrapping width (JavaFX breaks up overlong words), only height matters then
+        Bounds bounds = measuringText.getBoundsInLocal();
+        return bounds.getHeight() <= containerHeight && (wrapText || bounds.getWidth() <= containerWidth);
+    }
+}
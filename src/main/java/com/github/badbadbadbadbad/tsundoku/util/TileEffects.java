@@ -0,0 +1,178 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+import javafx.animation.AnimationTimer;
+import javafx.animation.Interpolator;
+import javafx.scene.Node;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Effects for the grid items of the Browse and Log views, shared by all of them instead of allocated per item.
+ * <ul>
+ *     <li>Opacity fades (the title overlay on hover) all run on one AnimationTimer, which only runs while something is fading.</li>
+ *     <li>The rounded clips needed once an item draws its cover come from a pool, so only items actually showing
+ *     a cover hold one (JavaFX doesn't clip background images to the background radius. Thanks, JavaFX).</li>
+ * </ul>
+ * Grids can grow to thousands of items in the Log, so this keeps memory and per-pulse cost flat.
+ *
+ * <p>Only to be used from the FX thread.</p>
+ */
+public class TileEffects {
+
+    private static final double FADE_SECONDS = 0.2;
+    private static final double CLIP_ARC = 40;
+    private static final int MAX_POOLED_CLIPS = 256;
+
+    private static final Map<Node, Fade> activeFades = new IdentityHashMap<>();
+    private static final ArrayDeque<Fade> fadePool = new ArrayDeque<>();
+    private static final ArrayDeque<Rectangle> clipPool = new ArrayDeque<>();
+    private static final List<Node> finishedFades = new ArrayList<>();
+
+    // The cover each item currently shows, so its background can be rebuilt when its data changes. Weak, as items
+    // thrown away with their grid don't get told to drop their cover.
+    private static final Map<Node, String> shownCovers = new WeakHashMap<>();
+
+    private static final class Fade {
+        double fromOpacity;
+        double toOpacity;
+        long startNanos;
+    }
+
+    private static final AnimationTimer fadeTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stepFades(now);
+        }
+    };
+    private static boolean fadeTimerRunning = false;
+
+
+    /**
+     * Fades a node from its current opacity to the target opacity, like FadeTransition.playFromStart() would.
+     * Calling this again while the node is still fading just retargets the running fade.
+     * @param node The node to fade
+     * @param toOpacity The opacity to end up at
+     */
+    public static void fadeTo(Node node, double toOpacity) {
+        Fade fade = activeFades.get(node);
+        if (fade == null) {
+            fade = fadePool.isEmpty() ? new Fade() : fadePool.pop();
+            activeFades.put(node, fade);
+        }
+
+        fade.fromOpacity = node.getOpacity();
+        fade.toOpacity = toOpacity;
+        fade.startNanos = -1;   // Set on the next frame, same as an animation started now
+
+        if (!fadeTimerRunning) {
+            fadeTimerRunning = true;
+            fadeTimer.start();
+        }
+    }
+
+
+    private static void stepFades(long now) {
+        for (Map.Entry<Node, Fade> entry : activeFades.entrySet()) {
+            Fade fade = entry.getValue();
+            if (fade.startNanos < 0) {
+                fade.startNanos = now;
+            }
+
+            double progress = Math.min(1.0, (now - fade.startNanos) / (FADE_SECONDS * 1_000_000_000.0));
+            entry.getKey().setOpacity(Interpolator.EASE_BOTH.interpolate(fade.fromOpacity, fade.toOpacity, progress));
+
+            if (progress >= 1.0) {
+                finishedFades.add(entry.getKey());
+            }
+        }
+
+        for (Node node : finishedFades) {
+            fadePool.push(activeFades.remove(node));
+        }
+        finishedFades.clear();
+
+        if (activeFades.isEmpty()) {
+            fadeTimer.stop();
+            fadeTimerRunning = false;
+        }
+    }
+
+
+    /**
+     * Sets the background of a grid item to its cover (or back to only its image preview),
+     * and gives it a pooled rounded clip for as long as it shows the cover.
+     * @param tile The grid item, with its AnimeInfo as user data
+     * @param imageUrl The cover to show, or null to only show the image preview
+     */
+    public static void setCover(Node tile, String imageUrl) {
+        tile.setStyle(StyleUtils.computeBackgroundStyle((AnimeInfo) tile.getUserData(), imageUrl));
+
+        if (imageUrl != null) {
+            shownCovers.put(tile, imageUrl);
+        } else {
+            shownCovers.remove(tile);
+        }
+
+        if (tile instanceof Region region) {
+            if (imageUrl != null) {
+                acquireClip(region);
+            } else {
+                releaseClip(region);
+            }
+        }
+    }
+
+
+    /**
+     * Rebuilds the background of a grid item from its (changed) AnimeInfo, keeping whatever cover it shows.
+     * Used when the image preview of an item changed, without dropping its loaded cover.
+     * @param tile The grid item, with its AnimeInfo as user data
+     */
+    public static void refreshBackground(Node tile) {
+        tile.setStyle(StyleUtils.computeBackgroundStyle((AnimeInfo) tile.getUserData(), shownCovers.get(tile)));
+    }
+
+
+    /**
+     * Gives the region a rounded clip matching its size, if it doesn't have one yet.
+     * @param region The grid item to clip
+     */
+    public static void acquireClip(Region region) {
+        if (region.getClip() != null) {
+            return;
+        }
+
+        Rectangle clip = clipPool.isEmpty() ? new Rectangle() : clipPool.pop();
+        clip.setArcWidth(CLIP_ARC);
+        clip.setArcHeight(CLIP_ARC);
+        clip.widthProperty().bind(region.widthProperty());
+        clip.heightProperty().bind(region.heightProperty());
+        region.setClip(clip);
+    }
+
+
+    /**
+     * Takes the clip away from the region again and puts it back into the pool.
+     * @param region The grid item to unclip
+     */
+    public static void releaseClip(Region region) {
+        if (!(region.getClip() instanceof Rectangle clip)) {
+            return;
+        }
+
+        region.setClip(null);
+        clip.widthProperty().unbind();
+        clip.heightProperty().unbind();
+        if (clipPool.size() < MAX_POOLED_CLIPS) {
+            clipPool.push(clip);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import javafx.scene.control.ScrollPane;
+
+/**
+ * Calculates the vertical range of a scrollPane's content that is currently inside its viewport.
+ * Together with the fixed tile geometry of FlowGapPane, this lets the lazy loaders find visible grid items
+ * with plain arithmetic instead of transforming the bounds of every single node to scene coordinates.
+ */
+public class ViewportUtils {
+
+    /**
+     * @param scrollPane The scrollPane to check.
+     * @return The upper end of the viewport, in coordinates of the scrollPane's content.
+     */
+    public static double getViewportMinY(ScrollPane scrollPane) {
+        return getViewportMinY(scrollPane, scrollPane.getVvalue());
+    }
+
+    /**
+     * Same as getViewportMinY, but for some other vvalue than the current one (e.g. the target of a running smooth scroll).
+     * @param scrollPane The scrollPane to check.
+     * @param vvalue The vvalue to calculate the viewport for.
+     * @return The upper end of the viewport at that vvalue, in coordinates of the scrollPane's content.
+     */
+    public static double getViewportMinY(ScrollPane scrollPane, double vvalue) {
+        double contentHeight = scrollPane.getContent().getLayoutBounds().getHeight();
+        double viewportHeight = scrollPane.getViewportBounds().getHeight();
+        double vRange = scrollPane.getVmax() - scrollPane.getVmin();
+        double fraction = (vRange > 0) ? (vvalue - scrollPane.getVmin()) / vRange : 0;
+
+        return Math.max(0, contentHeight - viewportHeight) * fraction;
+    }
+
+    /**
+     * @param scrollPane The scrollPane to check.
+     * @return The lower end of the viewport, in coordinates of the scrollPane's content.
+     */
+    public static double getViewportMaxY(ScrollPane scrollPane) {
+        return getViewportMinY(scrollPane) + scrollPane.getViewportBounds().getHeight();
+    }
+}
@@ -2,16 +2,17 @@ package com.github.badbadbadbadbad.tsundoku.views;
 
 import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
 import com.github.badbadbadbadbad.tsundoku.util.StyleUtils;
-import javafx.animation.FadeTransition;
+import com.github.badbadbadbadbad.tsundoku.util.TextFitUtils;
+import com.github.badbadbadbadbad.tsundoku.util.TileEffects;
 import javafx.application.Platform;
+import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-import javafx.scene.shape.Rectangle;
-import javafx.util.Duration;
 
 import java.util.function.Consumer;
 
@@ -19,8 +20,26 @@ public class AnimeBox extends VBox {
 
     private final double RATIO = 318.0 / 225.0;
 
+    // Rough memory of one box without its cover: the nodes, their styles and the AnimeInfo behind it.
+    // Only used for the view cache's budget, so it doesn't need to be exact.
+    public static final long ESTIMATED_MEMORY_BYTES = 6 * 1024;
+
+    // Font size of .grid-media-box-text in the stylesheet, long titles get shrunk from there
+    private static final double TITLE_FONT_SIZE = 22.0;
+    private static final double TITLE_MIN_FONT_SIZE = 10.0;
+
+    // Shared by all boxes, so hovering doesn't need any per-box handlers or transitions
+    private static final EventHandler<MouseEvent> SHOW_TITLE = event -> ((AnimeBox) event.getSource()).showTitle();
+    private static final EventHandler<MouseEvent> HIDE_TITLE = event -> TileEffects.fadeTo(((AnimeBox) event.getSource()).titleLabel, 0.0);
+
+    private final Label titleLabel;
+    private final String languagePreference;
+    private double titleFittedWidth = -1;
+    private double titleFittedHeight = -1;
+
     public AnimeBox(AnimeInfo anime, String languagePreference) {
         super();
+        this.languagePreference = languagePreference;
 
         setAlignment(Pos.CENTER);
         getStyleClass().add("grid-media-box");
@@ -29,30 +48,13 @@ public class AnimeBox extends VBox {
         // setRatingBorder(animeBox);
 
         // Clipping rectangle because JavaFX doesn't have any kind of background image clipping. WHY??
-        Rectangle clip = new Rectangle();
-        clip.widthProperty().bind(widthProperty());
-        clip.heightProperty().bind(heightProperty());
-        clip.setArcHeight(40);
-        clip.setArcWidth(40);
-        setClip(clip);
+        // Only needed while the cover is drawn, so TileEffects hands out pooled ones when the lazy loaders set it.
 
 
         // Label with anime name to be shown on animeBox hover
         // Change title depending on language preference
-        Label titleLabel = new Label();
-        String title = anime.getTitle();
-
-        if (languagePreference.equals("Japanese") && !anime.getTitleJapanese().equals("Not yet provided")) {
-            title = anime.getTitleJapanese();
-            titleLabel.getStyleClass().add("grid-media-box-text-jp");
-        } else if (languagePreference.equals("English") && !anime.getTitleEnglish().equals("Not yet provided")) {
-            title = anime.getTitleEnglish();
-            titleLabel.getStyleClass().add("grid-media-box-text-en");
-        } else {
-            titleLabel.getStyleClass().add("grid-media-box-text-en");
-        }
-
-        titleLabel.setText(title);
+        titleLabel = new Label();
+        setTitle(anime);
         titleLabel.setAlignment(Pos.CENTER);
         titleLabel.getStyleClass().add("grid-media-box-text");
         titleLabel.setOpacity(0.0);
@@ -78,12 +80,8 @@ public class AnimeBox extends VBox {
 
 
         // Fade events for the label popup
-        FadeTransition fadeIn = new FadeTransition(Duration.seconds(0.2), titleLabel);
-        fadeIn.setToValue(1.0);
-        FadeTransition fadeOut = new FadeTransition(Duration.seconds(0.2), titleLabel);
-        fadeOut.setToValue(0.0);
-        setOnMouseEntered(event -> fadeIn.playFromStart());
-        setOnMouseExited(event -> fadeOut.playFromStart());
+        setOnMouseEntered(SHOW_TITLE);
+        setOnMouseExited(HIDE_TITLE);
 
 
         widthProperty().addListener((obs, oldWidth, newWidth) -> {
@@ -97,13 +95,81 @@ public class AnimeBox extends VBox {
             });
         });
 
-        setVisible(false);
+        // Until the lazy loaders set the cover, we just show the image preview (if we have one for this anime)
+        setStyle(StyleUtils.computeBackgroundStyle(anime, null));
+    }
+
+    private void setTitle(AnimeInfo anime) {
+        String title = anime.getTitle();
+        titleLabel.getStyleClass().removeAll("grid-media-box-text-jp", "grid-media-box-text-en");
+
+        if (languagePreference.equals("Japanese") && !anime.getTitleJapanese().equals("Not yet provided")) {
+            title = anime.getTitleJapanese();
+            titleLabel.getStyleClass().add("grid-media-box-text-jp");
+        } else if (languagePreference.equals("English") && !anime.getTitleEnglish().equals("Not yet provided")) {
+            title = anime.getTitleEnglish();
+            titleLabel.getStyleClass().add("grid-media-box-text-en");
+        } else {
+            titleLabel.getStyleClass().add("grid-media-box-text-en");
+        }
+
+        titleLabel.setText(title);
+    }
+
+
+    /**
+     * Points this box at a newer version of its anime (a database change), without building a new box.
+     * The title and image preview are updated, a cover that is showing stays. The rating border is up to the view.
+     * @param anime The anime as it is stored now
+     */
+    public void updateAnime(AnimeInfo anime) {
+        setUserData(anime);
+
+        String oldTitle = titleLabel.getText();
+        setTitle(anime);
+        if (!oldTitle.equals(titleLabel.getText())) {
+            titleFittedWidth = -1;      // Fit again on the next hover
+        }
+        TileEffects.refreshBackground(this);
+    }
+
+
+    private void showTitle() {
+        // Normally already clipped since the cover is showing, but the title overlay reaches past the rounded corners
+        TileEffects.acquireClip(this);
+        fitTitleFont(titleLabel);
+        TileEffects.fadeTo(titleLabel, 1.0);
+    }
+
+    /**
+     * Shrinks the font of the title overlay until the (wrapped) title fits into the box.
+     * Only done on hover, so boxes nobody hovers never measure anything, and only again if the box size changed.
+     * The font size comes from the stylesheet, which beats setFont, so the fitted size is set as inline style.
+     */
+    private void fitTitleFont(Label titleLabel) {
+        if (titleLabel.getWidth() < 1.0 || titleLabel.getHeight() < 1.0) {
+            return;
+        }
+        if (titleLabel.getWidth() == titleFittedWidth && titleLabel.getHeight() == titleFittedHeight) {
+            return;
+        }
+
+        titleFittedWidth = titleLabel.getWidth();
+        titleFittedHeight = titleLabel.getHeight();
+
+        double fontSize = TextFitUtils.fitFontSize(titleLabel, TITLE_MIN_FONT_SIZE, TITLE_FONT_SIZE, true);
+        titleLabel.setStyle(fontSize < TITLE_FONT_SIZE ? "-fx-font-size: " + fontSize + ";" : "");
     }
 
     public void setOnMouseClick(Consumer<AnimeBox> callback) {
         setOnMouseClicked(e -> callback.accept(this));
     }
 
+    // Added as handler, setOnMouseEntered is already taken by the title fade
+    public void setOnMouseHover(Consumer<AnimeBox> callback) {
+        addEventHandler(MouseEvent.MOUSE_ENTERED, e -> callback.accept(this));
+    }
+
     public void setRatingBorder(AnimeInfo databaseAnime, boolean useBlueFallback) {
         this.getStyleClass().removeAll(
                 "grid-media-box-gold",
@@ -1,14 +1,19 @@
 package com.github.badbadbadbadbad.tsundoku.views;
 
 import com.github.badbadbadbadbad.tsundoku.controllers.APIRequestListener;
+import com.github.badbadbadbadbad.tsundoku.controllers.DatabaseChangeListener;
 import com.github.badbadbadbadbad.tsundoku.controllers.DatabaseRequestListener;
 import com.github.badbadbadbadbad.tsundoku.controllers.GridFilterListener;
 import com.github.badbadbadbadbad.tsundoku.controllers.LoadingBarListener;
 import com.github.badbadbadbadbad.tsundoku.external.FlowGapPane;
 import com.github.badbadbadbadbad.tsundoku.external.SmoothScroll;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeChange;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeListInfo;
 import com.github.badbadbadbadbad.tsundoku.util.AspectRatio;
+import com.github.badbadbadbadbad.tsundoku.util.JfrEvents;
+import com.github.badbadbadbadbad.tsundoku.util.TileEffects;
+import com.github.badbadbadbadbad.tsundoku.util.ViewportUtils;
 import com.github.badbadbadbadbad.tsundoku.views.ControlsPane.ButtonConfig;
 import com.github.badbadbadbadbad.tsundoku.views.ControlsPane.ControlsPane;
 import com.github.badbadbadbadbad.tsundoku.views.ControlsPane.FilterConfig;
@@ -20,7 +25,6 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.*;
 import javafx.stage.Screen;
@@ -43,7 +47,7 @@ import java.util.function.Consumer;
  * <p>It would be far cleaner to have some BrowseView superclass with this inheriting, but I don't want to overcomplicate things
  * before I know what quirks the main content views for other media modes may involve (due to relying on data from external APIs).</p>
  */
-public class AnimeBrowseView extends StackPane implements PopupMakerView {
+public class AnimeBrowseView extends StackPane implements CachedView, DatabaseChangeListener {
 
     private final Stage stage;
     private final APIRequestListener apiRequestListener;
@@ -53,12 +57,17 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
     private final Map<String, String> filterDefaults = new HashMap<>();
     private final StringProperty searchStringProperty = new SimpleStringProperty("");
     private final String languagePreference;
+    private AnimePopupView animePopupView;     // Built on first use
     private ScrollPane scrollPane;
     private FlowGapPane animeGrid;
     private Pagination pagination;
     private SmoothScroll smoothScroll;
     private SearchMode searchMode = SearchMode.SEARCH;
     private boolean apiLock = false;
+    private int firstVisibleIndex = -1;                      // Range of grid items currently made visible
+    private int lastVisibleIndex = -1;
+    private boolean suspended = false;
+    private double suspendedVValue = 0;
 
 
     public AnimeBrowseView(Stage stage, LoadingBarListener loadingBarListener, APIRequestListener apiRequestListener,
@@ -82,6 +91,9 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
         this.filterDefaults.put(AnimeFilters.YEAR_MAX.getLabel(), gridFilterListener.getAnimeEndYearDefault());
 
         initComponent();
+
+        // Also while suspended in the view cache, so switching back shows current rating borders right away
+        databaseRequestListener.addDatabaseChangeListener(this);
     }
 
     private void initComponent() {
@@ -143,22 +155,9 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
         searchStringProperty.bind(controls.getSearchStringProperty());
 
 
-        // Blocking call on CompletableFuture for first setup to ensure data is there for display
-        // Together with loading bar animation (not working as well here, could expand later)
-        loadingBarListener.animateLoadingBar(50, 0.1);
-        AnimeListInfo animeListInfo = apiRequestListener.getCurrentAnimeSeason(1).join();
-        this.scrollPane = createBrowseGrid(animeListInfo);
-        apiLock = true;
-
-        PauseTransition pause = new PauseTransition(Duration.seconds(0.1));
-        pause.setOnFinished(ev -> {
-            loadingBarListener.animateLoadingBar(100, 0.1);
-            loadingBarListener.fadeOutLoadingBar(0.3);
-            PauseTransition loadingBarFadeOutTimer = new PauseTransition(Duration.seconds(0.3));
-            loadingBarFadeOutTimer.setOnFinished(e -> apiLock = false);
-            loadingBarFadeOutTimer.play();
-        });
-        pause.play();
+        // The grid starts out empty and the first page is filled in once it's there, so the view shows right away
+        this.scrollPane = createBrowseGrid();
+        loadFirstPage();
 
 
         // Give controls a bottom border when scrolling around
@@ -188,23 +187,49 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
     }
 
     /**
-     * Creates the FlowPane of anime, wrapped by a scrollPane.
-     * Does not actually create the child elements themselves, that is done in an async sub-function.
+     * Loads the first page of the current season into the empty grid, with the loading bar running meanwhile.
+     * Nothing here waits on the API or the database, the grid and pagination are filled in from their callbacks.
+     */
+    private void loadFirstPage() {
+        apiLock = true;
+        loadingBarListener.animateLoadingBar(50, 0.1);
+
+        apiRequestListener.getCurrentAnimeSeason(1)
+                .thenCompose(info -> reloadAnimeGridAsync(info.getAnimeList()).thenApply(v -> info))
+                .whenComplete((info, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                    } else {
+                        pagination.updatePaginationButtons(1, info.getLastPage());
+                    }
+
+                    PauseTransition pause = new PauseTransition(Duration.seconds(0.1));
+                    pause.setOnFinished(ev -> {
+                        loadingBarListener.animateLoadingBar(100, 0.1);
+                        loadingBarListener.fadeOutLoadingBar(0.3);
+                        PauseTransition loadingBarFadeOutTimer = new PauseTransition(Duration.seconds(0.3));
+                        loadingBarFadeOutTimer.setOnFinished(e -> apiLock = false);
+                        loadingBarFadeOutTimer.play();
+                    });
+                    pause.play();
+                }));
+    }
+
+    /**
+     * Creates the (still empty) FlowPane of anime, wrapped by a scrollPane.
+     * The child elements are created by reloadAnimeGridAsync once a page is loaded.
      *
-     * @param animeListInfo A List of AnimeInfo (to be passed to the async function filling the FlowPane on creation of this full View)
      * @return The finished component
      */
-    private ScrollPane createBrowseGrid(AnimeListInfo animeListInfo) {
+    private ScrollPane createBrowseGrid() {
 
         Screen screen = Screen.getPrimary();
         double screenWidth = screen.getBounds().getWidth();
         animeGrid = new FlowGapPane(screenWidth / 9, screenWidth / 9 * AspectRatio.ANIME.getRatio(), 20);
 
-        // Load anime grid with grid items
-        reloadAnimeGridAsync(animeListInfo.getAnimeList()).join();
-
-        // Pagination element
-        this.pagination = new Pagination(animeListInfo.getLastPage(), this::handlePageSelection);
+        // Pagination element, gets its real page count with the first page
+        this.pagination = new Pagination(1, this::handlePageSelection);
+        pagination.setPaginationButtonVisibility(false);
 
         // Wrapper around anime grid and pagination
         VBox wrapper = new VBox(10, animeGrid, pagination);
@@ -249,9 +274,8 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
     /**
      * Even though it's not strictly necessary for the Browse views due to small page size, we
      * employ a LazyLoader-like approach on them.
-     * <p>This is a far less efficient approach than the LazyLoader implementation the Log views use,
-     * but it still works fine exactly because of the small page size.</p>
-     * <p><a href="https://stackoverflow.com/a/30780960">Idea from StackOverflow</a></p>
+     * <p>The visible range is calculated from the scroll offset and the fixed tile geometry of the grid,
+     * so only the items entering or leaving the viewport are touched (no bounds checks on every child).</p>
      *
      * @param scrollPane The scrollPane wrapping the FlowPane of anime (where the lazy loading is run on)
      */
@@ -259,32 +283,49 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
 
         // Wrap in runLater for scrollPane resize update, make sure scrollPane size is set correctly.
         Platform.runLater(() -> {
+            // Suspended views keep their covers unloaded, like a page loaded in the background meanwhile
+            if (suspended) {
+                return;
+            }
 
-            Bounds paneBounds = scrollPane.localToScene(scrollPane.getBoundsInLocal());
+            JfrEvents.VisibilityUpdate event = new JfrEvents.VisibilityUpdate();
+            event.begin();
 
-            if (scrollPane.getContent() instanceof Parent) {
-                for (Node n : animeGrid.getChildren()) {
-                    Bounds nodeBounds = n.localToScene(n.getBoundsInLocal());
+            double viewportMinY = ViewportUtils.getViewportMinY(scrollPane);
+            double viewportMaxY = viewportMinY + scrollPane.getViewportBounds().getHeight();
 
+            int newFirstVisibleIndex = animeGrid.getFirstChildIndexInRange(viewportMinY, viewportMaxY);
+            int newLastVisibleIndex = animeGrid.getLastChildIndexInRange(viewportMinY, viewportMaxY);
+            List<Node> children = animeGrid.getChildren();
 
-                    boolean inViewport = paneBounds.intersects(nodeBounds);
-                    AnimeInfo anime = (AnimeInfo) n.getUserData();
+            // Items that left the viewport
+            for (int i = Math.max(0, firstVisibleIndex); i <= lastVisibleIndex && i < children.size(); i++) {
+                if (i < newFirstVisibleIndex || i > newLastVisibleIndex) {
+                    Node n = children.get(i);
+                    TileEffects.setCover(n, null);
+                }
+            }
 
-                    if (inViewport && !n.isVisible()) {
-                        n.setStyle("-fx-background-image: url('" + anime.getImageUrl() + "');");
-                        n.setVisible(true);
+            // Items that entered the viewport
+            // No fade-in anymore, items already show their image preview until the cover is drawn over it.
+            for (int i = Math.max(0, newFirstVisibleIndex); i <= newLastVisibleIndex; i++) {
+                if (i >= Math.max(0, firstVisibleIndex) && i <= lastVisibleIndex) {
+                    continue;
+                }
 
-                        // TODO This fade-animation can be removed later, it's for testing right now. Probably expensive. Unsure.
-                        FadeTransition fadeIn = new FadeTransition(Duration.seconds(0.5), n);
-                        fadeIn.setFromValue(0.0);
-                        fadeIn.setToValue(1.0);
-                        fadeIn.play();
+                Node n = children.get(i);
+                TileEffects.setCover(n, ((AnimeInfo) n.getUserData()).getImageUrl());
+            }
 
-                    } else if (!inViewport && n.isVisible()) {
-                        n.setVisible(false);
-                        n.setStyle("-fx-background-image: none;");
-                    }
-                }
+            firstVisibleIndex = newFirstVisibleIndex;
+            lastVisibleIndex = newLastVisibleIndex;
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.view = "Browse";
+                event.firstIndex = firstVisibleIndex;
+                event.lastIndex = lastVisibleIndex;
+                event.commit();
             }
         });
     }
@@ -361,15 +402,31 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
      * Reloads the FlowPane of anime with new information when the answer of an API call is received.
      *
      * @param animeList The List of anime to load into the FlowPane.
-     * @return A CompletableFuture so this can be used as a blocking function for the first API call on creation of the full View
+     * @return Completes once the grid update is handed to the JavaFX thread.
      */
     private CompletableFuture<Void> reloadAnimeGridAsync(List<AnimeInfo> animeList) {
-        return CompletableFuture.supplyAsync(() -> createAnimeGridItems(animeList))
+        // Library state (rating border, image preview) of the whole page in one database lookup
+        List<Integer> ids = animeList.stream().map(AnimeInfo::getId).toList();
+
+        return databaseRequestListener.requestAnimeFromDatabase(ids)
+                .thenApplyAsync(databaseEntries -> createAnimeGridItems(animeList, databaseEntries))
                 .thenAccept(animeBoxes -> Platform.runLater(() -> {
+                    JfrEvents.GridRebuild event = new JfrEvents.GridRebuild();
+                    event.begin();
+
                     animeGrid.getChildren().clear();
+                    firstVisibleIndex = -1;
+                    lastVisibleIndex = -1;
                     pagination.setPaginationButtonVisibility(false);
                     animeGrid.getChildren().addAll(animeBoxes);
 
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.view = "Browse";
+                        event.nodeCount = animeBoxes.size();
+                        event.commit();
+                    }
+
                     new AnimationTimer() {
                         @Override
                         public void handle(long now) {
@@ -400,13 +457,19 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
     }
 
 
-    private List<AnimeBox> createAnimeGridItems(List<AnimeInfo> animeList) {
+    private List<AnimeBox> createAnimeGridItems(List<AnimeInfo> animeList, Map<Integer, AnimeInfo> databaseEntries) {
         List<AnimeBox> animeBoxes = new ArrayList<>();
         for (AnimeInfo anime : animeList) {
-            AnimeInfo databaseAnime = databaseRequestListener.requestAnimeFromDatabase(anime.getId());
+            AnimeInfo databaseAnime = databaseEntries.get(anime.getId());
+
+            // Anime in the Log already have an image preview, which the API data doesn't come with
+            if (databaseAnime != null && databaseAnime.getSmallImageUrl().equals(anime.getSmallImageUrl())) {
+                anime.setImagePreview(databaseAnime.getImagePreview());
+            }
 
             AnimeBox animeBox = new AnimeBox(anime, languagePreference);
             animeBox.setOnMouseClick(this::createPopupScreen);
+            animeBox.setOnMouseHover(this::prefetchPopup);
             animeBox.setRatingBorder(databaseAnime, true);
 
             animeBoxes.add(animeBox);
@@ -432,64 +495,113 @@ public class AnimeBrowseView extends StackPane implements PopupMakerView {
     }
 
     /**
-     * Creates a PopupView for an anime (and a window darkener effect) when its VBox in the FlowPane is clicked.
+     * Shows the PopupView for an anime (and a window darkener effect) when its VBox in the FlowPane is clicked.
      *
      * @param parentBox The anime box that was clicked
      */
     private void createPopupScreen(AnimeBox parentBox) {
-        // Fake darkener effect
-        VBox darkBackground = new VBox();
-        darkBackground.getStyleClass().add("grid-media-popup-background");
-        VBox.setVgrow(darkBackground, Priority.ALWAYS);
-        HBox.setHgrow(darkBackground, Priority.ALWAYS);
+        getAnimePopupView().show(parentBox);
+    }
 
 
-        // The actual popup
-        AnimePopupView animePopupView = new AnimePopupView(parentBox, this, databaseRequestListener, darkBackground, languagePreference);
-        VBox popupBox = animePopupView.createPopup();
+    private void prefetchPopup(AnimeBox hoveredBox) {
+        getAnimePopupView().prefetch((AnimeInfo) hoveredBox.getUserData());
+    }
 
-        // Initially transparent for fade-in effect
-        darkBackground.setOpacity(0);
-        popupBox.setOpacity(0);
 
-        this.getChildren().addAll(darkBackground, popupBox);
+    /**
+     * The popup is only built once, on first use, and then reused for every anime.
+     */
+    private AnimePopupView getAnimePopupView() {
+        if (animePopupView == null) {
+            animePopupView = new AnimePopupView(this, databaseRequestListener, languagePreference);
+        }
+        return animePopupView;
+    }
 
-        // Fade-in animations
-        FadeTransition fadeInBackground = new FadeTransition(Duration.seconds(0.2), darkBackground);
-        fadeInBackground.setFromValue(0);
-        fadeInBackground.setToValue(0.8);
 
-        FadeTransition fadeInInfoBox = new FadeTransition(Duration.seconds(0.2), popupBox);
-        fadeInInfoBox.setFromValue(0);
-        fadeInInfoBox.setToValue(1);
+    /**
+     * Invoked when database entries changed, be it through a popup save or the background updater.
+     * Grid items of anime whose place in the Log changed get their rating border updated, nothing else is touched.
+     *
+     * @param changes The changes, see DatabaseChangeListener
+     */
+    @Override
+    public void onAnimeEntriesChanged(List<AnimeChange> changes) {
+        Map<Integer, AnimeChange> changesById = new HashMap<>();
+        for (AnimeChange change : changes) {
+            if (change.affectsAny(AnimeChange.Field.ADDED, AnimeChange.Field.REMOVED, AnimeChange.Field.OWN_STATUS, AnimeChange.Field.OWN_RATING)) {
+                changesById.put(change.id(), change);
+            }
+        }
 
-        fadeInBackground.play();
-        fadeInInfoBox.play();
+        Platform.runLater(() -> {
+            if (animePopupView != null) {
+                animePopupView.onAnimeEntriesChanged(changes);
+            }
 
-        darkBackground.setOnMouseClicked(backGroundEvent -> {
+            if (changesById.isEmpty()) {
+                return;
+            }
+
+            for (Node node : animeGrid.getChildren()) {
+                if (node instanceof AnimeBox animeBox) {
+                    AnimeChange change = changesById.get(((AnimeInfo) animeBox.getUserData()).getId());
+                    if (change != null) {
+                        animeBox.setRatingBorder(change.anime(), true);
+                    }
+                }
+            }
+        });
+    }
+
+
+    /**
+     * Unloads the covers of the visible grid items. The page, search and scroll position stay as they are.
+     */
+    @Override
+    public void suspend() {
+        suspended = true;
+        suspendedVValue = scrollPane.getVvalue();
+
+        List<Node> children = animeGrid.getChildren();
+        for (int i = Math.max(0, firstVisibleIndex); i <= lastVisibleIndex && i < children.size(); i++) {
+            TileEffects.setCover(children.get(i), null);
+        }
+        firstVisibleIndex = -1;
+        lastVisibleIndex = -1;
+
+        if (animePopupView != null) {
+            animePopupView.releaseImages();
+        }
+    }
 
-            // Fade-out animations
-            FadeTransition fadeOutBackground = new FadeTransition(Duration.seconds(0.2), darkBackground);
-            fadeOutBackground.setFromValue(0.8);
-            fadeOutBackground.setToValue(0);
 
-            FadeTransition fadeOutInfoBox = new FadeTransition(Duration.seconds(0.2), popupBox);
-            fadeOutInfoBox.setFromValue(1);
-            fadeOutInfoBox.setToValue(0);
+    @Override
+    public void resume() {
+        if (!suspended) {
+            return;     // First show, the initial page load takes care of everything
+        }
+        suspended = false;
 
-            // Destroy after fade-out
-            fadeOutInfoBox.setOnFinished(e -> this.getChildren().removeAll(darkBackground, popupBox));
-            fadeOutBackground.play();
-            fadeOutInfoBox.play();
+        // Re-adding the view to the scene lays it out from scratch, which can clamp the scroll position, so it's set after
+        Platform.runLater(() -> {
+            scrollPane.setVvalue(suspendedVValue);
+            smoothScroll.adjustAccumulatedVValue();
+            updateVisibleGridItems(scrollPane);
         });
     }
 
 
     @Override
-    public void onPopupClosed(AnimeBox popupParent) {
-        AnimeInfo anime = (AnimeInfo) popupParent.getUserData();
-        AnimeInfo databaseAnime = databaseRequestListener.requestAnimeFromDatabase(anime.getId());
-        popupParent.setRatingBorder(databaseAnime, true);
+    public long getEstimatedMemoryBytes() {
+        return animeGrid.getChildren().size() * AnimeBox.ESTIMATED_MEMORY_BYTES;
+    }
+
+
+    @Override
+    public void dispose() {
+        databaseRequestListener.removeDatabaseChangeListener(this);
     }
 
 
@@ -1,13 +1,17 @@
 package com.github.badbadbadbadbad.tsundoku.views;
 
+import com.github.badbadbadbadbad.tsundoku.controllers.DatabaseChangeListener;
 import com.github.badbadbadbadbad.tsundoku.controllers.DatabaseRequestListener;
 import com.github.badbadbadbadbad.tsundoku.external.FlowGapPane;
 import com.github.badbadbadbadbad.tsundoku.external.SmoothScroll;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeChange;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeListInfo;
+import com.github.badbadbadbadbad.tsundoku.util.AnimeLogFilter;
 import com.github.badbadbadbadbad.tsundoku.util.AspectRatio;
+import com.github.badbadbadbadbad.tsundoku.util.JfrEvents;
 import com.github.badbadbadbadbad.tsundoku.util.LazyLoader;
-import com.github.badbadbadbadbad.tsundoku.util.ListFinder;
+import com.github.badbadbadbadbad.tsundoku.util.LogGridUtils;
 import com.github.badbadbadbadbad.tsundoku.views.ControlsPane.ControlsPane;
 import com.github.badbadbadbadbad.tsundoku.views.ControlsPane.FilterConfig;
 import javafx.animation.FadeTransition;
@@ -39,7 +43,9 @@ import java.util.function.Consumer;
  * <p>It would be far cleaner to have some LogView superclass with this inheriting, but I don't want to overcomplicate things
  * before I know what quirks the main content views for other media modes may involve (due to relying on data from external APIs).</p>
  */
-public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMakerView {
+public class AnimeLogView extends StackPane implements CachedView, DatabaseChangeListener {
+
+    private static final Insets GRID_PADDING = new Insets(0, 0, 30, 0);
 
     public final StringProperty personalStatus = new SimpleStringProperty("Any");
     public final StringProperty personalRating = new SimpleStringProperty("Any");
@@ -55,14 +61,21 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
     private final DatabaseRequestListener databaseRequestListener;
     private final List<List<VBox>> unfilteredAnimeLists;
     private final List<ObservableList<VBox>> filteredAnimeLists;    // ObservableList so grid headers can watch for these being empty
+    private final Map<Integer, AnimeBox> boxesById = new HashMap<>();   // Every box of the unfiltered lists, for patching single ones
+    private final Map<AnimeBox, Integer> gridOfBox = new HashMap<>();   // Which unfiltered list each box is in. Not taken from
+                                                                        // its anime, that may have changed since (see patchGrids)
     private final Map<String, Consumer<String>> filterUpdaters = new HashMap<>();
     private final StringProperty searchStringProperty = new SimpleStringProperty("");
     private final String languagePreference;
+    private AnimePopupView animePopupView;     // Built on first use
     private List<FlowGapPane> filteredGrids;                 // The actual grids used for UI
     private ScrollPane scrollPane;
     private LazyLoader lazyLoader;
-    private ListFinder listFinder;
     private SmoothScroll smoothScroll;
+    private boolean gridsLoaded = false;
+    private boolean suspended = false;
+    private double suspendedVValue = 0;
+    private final List<AnimeChange> changesBeforeLoad = new ArrayList<>();  // Database changes arriving while the grids are still loading
 
     public AnimeLogView(Stage stage, DatabaseRequestListener databaseRequestListener, String languagePreference) {
         this.stage = stage;
@@ -93,6 +106,9 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
         this.filterUpdaters.put("Type", type::set);
 
         initComponent();
+
+        // Also while suspended in the view cache, so switching back shows current data right away
+        databaseRequestListener.addDatabaseChangeListener(this);
     }
 
     private void initComponent() {
@@ -285,7 +301,7 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
         double screenWidth = screen.getBounds().getWidth();
 
         FlowGapPane animeGrid = new FlowGapPane(screenWidth / 9, screenWidth / 9 * AspectRatio.ANIME.getRatio(), 20);
-        animeGrid.setPadding(new Insets(0, 0, 30, 0));
+        animeGrid.setPadding(GRID_PADDING);
 
         return animeGrid;
     }
@@ -299,303 +315,300 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
      * so the finished correct UI can be displayed.</p>
      */
     private void loadDatabaseIntoGridsAsync() {
-        // The full database
-        AnimeListInfo fullDatabase = databaseRequestListener.requestFullAnimeDatabase();
-
-        Comparator<AnimeInfo> byRating = Comparator.comparingInt(anime -> switch (anime.getOwnRating()) {
-            case "Heart" -> 1;
-            case "Liked" -> 2;
-            case "Disliked" -> 3;
-            case "Unscored" -> 4;
-            default -> Integer.MAX_VALUE; // fallback, in case of unexpected value
-        });
-
-        // Alphanumerical title sort
-        Comparator<AnimeInfo> byTitle;
-        if (languagePreference.equals("Japanese")) {
-            byTitle = Comparator.comparing(AnimeInfo::getTitleJapanese);
-        } else if (languagePreference.equals("English")) {
-            byTitle = Comparator.comparing(AnimeInfo::getTitleEnglish);
-        } else {
-            byTitle = Comparator.comparing(AnimeInfo::getTitle);
-        }
-
-        // Combine the two sorts
-        Comparator<AnimeInfo> combinedComparator = byRating.thenComparing(byTitle);
-
-
-        // Split the full database into disjunct subsets based on the personal status
-        ObservableList<AnimeInfo> inProgressAnimeList = FXCollections.observableArrayList(
-                fullDatabase.getAnimeList().stream()
-                        .filter(anime -> "In progress".equals(anime.getOwnStatus()))
-                        .sorted(combinedComparator)
-                        .toList()
-        );
+        databaseRequestListener.requestFullAnimeDatabase().thenAcceptAsync(this::loadIntoGridsAsync);
+    }
 
-        ObservableList<AnimeInfo> backlogAnimeList = FXCollections.observableArrayList(
-                fullDatabase.getAnimeList().stream()
-                        .filter(anime -> "Backlog".equals(anime.getOwnStatus()))
-                        .sorted(combinedComparator)
-                        .toList()
-        );
 
-        ObservableList<AnimeInfo> completedAnimeList = FXCollections.observableArrayList(
-                fullDatabase.getAnimeList().stream()
-                        .filter(anime -> "Completed".equals(anime.getOwnStatus()))
-                        .sorted(combinedComparator)
-                        .toList()
-        );
-
-        ObservableList<AnimeInfo> pausedAnimeList = FXCollections.observableArrayList(
-                fullDatabase.getAnimeList().stream()
-                        .filter(anime -> "Paused".equals(anime.getOwnStatus()))
-                        .sorted(combinedComparator)
-                        .toList()
-        );
-
-        ObservableList<AnimeInfo> droppedAnimeList = FXCollections.observableArrayList(
-                fullDatabase.getAnimeList().stream()
-                        .filter(anime -> "Dropped".equals(anime.getOwnStatus()))
-                        .sorted(combinedComparator)
-                        .toList()
-        );
+    /**
+     * The rest of loadDatabaseIntoGridsAsync, once the full database is read. Runs in the background.
+     *
+     * @param fullDatabase The full local anime database
+     */
+    private void loadIntoGridsAsync(AnimeListInfo fullDatabase) {
+        Comparator<AnimeInfo> combinedComparator = LogGridUtils.createGridComparator(languagePreference);
 
-        // Async calls for the actual loading of the database content into VBoxes
+        // Split the full database into disjunct subsets based on the personal status,
+        // then async calls for the actual loading of the content into VBoxes
         List<CompletableFuture<Void>> gridFutures = new ArrayList<>();
-        gridFutures.add(reloadAnimeGridAsync(unfilteredAnimeLists.get(0), inProgressAnimeList));
-        gridFutures.add(reloadAnimeGridAsync(unfilteredAnimeLists.get(1), backlogAnimeList));
-        gridFutures.add(reloadAnimeGridAsync(unfilteredAnimeLists.get(2), completedAnimeList));
-        gridFutures.add(reloadAnimeGridAsync(unfilteredAnimeLists.get(3), pausedAnimeList));
-        gridFutures.add(reloadAnimeGridAsync(unfilteredAnimeLists.get(4), droppedAnimeList));
+        for (int i = 0; i < LogGridUtils.GRID_STATUSES.size(); i++) {
+            String status = LogGridUtils.GRID_STATUSES.get(i);
+            List<AnimeInfo> animeList = fullDatabase.getAnimeList().stream()
+                    .filter(anime -> status.equals(anime.getOwnStatus()))
+                    .sorted(combinedComparator)
+                    .toList();
+
+            gridFutures.add(reloadAnimeGridAsync(i, animeList));
+        }
         CompletableFuture<Void> allGridsLoaded = CompletableFuture.allOf(
                 gridFutures.toArray(new CompletableFuture[0])
         );
 
         // Once all content is loaded, call onFiltersChanged so the UI grids load the content in
         allGridsLoaded.thenRun(() -> Platform.runLater(() -> {
+            gridsLoaded = true;
+
+            // Changes made after the full database was read. Patching ones that were in it already doesn't hurt either.
+            if (!changesBeforeLoad.isEmpty()) {
+                AnimeLogFilter filter = createFilter();
+                changesBeforeLoad.forEach(change -> patchGrids(change, filter));
+                changesBeforeLoad.clear();
+            }
+
             onFiltersChanged();     // First call here also initializes the lazyLoader
-            this.listFinder = new ListFinder(unfilteredAnimeLists);
         }));
     }
 
 
+    /**
+     * Items are compared by their anime, see LogGridUtils.createGridComparator.
+     */
+    private Comparator<VBox> createBoxComparator() {
+        return Comparator.comparing(box -> (AnimeInfo) box.getUserData(), LogGridUtils.createGridComparator(languagePreference));
+    }
+
+
     /**
      * Invoked by loadDatabaseIntoGridsAsync.
      * Async call to create grid elements from a List of anime info.
      *
-     * @param animeGrid The grid to fill with the finished elements
+     * @param gridIndex Index of the grid to fill with the finished elements
      * @param animeList The information to turn into grid elements
      * @return A CompletableFuture call so loadDatabaseIntoGridsAsync can track when all grids have finished this async call
      */
-    private CompletableFuture<Void> reloadAnimeGridAsync(List<VBox> animeGrid, List<AnimeInfo> animeList) {
+    private CompletableFuture<Void> reloadAnimeGridAsync(int gridIndex, List<AnimeInfo> animeList) {
         return CompletableFuture.supplyAsync(() -> createAnimeGridItems(animeList))
                 .thenAccept(animeBoxes -> Platform.runLater(() -> {
+                    List<VBox> animeGrid = unfilteredAnimeLists.get(gridIndex);
                     animeGrid.clear();
                     animeGrid.addAll(animeBoxes);
+                    for (AnimeBox animeBox : animeBoxes) {
+                        boxesById.put(((AnimeInfo) animeBox.getUserData()).getId(), animeBox);
+                        gridOfBox.put(animeBox, gridIndex);
+                    }
                 }));
     }
 
 
-    private List<VBox> createAnimeGridItems(List<AnimeInfo> animeList) {
-        List<VBox> animeBoxes = new ArrayList<>();
+    private List<AnimeBox> createAnimeGridItems(List<AnimeInfo> animeList) {
+        List<AnimeBox> animeBoxes = new ArrayList<>();
         for (AnimeInfo anime : animeList) {
-            AnimeBox animeBox = new AnimeBox(anime, languagePreference);
-            animeBox.setOnMouseClick(this::createPopupScreen);
-
-            AnimeInfo databaseAnime = databaseRequestListener.requestAnimeFromDatabase(anime.getId());
-            animeBox.setRatingBorder(databaseAnime, false);
-
-            animeBoxes.add(animeBox);
+            animeBoxes.add(createAnimeBox(anime));
         }
         return animeBoxes;
     }
 
+
+    private AnimeBox createAnimeBox(AnimeInfo anime) {
+        AnimeBox animeBox = new AnimeBox(anime, languagePreference);
+        animeBox.setOnMouseClick(this::createPopupScreen);
+        animeBox.setOnMouseHover(this::prefetchPopup);
+
+        // The anime came out of the database just now, no need to look it up again
+        animeBox.setRatingBorder(anime, false);
+        return animeBox;
+    }
+
     /**
-     * Creates a PopupView for an anime (and a window darkener effect) when its VBox in the FlowPane is clicked.
+     * Shows the PopupView for an anime (and a window darkener effect) when its VBox in the FlowPane is clicked.
      *
      * @param parentBox The anime box that was clicked
      */
     private void createPopupScreen(AnimeBox parentBox) {
-        // Fake darkener effect
-        VBox darkBackground = new VBox();
-        darkBackground.getStyleClass().add("grid-media-popup-background");
-        VBox.setVgrow(darkBackground, Priority.ALWAYS);
-        HBox.setHgrow(darkBackground, Priority.ALWAYS);
-
-        // The actual popup
-        AnimePopupView animePopupView = new AnimePopupView(parentBox, this, databaseRequestListener, darkBackground, languagePreference);
-        VBox popupBox = animePopupView.createPopup();
+        getAnimePopupView().show(parentBox);
+    }
 
-        // Initially transparent for fade-in effect
-        darkBackground.setOpacity(0);
-        popupBox.setOpacity(0);
 
-        this.getChildren().addAll(darkBackground, popupBox);
+    private void prefetchPopup(AnimeBox hoveredBox) {
+        getAnimePopupView().prefetch((AnimeInfo) hoveredBox.getUserData());
+    }
 
-        // Fade-in animations
-        FadeTransition fadeInBackground = new FadeTransition(Duration.seconds(0.2), darkBackground);
-        fadeInBackground.setFromValue(0);
-        fadeInBackground.setToValue(0.8);
 
-        FadeTransition fadeInInfoBox = new FadeTransition(Duration.seconds(0.2), popupBox);
-        fadeInInfoBox.setFromValue(0);
-        fadeInInfoBox.setToValue(1);
+    /**
+     * The popup is only built once, on first use, and then reused for every anime.
+     */
+    private AnimePopupView getAnimePopupView() {
+        if (animePopupView == null) {
+            animePopupView = new AnimePopupView(this, databaseRequestListener, languagePreference);
+        }
+        return animePopupView;
+    }
 
-        fadeInBackground.play();
-        fadeInInfoBox.play();
 
-        darkBackground.setOnMouseClicked(backGroundEvent -> {
+    /**
+     * Invoked when database entries changed, be it through a popup save, the background updater or a new image preview.
+     * Only the grid items of the changed anime are touched (see patchGrids), the grids are not rebuilt.
+     *
+     * @param changes The changes, see DatabaseChangeListener
+     */
+    @Override
+    public void onAnimeEntriesChanged(List<AnimeChange> changes) {
+        Platform.runLater(() -> {
+            if (animePopupView != null) {
+                animePopupView.onAnimeEntriesChanged(changes);
+            }
 
-            // Fade-out animations
-            FadeTransition fadeOutBackground = new FadeTransition(Duration.seconds(0.2), darkBackground);
-            fadeOutBackground.setFromValue(0.8);
-            fadeOutBackground.setToValue(0);
+            if (!gridsLoaded) {
+                changesBeforeLoad.addAll(changes);
+                return;
+            }
 
-            FadeTransition fadeOutInfoBox = new FadeTransition(Duration.seconds(0.2), popupBox);
-            fadeOutInfoBox.setFromValue(1);
-            fadeOutInfoBox.setToValue(0);
+            AnimeLogFilter filter = createFilter();
+            changes.forEach(change -> patchGrids(change, filter));
 
-            // Destroy after fade-out
-            fadeOutInfoBox.setOnFinished(e -> this.getChildren().removeAll(darkBackground, popupBox));
-            fadeOutBackground.play();
-            fadeOutInfoBox.play();
+            for (int i = 0; i < filteredGrids.size(); i++) {
+                updateGridEmptyState(i);
+            }
+            smoothScroll.adjustAccumulatedVValue();
+            requestVisibilityUpdate();
         });
     }
 
 
     /**
-     * Invoked when a created PopupView is closed.
-     * If the anime was set to Untracked in the PopupView, it is deleted from the corresponding grid.
-     * Else, its position in the grids is adjusted (depending on the new personal status and rating).
-     * At the end, onFiltersChanged is invoked to update visibilities correctly.
+     * Applies a single database change to the grids.
+     * <ul>
+     *     <li>Removed anime lose their item.</li>
+     *     <li>Items of changed anime are updated in place, so they keep their loaded cover. They only move if they
+     *     belong into another grid now (personal status), or their sort position changed (personal rating, title).
+     *     Progress and image preview changes never move anything.</li>
+     *     <li>Items are added to or removed from the filtered grid if the change made them (not) match the filters.</li>
+     * </ul>
+     * All of it by index into the lists, nothing else in the grids is touched.
      *
-     * @param popupParent The parent PopupView whose closing invoked this function call
+     * @param change The change to apply
+     * @param filter The current filters
      */
-    @Override
-    public void onPopupClosed(AnimeBox popupParent) {
-        // Old info of popup spawner
-        AnimeInfo animeOld = (AnimeInfo) popupParent.getUserData();
-
-        // New info of popup spawner from database
-        AnimeInfo animeNew = databaseRequestListener.requestAnimeFromDatabase(animeOld.getId());
-
-        // Get node index of the popup spawner
-        int index = listFinder.findNodeIndexByGridChild(popupParent);
+    private void patchGrids(AnimeChange change, AnimeLogFilter filter) {
+        AnimeBox animeBox = boxesById.get(change.id());
+        int targetGrid = change.isRemoved() ? -1 : LogGridUtils.getGridIndex(change.anime().getOwnStatus());
+
+        // Removed, or saved as "Untracked"
+        if (targetGrid == -1) {
+            if (animeBox != null) {
+                removeBox(animeBox);
+                boxesById.remove(change.id());
+            }
+            return;
+        }
 
-        // Get popup spawner and corresponding pane
-        Pair<List<VBox>, Integer> pair = listFinder.findPaneAndChildIndex(index);
+        AnimeInfo newAnimeInfo = change.anime();
 
+        if (animeBox == null) {
+            animeBox = createAnimeBox(newAnimeInfo);
+            boxesById.put(change.id(), animeBox);
+            insertBox(animeBox, targetGrid, filter);
+            return;
+        }
 
-        // If anime not in database any longer, delete from unfiltered list
-        if (animeNew == null) {
-            int idx = pair.getValue();
-            pair.getKey().remove(idx);
+        animeBox.updateAnime(newAnimeInfo);
+        if (change.affectsAny(AnimeChange.Field.OWN_RATING)) {
+            animeBox.setRatingBorder(newAnimeInfo, false);
         }
 
-        // Else: Update position in grids (remove old item, make new animeBox at new position)
-        // This includes the case of the anime not changing status / rating, but we'll just be lazy here
-        else {
-
-            AnimeBox newAnimeBox = new AnimeBox(animeNew, languagePreference);
-            newAnimeBox.setOnMouseClick(this::createPopupScreen);
-            newAnimeBox.setRatingBorder(animeNew, false);
-
-            AnimeInfo newAnimeInfo = (AnimeInfo) newAnimeBox.getUserData();
-
-            // Get correct grid to insert in
-            List<VBox> targetGrid = switch (newAnimeInfo.getOwnStatus()) {
-                case "In progress" -> unfilteredAnimeLists.get(0);
-                case "Backlog" -> unfilteredAnimeLists.get(1);
-                case "Completed" -> unfilteredAnimeLists.get(2);
-                case "Paused" -> unfilteredAnimeLists.get(3);
-                case "Dropped" -> unfilteredAnimeLists.get(4);
-                default ->
-                        throw new IllegalArgumentException("Invalid status trying to insert new animeBox into log: " + newAnimeInfo.getOwnStatus());
-            };
-
-            // ownRating sort
-            Comparator<AnimeInfo> byRating = Comparator.comparingInt(anime -> switch (anime.getOwnRating()) {
-                case "Heart" -> 1;
-                case "Liked" -> 2;
-                case "Disliked" -> 3;
-                case "Unscored" -> 4;
-                default -> Integer.MAX_VALUE; // fallback, in case of unexpected value
-            });
-
-            // Alphanumerical title sort
-            Comparator<AnimeInfo> byTitle = Comparator.comparing(AnimeInfo::getTitle);
-
-
-            int insertIndex = 0;
-            int oldIndex = pair.getValue(); // Index of this anime's current position in grid
-            boolean hasPassedOldIndex = false;
-            boolean sortedByRating = false;
-
-            // Loop through grid to find correct position
-            while (insertIndex <= targetGrid.size()) {
-
-                if (insertIndex == targetGrid.size())
-                    break;
-
-                // Special case: New item passes itself still in the list (only possible if status hasn't changed)
-                if (insertIndex == oldIndex && pair.getKey() == targetGrid) {
-                    insertIndex++;
-                    hasPassedOldIndex = true;
-                    continue;
-                }
+        int currentGrid = gridOfBox.get(animeBox);
+        List<VBox> unfilteredList = unfilteredAnimeLists.get(currentGrid);
+        if (currentGrid != targetGrid || !LogGridUtils.isInSortedPosition(unfilteredList, unfilteredList.indexOf(animeBox), createBoxComparator())) {
+            removeBox(animeBox);
+            insertBox(animeBox, targetGrid, filter);
+            return;
+        }
 
-                VBox box = targetGrid.get(insertIndex);
-                AnimeInfo existingAnimeInfo = (AnimeInfo) box.getUserData();
+        // Stays where it is, but the change may have made it (not) match the filters
+        ObservableList<VBox> filteredList = filteredAnimeLists.get(currentGrid);
+        boolean shown = animeBox.getParent() == filteredGrids.get(currentGrid);
+        boolean matches = filter.matches(newAnimeInfo);
+
+        if (matches && !shown) {
+            int index = LogGridUtils.findInsertIndex(filteredList, animeBox, createBoxComparator());
+            filteredList.add(index, animeBox);
+            filteredGrids.get(currentGrid).getChildren().add(index, animeBox);
+        } else if (!matches && shown) {
+            filteredList.remove(animeBox);
+            filteredGrids.get(currentGrid).getChildren().remove(animeBox);
+        }
+    }
 
 
-                // If next box has worse rating than new box, then we're sorted
-                int ratingComparison = byRating.compare(newAnimeInfo, existingAnimeInfo);
-                if (ratingComparison < 0) {
-                    break;
-                }
+    /**
+     * Puts an item at its sorted position into the unfiltered list of a grid, and into the filtered list and grid
+     * itself if it matches the filters.
+     */
+    private void insertBox(AnimeBox animeBox, int gridIndex, AnimeLogFilter filter) {
+        Comparator<VBox> comparator = createBoxComparator();
+        List<VBox> unfilteredList = unfilteredAnimeLists.get(gridIndex);
+        unfilteredList.add(LogGridUtils.findInsertIndex(unfilteredList, animeBox, comparator), animeBox);
+        gridOfBox.put(animeBox, gridIndex);
+
+        if (filter.matches((AnimeInfo) animeBox.getUserData())) {
+            ObservableList<VBox> filteredList = filteredAnimeLists.get(gridIndex);
+            int index = LogGridUtils.findInsertIndex(filteredList, animeBox, comparator);
+            filteredList.add(index, animeBox);
+            filteredGrids.get(gridIndex).getChildren().add(index, animeBox);
+        }
+    }
 
-                // If not sorted by rating yet, keep going until next box has same rating as new box
-                if (!sortedByRating) {
-                    if (ratingComparison == 0) {
-                        sortedByRating = true;
-                        continue;
-                    }
-                }
 
-                // Once rating-sorted, keep going until name-sorted
-                else {
+    /**
+     * Takes an item out of its grid and the grid's lists. The LazyLoader notices on its next update and drops the cover.
+     */
+    private void removeBox(AnimeBox animeBox) {
+        Integer gridIndex = gridOfBox.remove(animeBox);
+        if (gridIndex == null) {
+            return;
+        }
 
-                    int nameComparison = byTitle.compare(newAnimeInfo, existingAnimeInfo);
-                    if (nameComparison <= 0) {
-                        break;
-                    }
-                }
-                insertIndex++;
+        unfilteredAnimeLists.get(gridIndex).remove(animeBox);
+        filteredAnimeLists.get(gridIndex).remove(animeBox);
+        filteredGrids.get(gridIndex).getChildren().remove(animeBox);
+    }
 
-            }
 
+    /**
+     * Collapses a grid while it has no items, else its padding would leave a gap between the headers.
+     */
+    private void updateGridEmptyState(int gridIndex) {
+        FlowGapPane filteredGrid = filteredGrids.get(gridIndex);
 
-            // If anime passed itself during sorting process, we need to decrement once because its old entry is about to be deleted
-            if (hasPassedOldIndex) {
-                insertIndex--;
-            }
+        if (filteredAnimeLists.get(gridIndex).isEmpty()) {
+            filteredGrid.setMaxHeight(0);
+            filteredGrid.setPadding(Insets.EMPTY);
+        } else {
+            filteredGrid.setMaxHeight(Double.MAX_VALUE);
+            filteredGrid.setPadding(GRID_PADDING);
+        }
+    }
 
 
-            // Remove old entry
-            int idx = pair.getValue();
-            pair.getKey().remove(idx);
+    /**
+     * Has the LazyLoader load what is in the viewport after the grids changed, creating it if this is the first content.
+     */
+    private void requestVisibilityUpdate() {
+        // Suspended views load nothing, resume takes care of it
+        if (suspended) {
+            return;
+        }
 
-            // Insert at new position
-            targetGrid.add(insertIndex, newAnimeBox);
+        if (lazyLoader == null) {
+            if (filteredAnimeLists.stream().allMatch(List::isEmpty)) {
+                return;
+            }
+            lazyLoader = new LazyLoader(scrollPane, smoothScroll, filteredGrids, AspectRatio.ANIME,
+                    databaseRequestListener::onImagePreviewComputed);
         }
 
+        lazyLoader.updateVisibilityFull();
+    }
 
-        onFiltersChanged();
+
+    private AnimeLogFilter createFilter() {
+        return new AnimeLogFilter(searchStringProperty.get(), personalStatus.get(), personalRating.get(),
+                releaseStatus.get(), ageRating.get(), season.get(), type.get(), minEpisodes.get(), maxEpisodes.get(),
+                startYear.get(), endYear.get());
     }
 
 
     /**
-     * Invoked when any filters are changed or a PopupView is closed.
+     * Invoked when any filters are changed, and once the grids are first loaded.
      * Refreshes the filtered anime lists based on the current filter contents, then
      * reloads the grid with the new filtered lists to display, and finally invokes a
      * LazyLoader visibility update.
@@ -604,6 +617,8 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
      */
     private void onFiltersChanged() {
 
+        AnimeLogFilter filter = createFilter();
+
         for (int i = 0; i < unfilteredAnimeLists.size(); i++) {
             List<VBox> currentGrid = unfilteredAnimeLists.get(i);
             ObservableList<VBox> filteredList = filteredAnimeLists.get(i);
@@ -615,112 +630,10 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
                     AnimeInfo animeInfo = (AnimeInfo) animeBox.getUserData();
                     if (animeInfo == null) continue;
 
-
-                    // Search string filter
-                    if (!searchStringProperty.get().isEmpty()) {
-                        String lowerSearchString = searchStringProperty.get().toLowerCase();
-                        String title = animeInfo.getTitle() != null ? animeInfo.getTitle().toLowerCase() : "";
-                        String titleJapanese = animeInfo.getTitleJapanese() != null ? animeInfo.getTitleJapanese().toLowerCase() : "";
-                        String titleEnglish = animeInfo.getTitleEnglish() != null ? animeInfo.getTitleEnglish().toLowerCase() : "";
-
-                        if (!(title.contains(lowerSearchString) ||
-                                titleJapanese.contains(lowerSearchString) ||
-                                titleEnglish.contains(lowerSearchString))) {
-                            continue;
-                        }
-                    }
-
-                    // Personal status filter
-                    if (!"Any".equals(personalStatus.get()) && !personalStatus.get().equals(animeInfo.getOwnStatus())) {
-                        continue;
-                    }
-
-                    // Personal rating filter
-                    if (!"Any".equals(personalRating.get()) && !personalRating.get().equals(animeInfo.getOwnRating())) {
+                    if (!filter.matches(animeInfo)) {
                         continue;
                     }
 
-                    // Release status filter
-                    if (!"Any".equals(releaseStatus.get()) && !releaseStatus.get().equals(animeInfo.getPublicationStatus())) {
-                        continue;
-                    }
-
-                    // Age rating filter
-                    if (!"Any".equals(ageRating.get()) && !ageRating.get().equals(animeInfo.getAgeRating())) {
-                        continue;
-                    }
-
-                    // Episode filters
-                    if (minEpisodes.get() != null && !minEpisodes.get().isEmpty()) {
-                        try {
-                            int minEpisodesInt = Integer.parseInt(minEpisodes.get());
-                            if (animeInfo.getEpisodesTotal() < minEpisodesInt) {
-                                continue;
-                            }
-                        } catch (NumberFormatException ignored) {
-                        }
-                    }
-
-                    if (maxEpisodes.get() != null && !maxEpisodes.get().isEmpty()) {
-                        try {
-                            int maxEpisodesInt = Integer.parseInt(maxEpisodes.get());
-                            if (animeInfo.getEpisodesTotal() > maxEpisodesInt) {
-                                continue;
-                            }
-                        } catch (NumberFormatException ignored) {
-                        }
-                    }
-
-                    // Release year filters
-                    if (startYear.get() != null && !startYear.get().isEmpty()) {
-                        String release = animeInfo.getRelease();
-                        if (!"Not yet provided".equals(release)) {
-                            try {
-                                int startYearInt = Integer.parseInt(startYear.get());
-                                int releaseYearInt = Integer.parseInt(release.substring(release.length() - 4));
-                                if (releaseYearInt < startYearInt) continue;
-                            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-                                continue;
-                            }
-                        } else {
-                            continue;
-                        }
-                    }
-
-                    if (endYear.get() != null && !endYear.get().isEmpty()) {
-                        String release = animeInfo.getRelease();
-                        if (!"Not yet provided".equals(release)) {
-                            try {
-                                int endYearInt = Integer.parseInt(endYear.get());
-                                int releaseYearInt = Integer.parseInt(release.substring(release.length() - 4));
-                                if (releaseYearInt > endYearInt) continue;
-                            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-                                continue;
-                            }
-                        } else {
-                            continue;
-                        }
-                    }
-
-                    // Release season filter
-                    if (!"Any".equals(season.get())) {
-                        String release = animeInfo.getRelease();
-                        if (!"Not yet provided".equals(release)) {
-                            String seasonStr = release.substring(0, release.length() - 5); // Trim space bar and four-digit release year
-                            if (!season.get().equals(seasonStr)) {
-                                continue;
-                            }
-                        } else {
-                            continue;
-                        }
-                    }
-
-                    // Type filter
-                    if (!"Any".equals(type.get()) && !type.get().equals(animeInfo.getType())) {
-                        continue;
-                    }
-
-
                     // If all filters passed, add to filtered list
                     filteredList.add(animeBox);
                 }
@@ -730,6 +643,8 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
 
         // Update the filtered grids in a single Platform.runLater call
         Platform.runLater(() -> {
+            JfrEvents.GridRebuild event = new JfrEvents.GridRebuild();
+            event.begin();
 
             int totalNodes = 0;
 
@@ -742,14 +657,7 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
                 filteredGrid.getChildren().addAll(filteredList);
 
                 totalNodes += filteredList.size();
-
-                if (filteredList.isEmpty()) {
-                    filteredGrid.setMaxHeight(0);
-                    filteredGrid.setPadding(new Insets(0, 0, 0, 0));
-                } else {
-                    filteredGrid.setMaxHeight(Double.MAX_VALUE);
-                    filteredGrid.setPadding(new Insets(0, 0, 30, 0));
-                }
+                updateGridEmptyState(i);
 
             }
 
@@ -759,15 +667,24 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
                 smoothScroll.adjustAccumulatedVValue();
             }
 
+            event.end();
+            if (event.shouldCommit()) {
+                event.view = "Log";
+                event.nodeCount = totalNodes;
+                event.commit();
+            }
+
 
-            if (totalNodes == 0) {
+            // Suspended views load nothing, resume takes care of it
+            if (totalNodes == 0 || suspended) {
                 return;
             }
 
 
             // For the startup call
             if (lazyLoader == null) {
-                lazyLoader = new LazyLoader(scrollPane, filteredGrids, AspectRatio.ANIME);
+                lazyLoader = new LazyLoader(scrollPane, smoothScroll, filteredGrids, AspectRatio.ANIME,
+                        databaseRequestListener::onImagePreviewComputed);
             }
 
 
@@ -851,7 +768,57 @@ public class AnimeLogView extends StackPane implements LazyLoaderView, PopupMake
     }
 
 
-    public void shutdownLazyLoader() {
+    /**
+     * Unloads all covers and stops the LazyLoader. The grids, filters and scroll position stay as they are.
+     */
+    @Override
+    public void suspend() {
+        suspended = true;
+        suspendedVValue = scrollPane.getVvalue();
+
+        if (lazyLoader != null) {
+            lazyLoader.suspend();
+        }
+        if (animePopupView != null) {
+            animePopupView.releaseImages();
+        }
+    }
+
+
+    @Override
+    public void resume() {
+        if (!suspended) {
+            return;     // First show, the initial load takes care of everything
+        }
+        suspended = false;
+
+        // Re-adding the view to the scene lays it out from scratch, which can clamp the scroll position, so it's set after
+        Platform.runLater(() -> {
+            scrollPane.setVvalue(suspendedVValue);
+            smoothScroll.adjustAccumulatedVValue();
+
+            if (lazyLoader != null) {
+                lazyLoader.resume();
+            } else if (gridsLoaded) {
+                onFiltersChanged();     // The grids were empty until a database change came in while suspended
+            }
+        });
+    }
+
+
+    @Override
+    public long getEstimatedMemoryBytes() {
+        long boxes = 0;
+        for (List<VBox> grid : unfilteredAnimeLists) {
+            boxes += grid.size();
+        }
+        return boxes * AnimeBox.ESTIMATED_MEMORY_BYTES;
+    }
+
+
+    @Override
+    public void dispose() {
+        databaseRequestListener.removeDatabaseChangeListener(this);
         if (lazyLoader != null) {
             lazyLoader.shutdownImageLoaderExecutor();
         }
@@ -2,30 +2,42 @@ package com.github.badbadbadbadbad.tsundoku.views;
 
 import com.github.badbadbadbadbad.tsundoku.controllers.DatabaseRequestListener;
 import com.github.badbadbadbadbad.tsundoku.external.SmoothScroll;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeChange;
 import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+import com.github.badbadbadbadbad.tsundoku.util.ImagePreviewUtils;
+import com.github.badbadbadbadbad.tsundoku.util.Metrics;
+import com.github.badbadbadbadbad.tsundoku.util.StyleUtils;
+import com.github.badbadbadbadbad.tsundoku.util.TextFitUtils;
+import javafx.animation.FadeTransition;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
-import javafx.scene.text.Text;
 import javafx.stage.Screen;
+import javafx.util.Duration;
 import org.kordamp.ikonli.dashicons.Dashicons;
 import org.kordamp.ikonli.fluentui.FluentUiFilledMZ;
 import org.kordamp.ikonli.javafx.FontIcon;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.function.BiFunction;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 
 /**
  * The full view component displayed when some anime in the AnimeBrowseView or AnimeLogView is clicked.
+ *
+ * <p>Each view builds this once and then just rebinds it to the clicked anime on every click, instead of building
+ * the whole layout tree (and darkener, and fade animations) from scratch each time. Hovering a grid item prefetches
+ * its database entry and cover image, so by the time it's clicked, the popup only has to swap some texts.</p>
  */
 public class AnimePopupView {
 
@@ -35,12 +47,14 @@ public class AnimePopupView {
      */
     private final double RATIO = 318.0 / 225.0;
 
+    private static final int MAX_PREFETCHED = 16;
+
     private final DatabaseRequestListener databaseRequestListener;
 
-    private final AnimeBox parentBox;
-    private final PopupMakerView parentView;
-    private final AnimeInfo anime;                  // The anime data of the grid item that was clicked to create this popup
-    private final AnimeInfo databaseAnime;          // The anime data of the matching anime, received from the local database, if it exists.
+    private final StackPane host;                   // The view the popup and darkener are shown in
+    private AnimeBox parentBox;                     // The grid item that was clicked to show this popup
+    private AnimeInfo anime;                        // Copy of the anime data of the clicked grid item, edited by the popup until saved
+    private AnimeInfo databaseAnime;                // The anime data of the matching anime, received from the local database, if it exists.
     private final VBox darkBackground;              // The background surrounding the popup. Needed to call the destruction event.
 
     private final VBox popupBox;
@@ -49,24 +63,155 @@ public class AnimePopupView {
     private String activeRatingButton = "none";
     private final List<Button> ratingButtons = new ArrayList<>();
 
-    public AnimePopupView(AnimeBox parentBox, PopupMakerView parentView, DatabaseRequestListener databaseRequestListener,
-                          VBox darkBackground, String languagePreference) {
-        this.popupBox = new VBox();
+    // Components that get rebound to a different anime on every show
+    private Label titleLabel;
+    private VBox imageBox;
+    private Region coverRegion;
+    private ComboBox<String> statusBox;
+    private TextField progressInput;
+    private Label progressLabel;
+    private Label synopsisLabel;
+    private ScrollPane synopsisScrollPane;
+    private SmoothScroll synopsisSmoothScroll;
+    private final Map<String, Label> metaInfoLabels = new HashMap<>();
+    private boolean rebinding = false;              // Set while components are rebound, so their listeners don't act on it
+
+    private final FadeTransition fadeInBackground;
+    private final FadeTransition fadeInPopup;
+    private final FadeTransition fadeOutBackground;
+    private final FadeTransition fadeOutPopup;
+
+    // Prefetched database entries (anime ID -> lookup) and cover images (URL -> image), least recently used thrown out first
+    private final Map<Integer, CompletableFuture<AnimeInfo>> prefetchedEntries = createLruMap();
+    private final Map<String, Image> prefetchedCovers = createLruMap();
+
+
+    /**
+     * Builds the popup (hidden) and adds it to the host.
+     * @param host The view the popup is shown in, on top of everything else
+     * @param databaseRequestListener Listener to request database entries and save changes through
+     * @param languagePreference Title language setting
+     */
+    public AnimePopupView(StackPane host, DatabaseRequestListener databaseRequestListener, String languagePreference) {
+        this.host = host;
         this.databaseRequestListener = databaseRequestListener;
         this.languagePreference = languagePreference;
 
+        // Fake darkener effect
+        this.darkBackground = new VBox();
+        darkBackground.getStyleClass().add("grid-media-popup-background");
+        VBox.setVgrow(darkBackground, Priority.ALWAYS);
+        HBox.setHgrow(darkBackground, Priority.ALWAYS);
+        darkBackground.setOnMouseClicked(e -> hide());
+
+        this.popupBox = new VBox();
+        createPopup();
+
+        // Initially hidden and transparent for the fade-in effect
+        darkBackground.setOpacity(0);
+        popupBox.setOpacity(0);
+        darkBackground.setVisible(false);
+        popupBox.setVisible(false);
+
+        fadeInBackground = createFade(darkBackground, 0, 0.8);
+        fadeInPopup = createFade(popupBox, 0, 1);
+        fadeOutBackground = createFade(darkBackground, 0.8, 0);
+        fadeOutPopup = createFade(popupBox, 1, 0);
+        fadeOutPopup.setOnFinished(e -> {
+            darkBackground.setVisible(false);
+            popupBox.setVisible(false);
+        });
+
+        host.getChildren().addAll(darkBackground, popupBox);
+    }
+
+
+    private static <K, V> Map<K, V> createLruMap() {
+        return new LinkedHashMap<>(MAX_PREFETCHED, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > MAX_PREFETCHED;
+            }
+        };
+    }
+
+    private static FadeTransition createFade(Node node, double fromValue, double toValue) {
+        FadeTransition fade = new FadeTransition(Duration.seconds(0.2), node);
+        fade.setFromValue(fromValue);
+        fade.setToValue(toValue);
+        return fade;
+    }
+
+
+    /**
+     * Called when a grid item is hovered. Starts loading its database entry and cover image in the background,
+     * so a click on it can show the popup right away.
+     * @param hoveredAnime The anime of the hovered grid item
+     */
+    public void prefetch(AnimeInfo hoveredAnime) {
+        int id = hoveredAnime.getId();
+        prefetchedEntries.put(id, databaseRequestListener.requestAnimeFromDatabase(id));
+
+        getCoverImage(hoveredAnime.getImageUrl());
+    }
+
+
+    /**
+     * Forwarded by the host view when database entries changed. Prefetched entries of changed anime are outdated now.
+     * Has to be called on the JavaFX thread.
+     * @param changes The changes, see DatabaseChangeListener
+     */
+    public void onAnimeEntriesChanged(List<AnimeChange> changes) {
+        for (AnimeChange change : changes) {
+            prefetchedEntries.remove(change.id());
+        }
+    }
+
+
+    /**
+     * Drops the prefetched cover images (full covers, so up to a few MB), for when the host view is suspended.
+     * They're prefetched again on the next hover.
+     */
+    public void releaseImages() {
+        prefetchedCovers.clear();
+    }
+
+
+    /**
+     * Rebinds the popup to the anime of the clicked grid item and fades it in.
+     * @param parentBox The anime box that was clicked
+     */
+    public void show(AnimeBox parentBox) {
         this.parentBox = parentBox;
-        this.parentView = parentView;
-        // this.anime = anime;
-        this.darkBackground = darkBackground;
 
-        AnimeInfo finalAnime = (AnimeInfo) parentBox.getUserData();
-        this.databaseAnime = databaseRequestListener.requestAnimeFromDatabase(finalAnime.getId());
+        AnimeInfo clickedAnime = (AnimeInfo) parentBox.getUserData();
+        CompletableFuture<AnimeInfo> entry = takePrefetchedEntry(clickedAnime.getId());
 
+        // Usually the hover prefetched the entry already. If not, the popup shows up as soon as the lookup is done,
+        // the FX thread doesn't wait for the database.
+        if (entry.isDone() && !entry.isCompletedExceptionally()) {
+            bindAndFadeIn(clickedAnime, entry.join());
+        } else {
+            entry.exceptionally(e -> null).thenAccept(databaseAnime -> Platform.runLater(() -> {
+                // Some other grid item may have been clicked meanwhile
+                if (this.parentBox == parentBox) {
+                    bindAndFadeIn(clickedAnime, databaseAnime);
+                }
+            }));
+        }
+    }
+
+
+    /**
+     * The rest of show, once the database entry of the clicked anime is there.
+     * @param finalAnime The anime data of the clicked grid item
+     * @param databaseAnime The matching database entry, or null if it isn't in the database
+     */
+    private void bindAndFadeIn(AnimeInfo finalAnime, AnimeInfo databaseAnime) {
+        this.databaseAnime = databaseAnime;
 
         // Check if database version info or parentBox anime info is more recent, and use that
         if (this.databaseAnime != null) {
-            // LocalDate animeDate = LocalDate.parse(this.anime.getLastUpdated());
             LocalDate animeDate = LocalDate.parse(finalAnime.getLastUpdated());
             LocalDate databaseDate = LocalDate.parse(this.databaseAnime.getLastUpdated());
 
@@ -75,15 +220,84 @@ public class AnimePopupView {
             }
         }
 
-        this.anime = finalAnime;
+        // The popup edits a copy. The grid item's data only changes once a save went through (by the change event),
+        // and closing without saving leaves nothing behind.
+        this.anime = finalAnime.copy();
+
+        rebinding = true;
+        bindTitle();
+        bindCoverImage();
+        bindStatusBox();
+        bindRatingBox();
+        bindProgressTracker("EP");
+        bindSynopsis();
+        bindMetaInfo();
+        rebinding = false;
+
+        // The view may have put other overlays on top since the last time
+        darkBackground.toFront();
+        popupBox.toFront();
+
+        fadeOutBackground.stop();
+        fadeOutPopup.stop();
+        darkBackground.setVisible(true);
+        popupBox.setVisible(true);
+        fadeInBackground.playFromStart();
+        fadeInPopup.playFromStart();
     }
 
 
     /**
-     * Called once by the parentBox, creates the whole View component
-     * @return The finished view
+     * Fades the popup out and hides it again, ready for the next show.
      */
-    public VBox createPopup() {
+    private void hide() {
+        fadeInBackground.stop();
+        fadeInPopup.stop();
+        fadeOutBackground.playFromStart();
+        fadeOutPopup.playFromStart();
+    }
+
+
+    /**
+     * Uses the prefetched database lookup if there is one (even if it's still running), otherwise starts a new one.
+     * Entries are only used once, so the next hover fetches a fresh one.
+     */
+    private CompletableFuture<AnimeInfo> takePrefetchedEntry(int id) {
+        CompletableFuture<AnimeInfo> prefetched = prefetchedEntries.remove(id);
+        if (prefetched != null && prefetched.isDone() && !prefetched.isCompletedExceptionally()) {
+            Metrics.cache("cache.popupEntry").hit();
+            return prefetched;
+        }
+        Metrics.cache("cache.popupEntry").miss();
+        return prefetched != null ? prefetched : databaseRequestListener.requestAnimeFromDatabase(id);
+    }
+
+
+    /**
+     * Covers are loaded in the background and kept around for a bit, so hovering and then clicking doesn't load twice.
+     * @return The (possibly still loading) cover, or null if the anime has none
+     */
+    private Image getCoverImage(String url) {
+        if (url == null || url.equals("Not yet provided")) {
+            return null;
+        }
+        Image cover = prefetchedCovers.get(url);
+        if (cover != null) {
+            Metrics.cache("cache.popupCover").hit();
+            return cover;
+        }
+
+        Metrics.cache("cache.popupCover").miss();
+        cover = new Image(url, true);
+        prefetchedCovers.put(url, cover);
+        return cover;
+    }
+
+
+    /**
+     * Creates the whole View component once. Everything anime-specific is filled in by show().
+     */
+    private void createPopup() {
         final double screenWidth = Screen.getPrimary().getVisualBounds().getWidth();
         final double screenHeight = Screen.getPrimary().getVisualBounds().getHeight();
 
@@ -104,8 +318,6 @@ public class AnimePopupView {
         HBox contentWrapper = createPopupContent();
 
         popupBox.getChildren().addAll(title, contentWrapper);
-
-        return popupBox;
     }
 
 
@@ -116,26 +328,9 @@ public class AnimePopupView {
      */
     private Label createPopupTitle() {
 
-        Label titleLabel = new Label();
-
-        // Label with anime name to be shown on animeBox hover
-        // Change title depending on language preference
-        String title = anime.getTitle();
-        if (languagePreference.equals("Japanese") && !anime.getTitleJapanese().equals("Not yet provided")) {
-            title = anime.getTitleJapanese();
-            titleLabel.setFont(Font.font("Noto Sans JP Regular", 30.0));
-        } else if (languagePreference.equals("English") && !anime.getTitleEnglish().equals("Not yet provided")) {
-            title = anime.getTitleEnglish();
-            titleLabel.setFont(Font.font("Montserrat Medium", 30.0));
-        } else {
-            titleLabel.setFont(Font.font("Montserrat Medium", 30.0));
-        }
-
-
-        titleLabel.setText(title);
-
+        titleLabel = new Label();
+        titleLabel.setFont(Font.font("Montserrat Medium", 30.0));
 
-        // Label titleLabel = new Label(anime.getTitle());
         titleLabel.setMaxWidth(Double.MAX_VALUE);
         titleLabel.setMinHeight(popupBox.getMaxHeight() * 0.1);
         titleLabel.setMaxHeight(popupBox.getMaxHeight() * 0.1);
@@ -154,7 +349,7 @@ public class AnimePopupView {
         titleLabel.heightProperty().addListener((obs, oldBounds, newBounds) -> {
             if (titleLabel.getHeight() > 1.0) {
                 // adjustFontSizeToContainer(titleLabel, popupBox.getMaxWidth() - 15, 10);
-                adjustFontSizeToContainer(titleLabel, 10, -1);
+                TextFitUtils.adjustFontSizeToContainer(titleLabel, 10, 30.0);
             }
         });
 
@@ -162,50 +357,25 @@ public class AnimePopupView {
     }
 
 
-    /**
-     * Adjusts font size on the text of some Labeled (labels, buttons..) downwards until it fits into the rectangular
-     * label container without overflow, both vertical and horizontal, padding included in the calculation.
-     * @param labeled The Labeled whose font is to be adjusted
-     * @param minFontSize A minimum font size at which point the routine is forced to stop
-     * @param startingFontSize An optional font size to start from instead of the font size the label currently has.
-     *                         Ignored if not a positive number.
-     * @return The final font size the Lebeled is set to
-     */
-    private double adjustFontSizeToContainer(Labeled labeled, double minFontSize, double startingFontSize) {
-        Font font = labeled.getFont();
-        double fontSize = font.getSize();
-        String fontFamily = font.getFamily();
-
-
-        if (startingFontSize > 0) {
-            fontSize = startingFontSize;
-        }
-
-
-        Insets insets = labeled.getInsets();
-        double containerWidth = labeled.getWidth() - insets.getLeft() - insets.getRight();
-        double containerHeight = labeled.getHeight() - insets.getTop() - insets.getBottom();
-
-        // Temporary font needs to be used because JavaFX buggy when overwriting active font.
-        Text text = new Text(labeled.getText());
-        text.setFont(Font.font(fontFamily, fontSize));
-
-
-        // Make smaller until no vertical overflow
-        while (text.getBoundsInLocal().getHeight() > containerHeight  && fontSize > minFontSize) {
-            fontSize--;
-            text.setFont(Font.font(fontFamily, fontSize));
+    private void bindTitle() {
+        // Change title depending on language preference
+        String title = anime.getTitle();
+        if (languagePreference.equals("Japanese") && !anime.getTitleJapanese().equals("Not yet provided")) {
+            title = anime.getTitleJapanese();
+            titleLabel.setFont(Font.font("Noto Sans JP Regular", 30.0));
+        } else if (languagePreference.equals("English") && !anime.getTitleEnglish().equals("Not yet provided")) {
+            title = anime.getTitleEnglish();
+            titleLabel.setFont(Font.font("Montserrat Medium", 30.0));
+        } else {
+            titleLabel.setFont(Font.font("Montserrat Medium", 30.0));
         }
 
+        titleLabel.setText(title);
 
-        // Make smaller until no horizontal overflow
-        while (text.getBoundsInLocal().getWidth() > containerWidth  && fontSize > minFontSize) {
-            fontSize--;
-            text.setFont(Font.font(fontFamily, fontSize));
+        // The height listener only fires once, after the first layout. From then on, the label keeps its size.
+        if (titleLabel.getHeight() > 1.0) {
+            TextFitUtils.adjustFontSizeToContainer(titleLabel, 10, 30.0);
         }
-
-        labeled.setFont(Font.font(fontFamily, fontSize));
-        return fontSize;
     }
 
 
@@ -243,7 +413,7 @@ public class AnimePopupView {
         VBox image = createCoverImage(imageAndSelfStatsWrapper);
         ComboBox<String> status = createStatusBox();
         HBox rating = createRatingBox();
-        HBox progress = createProgressTracker("EP");
+        HBox progress = createProgressTracker();
 
         imageAndSelfStatsWrapper.getChildren().addAll(image, status, rating, progress);
 
@@ -257,11 +427,18 @@ public class AnimePopupView {
      * @return
      */
     private VBox createCoverImage(VBox wrapper) {
-        VBox imageBox = new VBox();
-        imageBox.setStyle("-fx-background-image: url('" + anime.getImageUrl() + "');");
+        imageBox = new VBox();
         // imageBox.setStyle("-fx-background-image: url('" + anime.getSmallImageUrl() + "');");
         imageBox.getStyleClass().add("popup-media-box");
 
+        // The cover is drawn by a child without style classes, so the stylesheet doesn't override its background.
+        // That way it can be set from the prefetched Image directly, instead of CSS loading the URL (synchronously!) again.
+        coverRegion = new Region();
+        coverRegion.setMaxWidth(Double.MAX_VALUE);
+        coverRegion.setMaxHeight(Double.MAX_VALUE);
+        VBox.setVgrow(coverRegion, Priority.ALWAYS);
+        imageBox.getChildren().add(coverRegion);
+
         wrapper.widthProperty().addListener((obs, oldWidth, newWidth) -> {
             double imageBoxWidth = newWidth.doubleValue() - wrapper.getPadding().getLeft() * 2;
             double imageBoxHeight = imageBoxWidth * RATIO;
@@ -283,6 +460,23 @@ public class AnimePopupView {
     }
 
 
+    private void bindCoverImage() {
+        // Image preview shows until the cover is loaded
+        imageBox.setStyle(StyleUtils.computeBackgroundStyle(anime, null));
+
+        Image cover = getCoverImage(anime.getImageUrl());
+        if (cover == null) {
+            coverRegion.setBackground(null);
+            return;
+        }
+
+        // Same as "-fx-background-size: cover" with centered position
+        BackgroundSize coverSize = new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, false, true);
+        coverRegion.setBackground(new Background(new BackgroundImage(cover, BackgroundRepeat.NO_REPEAT,
+                BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, coverSize)));
+    }
+
+
     /**
      * Dropdown component for the personal status types of the anime.
      * Note that some personal status types are only put here if the corresponding anime could actually have them
@@ -290,36 +484,45 @@ public class AnimePopupView {
      * @return The finished component
      */
     private ComboBox<String> createStatusBox() {
-        ComboBox<String> status = new ComboBox<>();
-        status.setMaxWidth(Double.MAX_VALUE);
-        VBox.setVgrow(status, Priority.ALWAYS);
-        status.getStyleClass().add("status-combo-box");
+        statusBox = new ComboBox<>();
+        statusBox.setMaxWidth(Double.MAX_VALUE);
+        VBox.setVgrow(statusBox, Priority.ALWAYS);
+        statusBox.getStyleClass().add("status-combo-box");
+
+        statusBox.setOnAction(e -> {
+            if (!rebinding) {
+                anime.setOwnStatus(statusBox.getValue());
+            }
+        });
+
+        return statusBox;
+    }
+
+
+    private void bindStatusBox() {
+        List<String> items = new ArrayList<>();
 
         // Always possible
-        status.getItems().addAll("Untracked", "Backlog");
+        Collections.addAll(items, "Untracked", "Backlog");
 
         // Can be completed as long as it finished releasing. Include "Not yet provided" for entries with missing data
         if (anime.getPublicationStatus().equals("Complete") || anime.getPublicationStatus().equals("Not yet provided"))
-            status.getItems().add("Completed");
+            items.add("Completed");
 
         // Can be watched as long as it started releasing. Include "Not yet provided" for entries with missing data
         if (!anime.getPublicationStatus().equals("Upcoming"))
-            status.getItems().addAll("In progress", "Paused", "Dropped");
+            Collections.addAll(items, "In progress", "Paused", "Dropped");
+
+        statusBox.getItems().setAll(items);
 
 
         if (databaseAnime != null) {
-            status.setValue(databaseAnime.getOwnStatus());
+            statusBox.setValue(databaseAnime.getOwnStatus());
             anime.setOwnStatus(databaseAnime.getOwnStatus());
         } else {
-            status.setValue("Untracked");
+            statusBox.setValue("Untracked");
             anime.setOwnStatus("Untracked");
         }
-
-
-        status.setOnAction(e -> anime.setOwnStatus(status.getValue()));
-
-
-        return status;
     }
 
 
@@ -360,7 +563,16 @@ public class AnimePopupView {
         thumbsUpButton.setOnAction(event -> handleRatingButtonClick(thumbsUpButton));
         thumbsDownButton.setOnAction(event -> handleRatingButtonClick(thumbsDownButton));
 
+        return rating;
+    }
+
 
+    private void bindRatingBox() {
+        // Reset to the unclicked state left from the last anime
+        for (Button button : ratingButtons) {
+            button.getStyleClass().removeAll("ikonli-heart-active", "ikonli-thumb-up-active", "ikonli-thumb-down-active");
+        }
+        activeRatingButton = "none";
 
         anime.setOwnRating("Unscored");
 
@@ -368,15 +580,13 @@ public class AnimePopupView {
         if (databaseAnime != null) {
             String ownRating = databaseAnime.getOwnRating();
             if (ownRating.equals("Heart")) {
-                heartButton.fire();
+                ratingButtons.get(0).fire();
             } else if (ownRating.equals("Liked")) {
-                thumbsUpButton.fire();
+                ratingButtons.get(1).fire();
             } else if (ownRating.equals("Disliked")) {
-                thumbsDownButton.fire();
+                ratingButtons.get(2).fire();
             }
         }
-
-        return rating;
     }
 
 
@@ -423,10 +633,9 @@ public class AnimePopupView {
 
     /**
      * A number input field to track episode progress for the parent anime.
-     * @param unit The unit in which the media type is counted, which is only "episodes" for anime.
      * @return The finished component
      */
-    private HBox createProgressTracker(String unit) {
+    private HBox createProgressTracker() {
         // Wrapper
         HBox progressTracker = new HBox();
         progressTracker.setMinHeight(30);
@@ -438,18 +647,14 @@ public class AnimePopupView {
         TextField numberInput = new TextField(String.valueOf(0));
         HBox.setHgrow(numberInput, Priority.ALWAYS);
         numberInput.getStyleClass().add("progress-text-field");
-
-
-        // If anime exists in database, take progress value from there
-        if (databaseAnime != null) {
-            anime.setEpisodesProgress(databaseAnime.getEpisodesProgress());
-            numberInput.setText(String.valueOf(databaseAnime.getEpisodesProgress()));
-        } else {
-            anime.setEpisodesProgress(0);
-        }
+        progressInput = numberInput;
 
 
         numberInput.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (rebinding) {
+                return;
+            }
+
             if (!newValue.matches("\\d*")) {
                 numberInput.setText(newValue.replaceAll("\\D", ""));
             }
@@ -468,7 +673,7 @@ public class AnimePopupView {
         });
 
 
-        Label progressLabel = new Label("  /  " + anime.getEpisodesTotal() + " " + unit);
+        progressLabel = new Label();
         progressLabel.getStyleClass().add("progress-label");
         progressLabel.setMinWidth(Region.USE_PREF_SIZE);
 
@@ -477,6 +682,23 @@ public class AnimePopupView {
     }
 
 
+    /**
+     * @param unit The unit in which the media type is counted, which is only "episodes" for anime.
+     */
+    private void bindProgressTracker(String unit) {
+        // If anime exists in database, take progress value from there
+        if (databaseAnime != null) {
+            anime.setEpisodesProgress(databaseAnime.getEpisodesProgress());
+            progressInput.setText(String.valueOf(databaseAnime.getEpisodesProgress()));
+        } else {
+            anime.setEpisodesProgress(0);
+            progressInput.setText(String.valueOf(0));
+        }
+
+        progressLabel.setText("  /  " + anime.getEpisodesTotal() + " " + unit);
+    }
+
+
     /**
      * Wrapper creator function for right half of the popup's content:
      * <ul>
@@ -503,21 +725,30 @@ public class AnimePopupView {
 
     private ScrollPane createSynopsis() {
 
-        Label synopsisLabel = new Label(anime.getSynopsis());
+        synopsisLabel = new Label();
         synopsisLabel.setWrapText(true);
         synopsisLabel.getStyleClass().add("popup-synopsis");
         VBox content = new VBox(synopsisLabel);
 
 
-        ScrollPane scrollPane = new ScrollPane(content);
-        scrollPane.getStyleClass().add("popup-scroll-pane");
-        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+        synopsisScrollPane = new ScrollPane(content);
+        synopsisScrollPane.getStyleClass().add("popup-scroll-pane");
+        VBox.setVgrow(synopsisScrollPane, Priority.ALWAYS);
 
         // Smooth scroll listener
         // in /external/
-        new SmoothScroll(scrollPane, content, 150);
+        synopsisSmoothScroll = new SmoothScroll(synopsisScrollPane, content, 150);
 
-        return scrollPane;
+        return synopsisScrollPane;
+    }
+
+
+    private void bindSynopsis() {
+        synopsisLabel.setText(anime.getSynopsis());
+
+        // Start at the top again, not wherever the last synopsis was scrolled to
+        synopsisScrollPane.setVvalue(0);
+        synopsisSmoothScroll.resetAccumulatedVValue();
     }
 
 
@@ -558,12 +789,13 @@ public class AnimePopupView {
 
 
 
-        BiFunction<String, String, VBox> createPropertyBox = (labelText, contentText) -> {
+        Function<String, VBox> createPropertyBox = (labelText) -> {
 
             Label label = new Label(labelText);
             label.getStyleClass().add("popup-meta-grid-header");
 
-            Label content = new Label(contentText);
+            Label content = new Label();
+            metaInfoLabels.put(labelText, content);
             content.getStyleClass().add("popup-meta-grid-text-but-without-font-size");
             content.setFont(Font.font("Montserrat Medium", 14.0));
 
@@ -594,13 +826,13 @@ public class AnimePopupView {
         };
 
 
-        metaInfo.add(createPropertyBox.apply("Release", anime.getRelease()), 0, 0);
-        metaInfo.add(createPropertyBox.apply("Type", anime.getType()), 1, 0);
-        metaInfo.add(createPropertyBox.apply("Source", anime.getSource()), 2, 0);
+        metaInfo.add(createPropertyBox.apply("Release"), 0, 0);
+        metaInfo.add(createPropertyBox.apply("Type"), 1, 0);
+        metaInfo.add(createPropertyBox.apply("Source"), 2, 0);
 
-        metaInfo.add(createPropertyBox.apply("Status", anime.getPublicationStatus()), 0, 1);
-        metaInfo.add(createPropertyBox.apply("Age Rating", anime.getAgeRating()), 1, 1);
-        metaInfo.add(createPropertyBox.apply("Studios", anime.getStudios()), 2, 1);
+        metaInfo.add(createPropertyBox.apply("Status"), 0, 1);
+        metaInfo.add(createPropertyBox.apply("Age Rating"), 1, 1);
+        metaInfo.add(createPropertyBox.apply("Studios"), 2, 1);
 
 
 
@@ -608,9 +840,19 @@ public class AnimePopupView {
     }
 
 
+    private void bindMetaInfo() {
+        metaInfoLabels.get("Release").setText(anime.getRelease());
+        metaInfoLabels.get("Type").setText(anime.getType());
+        metaInfoLabels.get("Source").setText(anime.getSource());
+
+        metaInfoLabels.get("Status").setText(anime.getPublicationStatus());
+        metaInfoLabels.get("Age Rating").setText(anime.getAgeRating());
+        metaInfoLabels.get("Studios").setText(anime.getStudios());
+    }
+
+
     /**
-     * Save button component. When pressed, invokes an update in the database and the parent of this PopupView,
-     * then closes this PopupView.
+     * Save button component. When pressed, invokes an update in the database, then closes this PopupView.
      * @param wrapper Wrapper this component is a child of (passed so height-binding is possible)
      * @return The finished component
      */
@@ -632,11 +874,17 @@ public class AnimePopupView {
         // Call the same popup destruction as clicking the darkener around the popup does
         saveButton.setOnAction(e -> {
 
-            // Pass the anime data to the database model, where it will be processed accordingly
+            // New entries get their image preview from the cover shown here
+            if (this.anime.getImagePreview() == null) {
+                this.anime.setImagePreview(ImagePreviewUtils.computeImagePreview(prefetchedCovers.get(this.anime.getImageUrl())));
+            }
+
+            // Pass the anime data to the database model, where it will be processed accordingly.
+            // Runs async, the views update their grids from the change event once it's written.
             databaseRequestListener.onAnimeSaveButtonPressed(this.anime);
 
-            // Update parent grid
-            parentView.onPopupClosed(this.parentBox);
+            // A prefetched entry from before this save would be outdated now (the change event comes a bit later)
+            prefetchedEntries.remove(this.anime.getId());
 
             // Destroy darkener background and popup after invoking changes saved
             darkBackground.fireEvent(new MouseEvent(MouseEvent.MOUSE_CLICKED, 0, 0, 0, 0, MouseButton.PRIMARY, 1,
@@ -0,0 +1,32 @@
+package com.github.badbadbadbadbad.tsundoku.views;
+
+
+/**
+ * Contract for main content views, which ViewsController keeps around after switching away from them
+ * (as long as they fit its memory budget), so switching back doesn't have to rebuild them.
+ */
+public interface CachedView {
+
+    /**
+     * Called when the view is switched away from. Releases what is cheap to get back (cover images) and stops
+     * anything running per frame or on a timer, but keeps the view's data and state.
+     */
+    void suspend();
+
+    /**
+     * Called whenever the view is shown, the first time included, once it's back in the scene.
+     * Undoes suspend, with the view's state (scroll position, filters, page..) as it was left.
+     */
+    void resume();
+
+    /**
+     * @return Rough amount of memory the view holds on to while suspended, for the cache's memory budget.
+     */
+    long getEstimatedMemoryBytes();
+
+    /**
+     * Called when the view is thrown out of the cache, or the program closes.
+     * Shuts down threads and unregisters listeners, so nothing keeps the view alive.
+     */
+    void dispose();
+}
@@ -0,0 +1,195 @@
+package com.github.badbadbadbadbad.tsundoku.views;
+
+import com.github.badbadbadbadbad.tsundoku.external.SmoothScroll;
+import com.github.badbadbadbadbad.tsundoku.util.Metrics;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The full view component displayed in the main content pane for media mode "Diagnostics".
+ * Shows everything recorded in Metrics (API latencies, database query times, cache hit rates, FX pulse times..),
+ * refreshed every second while the view is shown.
+ */
+public class DiagnosticsView extends VBox implements CachedView {
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(1);
+    private static final long ESTIMATED_MEMORY_BYTES = 128 * 1024;     // A couple hundred labels
+
+    private final VBox wrapper = new VBox();
+    private final Map<String, Label> valueLabels = new HashMap<>();
+    private final Timeline refreshTimeline;
+    private SmoothScroll smoothScroll;
+
+
+    public DiagnosticsView() {
+        this.refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+
+        initComponent();
+    }
+
+
+    // Only refreshed while actually shown
+    @Override
+    public void suspend() {
+        refreshTimeline.stop();
+    }
+
+    @Override
+    public void resume() {
+        refresh();
+        refreshTimeline.play();
+    }
+
+    @Override
+    public long getEstimatedMemoryBytes() {
+        return ESTIMATED_MEMORY_BYTES;
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimeline.stop();
+    }
+
+    private void initComponent() {
+        VBox.setVgrow(this, Priority.ALWAYS);
+        HBox.setHgrow(this, Priority.ALWAYS);
+
+        wrapper.setMaxWidth(Double.MAX_VALUE);
+        wrapper.setStyle("-fx-padding: 15 10 0 10;");
+
+        ScrollPane scrollPane = new ScrollPane(wrapper);
+        scrollPane.getStyleClass().add("grid-scroll-pane");
+        scrollPane.setFitToWidth(true);
+        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+
+        this.smoothScroll = new SmoothScroll(scrollPane, wrapper);
+
+        Region separator = new Region();
+        separator.getStyleClass().add("separator");
+
+        this.getChildren().addAll(scrollPane, separator, createResetButtonElement());
+    }
+
+
+    /**
+     * Reset button component, starting all metrics over so the effect of some action can be looked at in isolation.
+     *
+     * @return The finished component
+     */
+    private HBox createResetButtonElement() {
+        HBox resetButtonWrapper = new HBox();
+        HBox.setHgrow(resetButtonWrapper, Priority.ALWAYS);
+        resetButtonWrapper.setMaxWidth(Double.MAX_VALUE);
+        resetButtonWrapper.setStyle("-fx-padding: 15 15 15 15; -fx-min-height: 65; -fx-max-height: 65;");
+        resetButtonWrapper.setAlignment(Pos.CENTER_LEFT);
+
+        Button resetButton = new Button("Reset");
+        resetButton.getStyleClass().add("controls-button");
+        resetButton.setOnAction(e -> {
+            Metrics.reset();
+            refresh();
+        });
+
+        resetButtonWrapper.getChildren().add(resetButton);
+        return resetButtonWrapper;
+    }
+
+
+    /**
+     * Updates the shown values. The rows are only rebuilt when new metrics showed up since the last refresh
+     * (most are created on first use, so e.g. the database ones only exist once the database was used).
+     */
+    private void refresh() {
+        List<Metrics.Metric> metrics = Metrics.getAll();
+
+        if (metrics.size() != valueLabels.size()) {
+            rebuildRows(metrics);
+        }
+
+        for (Metrics.Metric metric : metrics) {
+            valueLabels.get(metric.getName()).setText(metric.getSummary());
+        }
+    }
+
+
+    private void rebuildRows(List<Metrics.Metric> metrics) {
+        wrapper.getChildren().clear();
+        valueLabels.clear();
+
+        if (metrics.isEmpty()) {
+            Label emptyLabel = new Label("Nothing recorded yet.");
+            emptyLabel.getStyleClass().add("settings-description-text");
+            wrapper.getChildren().add(emptyLabel);
+            return;
+        }
+
+        // Metrics come sorted by name, so each group is one consecutive run
+        String currentGroup = null;
+        for (Metrics.Metric metric : metrics) {
+            if (!metric.getGroup().equals(currentGroup)) {
+                currentGroup = metric.getGroup();
+                wrapper.getChildren().add(createGroupHeader(currentGroup, wrapper.getChildren().isEmpty()));
+            }
+            wrapper.getChildren().add(createRow(metric));
+        }
+    }
+
+
+    private VBox createGroupHeader(String group, boolean first) {
+        VBox headerBox = new VBox(5);
+        headerBox.setStyle("-fx-padding: 10 0 5 0;");
+
+        // Same separators as the settings: each group gets one towards the group above
+        if (!first) {
+            Region separator = new Region();
+            separator.getStyleClass().add("separator-thin");
+            headerBox.getChildren().add(separator);
+        }
+
+        Label headerLabel = new Label(group);
+        headerLabel.getStyleClass().add("settings-header-text");
+        headerLabel.setMaxWidth(Double.MAX_VALUE);
+        headerBox.getChildren().add(headerLabel);
+
+        return headerBox;
+    }
+
+
+    private HBox createRow(Metrics.Metric metric) {
+        HBox row = new HBox(20);
+        row.setMaxWidth(Double.MAX_VALUE);
+        row.setAlignment(Pos.CENTER_LEFT);
+
+        Label nameLabel = new Label(metric.getName().substring(metric.getGroup().length()).replaceFirst("^\\.", ""));
+        nameLabel.getStyleClass().add("settings-description-text");
+        nameLabel.setMinWidth(Region.USE_PREF_SIZE);
+
+        // Spacer to push the values to the right
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Label valueLabel = new Label();
+        valueLabel.getStyleClass().add("settings-description-text");
+        valueLabel.setMinWidth(Region.USE_PREF_SIZE);
+        valueLabels.put(metric.getName(), valueLabel);
+
+        row.getChildren().addAll(nameLabel, spacer, valueLabel);
+        return row;
+    }
+}
@@ -2,10 +2,13 @@ package com.github.badbadbadbadbad.tsundoku.views;
 
 import com.github.badbadbadbadbad.tsundoku.controllers.SettingsListener;
 import com.github.badbadbadbadbad.tsundoku.external.SmoothScroll;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeAgeRating;
+import com.github.badbadbadbadbad.tsundoku.models.AnimeType;
+import com.github.badbadbadbadbad.tsundoku.models.AppSettings;
+import com.github.badbadbadbadbad.tsundoku.util.StartupTimer;
 import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
+import javafx.application.Platform;
 import javafx.geometry.Bounds;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -17,28 +20,43 @@ import javafx.stage.Popup;
 import javafx.util.Duration;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
 /**
  * The full view component displayed in the main content pane for media mode "Settings".
  */
-public class SettingsView extends VBox {
+public class SettingsView extends VBox implements CachedView {
+
+    private static final long ESTIMATED_MEMORY_BYTES = 256 * 1024;     // A few hundred nodes, nothing else
 
     private final SettingsListener settingsListener;
-    private final Map<String, Object> settings;
+    private final AppSettings settings;
+
+    // Edited copies of the settings this view can change, only sent off on save
+    private String languagePreference;
+    private final Set<AnimeType> animeTypeFilters;
+    private final Set<AnimeAgeRating> animeRatingFilters;
+
     private boolean firstSettingsItemCreated;
     private ScrollPane scrollPane;
     private SmoothScroll smoothScroll;
     private Button saveButton;
+    private double suspendedVValue = 0;
 
 
-    public SettingsView(SettingsListener settingsListener, Map<String, Object> currentSettings) {
+    public SettingsView(SettingsListener settingsListener, AppSettings currentSettings) {
         this.settingsListener = settingsListener;
 
         this.settings = currentSettings;
+        this.languagePreference = currentSettings.weebLanguagePreference();
+        this.animeTypeFilters = EnumSet.noneOf(AnimeType.class);
+        this.animeTypeFilters.addAll(currentSettings.animeTypeFilters());
+        this.animeRatingFilters = EnumSet.noneOf(AnimeAgeRating.class);
+        this.animeRatingFilters.addAll(currentSettings.animeRatingFilters());
 
         this.firstSettingsItemCreated = false;
 
@@ -116,7 +134,9 @@ public class SettingsView extends VBox {
             saveButton.setDisable(true);
 
             // Fire new settings towards configModel so it updates its states and passes the settings on
-            settingsListener.onSettingsChanged(settings);
+            settingsListener.onSettingsChanged(settings
+                    .withLanguagePreference(languagePreference)
+                    .withAnimeFilters(animeTypeFilters, animeRatingFilters));
         });
 
         saveButtonWrapper.getChildren().add(saveButton);
@@ -142,13 +162,13 @@ public class SettingsView extends VBox {
                 "The language used for titles of anime and manga. Falls back to \"Default\" if data source has not provided alternative versions." +
                         "\n\"Default\" will generally mean the Japanese title in Roumaji, though this may vary.",
                 List.of("Default", "Japanese", "English"),
-                (String) this.settings.get("weebLanguagePreference")
+                this.languagePreference
         );
 
         // TODO WTF IS THIS
         ComboBox<String> comboBox = (ComboBox<String>) ((HBox) languagePreferenceSetting.getChildren().get(1)).getChildren().get(2);
         comboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
-            this.settings.put("weebLanguagePreference", newValue);
+            this.languagePreference = newValue;
             this.saveButton.setDisable(false);
         });
 
@@ -162,8 +182,8 @@ public class SettingsView extends VBox {
                         tsundoku uses the MyAnimeList anime age rating system as they are the original data source.\
                         
                         This setting activates exclusively on the Browse view.""",
-                "animeRatingFilters",
-                Arrays.asList("G", "PG", "PG13", "R17+", "R+", "Rx", "Not yet provided")
+                animeRatingFilters,
+                Arrays.asList(AnimeAgeRating.values())
         );
 
 
@@ -176,8 +196,8 @@ public class SettingsView extends VBox {
                         tsundoku uses the MyAnimeList anime type system as they are the original data source.\
                         
                         This setting activates exclusively on the Browse view.""",
-                "animeTypeFilters",
-                Arrays.asList("TV", "Movie", "OVA", "ONA", "Special", "TV Special", "PV", "CM", "Music", "Not yet provided")
+                animeTypeFilters,
+                Arrays.asList(AnimeType.values())
         );
 
 
@@ -188,7 +208,11 @@ public class SettingsView extends VBox {
         this.smoothScroll = new SmoothScroll(scrollPane, wrapper);
 
 
-        wrapper.getChildren().addAll(languagePreferenceSetting, animeRatingFilterSetting, animeTypeFilterSetting);
+        // Startup timings (read-only)
+        VBox startupTimesSetting = makeStartupTimesSetting();
+
+
+        wrapper.getChildren().addAll(languagePreferenceSetting, animeRatingFilterSetting, animeTypeFilterSetting, startupTimesSetting);
 
         return scrollPane;
     }
@@ -265,11 +289,11 @@ public class SettingsView extends VBox {
      *
      * @param headerText      Name of the setting
      * @param descriptionText Description text for the setting
-     * @param settingsMapName The choices for this setting and their current true / false values
-     * @param desiredOrder    Order of the choices for this setting (because the raw Map from the config file has jumbled order)
+     * @param selection       The currently chosen items of this setting. Changed in place when the user (un)checks items.
+     * @param desiredOrder    Order of the choices for this setting
      * @return The finished component
      */
-    private VBox makeMultiInputComboboxSetting(String headerText, String descriptionText, String settingsMapName, List<String> desiredOrder) {
+    private <E extends Enum<E>> VBox makeMultiInputComboboxSetting(String headerText, String descriptionText, Set<E> selection, List<E> desiredOrder) {
 
         VBox wrapper = new VBox(5);
         wrapper.setMaxWidth(Double.MAX_VALUE);
@@ -298,8 +322,6 @@ public class SettingsView extends VBox {
         descriptionLabel.getStyleClass().add("settings-description-text");
         HBox.setHgrow(descriptionLabel, Priority.ALWAYS);
 
-        Map<String, Boolean> settingsMap = (Map<String, Boolean>) this.settings.get(settingsMapName);
-
         // The actual setting. "Fake combo box".
         Label selectionLabel = new Label();
         selectionLabel.getStyleClass().add("settings-multi-combo-box");
@@ -307,27 +329,19 @@ public class SettingsView extends VBox {
         // Display the currently selected items from the fake popup (in provided order)
         Runnable updateLabel = () -> {
             String selectedItems = desiredOrder.stream()
-                    .filter(key -> settingsMap.getOrDefault(key, false))
+                    .filter(selection::contains)
+                    .map(Enum::toString)
                     .collect(Collectors.joining(", "));
             selectionLabel.setText(selectedItems.isEmpty() ? "None" : selectedItems);
         };
         updateLabel.run();
 
 
-        // Listener for changes in the settings map
-        settingsMap.forEach((key, value) -> {
-            BooleanProperty prop = new SimpleBooleanProperty(value);
-            prop.addListener((obs, wasSelected, isSelected) -> {
-                settingsMap.put(key, isSelected);
-                updateLabel.run();
-            });
-        });
-
         // The fake "combo box dropdown", a popup. Hides / unhides as expected from a combo box.
         Popup popup = new Popup();
         popup.setAutoHide(true);
         popup.setHideOnEscape(true);
-        popup.getContent().add(createPopupContent(settingsMap, desiredOrder, updateLabel));
+        popup.getContent().add(createPopupContent(selection, desiredOrder, updateLabel));
 
         selectionLabel.setOnMouseClicked(event -> {
             if (popup.isShowing()) {
@@ -356,17 +370,17 @@ public class SettingsView extends VBox {
     /**
      * Creates the fake dropdown created by makeMultiInputComboboxSetting.
      *
-     * @param settingsMap  The choices for this setting and their current true / false values
-     * @param desiredOrder Order of the choices for this setting (because the raw Map from the config file has jumbled order)
+     * @param selection    The currently chosen items of this setting
+     * @param desiredOrder Order of the choices for this setting
      * @param updateLabel  A Runnable that changes the label of the dropdown invoker based on the settings currently set to "true"
      * @return The finished dropdown popup
      */
-    private VBox createPopupContent(Map<String, Boolean> settingsMap, List<String> desiredOrder, Runnable updateLabel) {
+    private <E extends Enum<E>> VBox createPopupContent(Set<E> selection, List<E> desiredOrder, Runnable updateLabel) {
         VBox popupContent = new VBox();
         popupContent.getStyleClass().add("settings-multi-combo-box-popup");
 
-        for (String key : desiredOrder) {
-            Boolean value = settingsMap.getOrDefault(key, false);
+        for (E key : desiredOrder) {
+            boolean value = selection.contains(key);
 
             HBox itemBox = new HBox(10);
             itemBox.setMaxWidth(Double.MAX_VALUE);
@@ -377,14 +391,18 @@ public class SettingsView extends VBox {
             checkBox.setSelected(value);
             checkBox.setMouseTransparent(true);
             checkBox.selectedProperty().addListener((obs, wasSelected, isSelected) -> {
-                settingsMap.put(key, isSelected);
+                if (isSelected) {
+                    selection.add(key);
+                } else {
+                    selection.remove(key);
+                }
                 updateLabel.run();
                 this.saveButton.setDisable(false);
             });
 
             itemBox.setOnMouseClicked(event -> checkBox.setSelected(!checkBox.isSelected()));
 
-            Label nameLabel = new Label(key);
+            Label nameLabel = new Label(key.toString());
             nameLabel.getStyleClass().add("settings-multi-combo-box-popup-cell-text");
             HBox.setHgrow(nameLabel, Priority.ALWAYS);
 
@@ -396,6 +414,61 @@ public class SettingsView extends VBox {
     }
 
 
+    /**
+     * Not an actual setting, but a read-only info box styled like the settings, showing how long the phases of
+     * this program's startup took (as measured by StartupTimer).
+     *
+     * @return The finished component
+     */
+    private VBox makeStartupTimesSetting() {
+        VBox wrapper = new VBox(5);
+        wrapper.setMaxWidth(Double.MAX_VALUE);
+        wrapper.setStyle("-fx-padding: 0 0 10 0;");
+
+        if (firstSettingsItemCreated) {
+            Region separator = new Region();
+            separator.getStyleClass().add("separator-thin");
+            wrapper.getChildren().add(separator);
+        }
+
+        // Settings item header
+        Label headerLabel = new Label("Startup Time");
+        headerLabel.getStyleClass().add("settings-header-text");
+        headerLabel.setMaxWidth(Double.MAX_VALUE);
+        VBox.setVgrow(headerLabel, Priority.NEVER);
+
+        // Settings item content wrapper
+        HBox subWrapper = new HBox(20);
+        subWrapper.setMaxWidth(Double.MAX_VALUE);
+        subWrapper.setAlignment(Pos.TOP_RIGHT);
+
+        // Settings item content, left: Description
+        Label descriptionLabel = new Label(
+                "How long the phases of the last program start took, each measured from the end of the previous one." +
+                        "\nStart the program with -Dtsundoku.debug=true to also print these to the console.");
+        descriptionLabel.getStyleClass().add("settings-description-text");
+        HBox.setHgrow(descriptionLabel, Priority.ALWAYS);
+
+        // Settings item content, right: The timings
+        String timings = StartupTimer.getPhases().entrySet().stream()
+                .map(phase -> phase.getKey() + ": " + phase.getValue() + " ms")
+                .collect(Collectors.joining("\n"));
+        Label timingsLabel = new Label(timings + "\nTotal: " + StartupTimer.getTotal() + " ms");
+        timingsLabel.getStyleClass().add("settings-description-text");
+        timingsLabel.setMinWidth(Region.USE_PREF_SIZE);
+
+        // Spacer to push the timings to the right
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        subWrapper.getChildren().addAll(descriptionLabel, spacer, timingsLabel);
+        wrapper.getChildren().addAll(headerLabel, subWrapper);
+
+        this.firstSettingsItemCreated = true;
+        return wrapper;
+    }
+
+
     /**
      * Creates the third type of setting component that we need, a password-like text input.
      * Not used yet.
@@ -416,4 +489,31 @@ public class SettingsView extends VBox {
         this.firstSettingsItemCreated = true;
         return wrapper;
     }
+
+
+    /**
+     * Nothing to release here. Unsaved edits are kept, like the rest of the state.
+     */
+    @Override
+    public void suspend() {
+        suspendedVValue = scrollPane.getVvalue();
+    }
+
+    @Override
+    public void resume() {
+        // Re-adding the view to the scene lays it out from scratch, which can clamp the scroll position, so it's set after
+        Platform.runLater(() -> {
+            scrollPane.setVvalue(suspendedVValue);
+            smoothScroll.adjustAccumulatedVValue();
+        });
+    }
+
+    @Override
+    public long getEstimatedMemoryBytes() {
+        return ESTIMATED_MEMORY_BYTES;
+    }
+
+    @Override
+    public void dispose() {
+    }
 }
@@ -1,16 +1,15 @@
 package com.github.badbadbadbadbad.tsundoku.views;
 
 import com.github.badbadbadbadbad.tsundoku.controllers.SidebarListener;
+import com.github.badbadbadbadbad.tsundoku.util.TextFitUtils;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.Labeled;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
-import javafx.scene.text.Text;
 import javafx.stage.Screen;
 
 import java.util.ArrayList;
@@ -61,7 +60,7 @@ public class SidebarView extends VBox {
 
         programLabel.heightProperty().addListener((obs, oldBounds, newBounds) -> {
             if (programLabel.getHeight() > 1.0) {
-                adjustFontSizeToContainer(programLabel, 10, -1);
+                TextFitUtils.adjustFontSizeToContainer(programLabel, 10, -1);
             }
         });
 
@@ -83,7 +82,7 @@ public class SidebarView extends VBox {
 
         browseButton.heightProperty().addListener((obs, oldBounds, newBounds) -> {
             if (browseButton.getHeight() > 1.0) {
-                double tempFontSize = adjustFontSizeToContainer(browseButton, 8, -1);
+                double tempFontSize = TextFitUtils.adjustFontSizeToContainer(browseButton, 8, -1);
                 logButton.setFont(Font.font("Montserrat Medium", tempFontSize));
             }
         });
@@ -99,20 +98,23 @@ public class SidebarView extends VBox {
 
         // Meta stuff buttons
         Button profileButton = createMediaModeButton("Profile");
+        Button diagnosticsButton = createMediaModeButton("Diagnostics");
         Button settingsButton = createMediaModeButton("Settings");
 
-        settingsButton.heightProperty().addListener((obs, oldBounds, newBounds) -> {
-            if (settingsButton.getHeight() > 1.0) {
-                double tempFontSize = adjustFontSizeToContainer(settingsButton, 8, -1);
+        // Fitted on the longest label, so all media buttons share one font size
+        diagnosticsButton.heightProperty().addListener((obs, oldBounds, newBounds) -> {
+            if (diagnosticsButton.getHeight() > 1.0) {
+                double tempFontSize = TextFitUtils.adjustFontSizeToContainer(diagnosticsButton, 8, -1);
                 gamesButton.setFont(Font.font("Montserrat Medium", tempFontSize));
                 mangaButton.setFont(Font.font("Montserrat Medium", tempFontSize));
                 animeButton.setFont(Font.font("Montserrat Medium", tempFontSize));
                 profileButton.setFont(Font.font("Montserrat Medium", tempFontSize));
+                settingsButton.setFont(Font.font("Montserrat Medium", tempFontSize));
             }
         });
 
-        Collections.addAll(mediaModeButtons, gamesButton, mangaButton, animeButton, profileButton, settingsButton);
-        this.getChildren().addAll(programLabel, separator, browseModeButtonBox, animeButton, stretchRegion, settingsButton);
+        Collections.addAll(mediaModeButtons, gamesButton, mangaButton, animeButton, profileButton, diagnosticsButton, settingsButton);
+        this.getChildren().addAll(programLabel, separator, browseModeButtonBox, animeButton, stretchRegion, diagnosticsButton, settingsButton);
     }
 
     private Button createBrowseModeButton(String label) {
@@ -174,51 +176,4 @@ public class SidebarView extends VBox {
         currentMediaMode = selectedButton.getText();
         sidebarListener.onSidebarMediaModeChanged(selectedButton.getText());
     }
-
-    /**
-     * Adjusts font size on the text of some Labeled (labels, buttons..) downwards until it fits into the rectangular
-     * label container without overflow, both vertical and horizontal, padding included in the calculation.
-     *
-     * @param labeled          The Labeled whose font is to be adjusted
-     * @param minFontSize      A minimum font size at which point the routine is forced to stop
-     * @param startingFontSize An optional font size to start from instead of the font size the label currently has.
-     *                         Ignored if not a positive number.
-     * @return The final font size the Lebeled is set to
-     */
-    private double adjustFontSizeToContainer(Labeled labeled, double minFontSize, double startingFontSize) {
-        Font font = labeled.getFont();
-        double fontSize = font.getSize();
-        String fontFamily = font.getFamily();
-
-
-        if (startingFontSize > 0) {
-            fontSize = startingFontSize;
-        }
-
-
-        Insets insets = labeled.getInsets();
-        double containerWidth = labeled.getWidth() - insets.getLeft() - insets.getRight();
-        double containerHeight = labeled.getHeight() - insets.getTop() - insets.getBottom();
-
-        // Temporary font needs to be used because JavaFX buggy when overwriting active font.
-        Text text = new Text(labeled.getText());
-        text.setFont(Font.font(fontFamily, fontSize));
-
-
-        // Make smaller until no vertical overflow
-        while (text.getBoundsInLocal().getHeight() > containerHeight && fontSize > minFontSize) {
-            fontSize--;
-            text.setFont(Font.font(fontFamily, fontSize));
-        }
-
-
-        // Make smaller until no horizontal overflow
-        while (text.getBoundsInLocal().getWidth() > containerWidth && fontSize > minFontSize) {
-            fontSize--;
-            text.setFont(Font.font(fontFamily, fontSize));
-        }
-
-        labeled.setFont(Font.font(fontFamily, fontSize));
-        return fontSize;
-    }
 }
@@ -0,0 +1,120 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimeChangeTest {
+
+    private static AnimeInfo anime(int id, String title) {
+        AnimeInfo anime = new AnimeInfo(id, title, "Not yet provided", "Not yet provided", "https://example.org/l.jpg",
+                "https://example.org/s.jpg", "Airing", 12, "Manga", "PG-13 - Teens 13 or older", "Synopsis",
+                "Spring 2024", "Studio", "TV", "2024-04-01");
+        anime.setOwnStatus("Backlog");
+        return anime;
+    }
+
+
+    @Test
+    void betweenNothingAndNothingIsNoChange() {
+        assertNull(AnimeChange.between(null, null));
+    }
+
+    @Test
+    void betweenNothingAndEntryIsAdded() {
+        AnimeInfo added = anime(1, "A");
+        AnimeChange change = AnimeChange.between(null, added);
+
+        assertEquals(1, change.id());
+        assertSame(added, change.anime());
+        assertEquals(EnumSet.of(AnimeChange.Field.ADDED), change.fields());
+        assertFalse(change.isRemoved());
+    }
+
+    @Test
+    void betweenEntryAndNothingIsRemoved() {
+        AnimeChange change = AnimeChange.between(anime(1, "A"), null);
+
+        assertEquals(1, change.id());
+        assertNull(change.anime());
+        assertTrue(change.isRemoved());
+        assertTrue(change.affectsAny(AnimeChange.Field.REMOVED));
+    }
+
+    @Test
+    void betweenEqualEntriesIsNoChange() {
+        assertNull(AnimeChange.between(anime(1, "A"), anime(1, "A")));
+    }
+
+    @Test
+    void betweenListsEveryChangedField() {
+        AnimeInfo oldAnime = anime(1, "A");
+        AnimeInfo newAnime = anime(1, "A (renamed)");
+        newAnime.setOwnStatus("Completed");
+        newAnime.setOwnRating("Heart");
+        newAnime.setEpisodesProgress(12);
+        newAnime.setImagePreview("#000000,#000000,#000000");
+
+        AnimeChange change = AnimeChange.between(oldAnime, newAnime);
+
+        assertEquals(EnumSet.of(AnimeChange.Field.OWN_STATUS, AnimeChange.Field.OWN_RATING,
+                AnimeChange.Field.EPISODES_PROGRESS, AnimeChange.Field.API_DATA, AnimeChange.Field.IMAGE_PREVIEW),
+                change.fields());
+        assertSame(newAnime, change.anime());
+    }
+
+    @Test
+    void betweenIgnoresLastUpdated() {
+        AnimeInfo oldAnime = anime(1, "A");
+        AnimeInfo newAnime = new AnimeInfo(1, "A", "Not yet provided", "Not yet provided", "https://example.org/l.jpg",
+                "https://example.org/s.jpg", "Airing", 12, "Manga", "PG-13 - Teens 13 or older", "Synopsis",
+                "Spring 2024", "Studio", "TV", "2024-05-01");
+        newAnime.setOwnStatus("Backlog");
+
+        assertNull(AnimeChange.between(oldAnime, newAnime));
+    }
+
+
+    @Test
+    void mergedWithCombinesFieldsAndKeepsLaterState() {
+        AnimeInfo first = anime(1, "A");
+        first.setEpisodesProgress(1);
+        AnimeInfo second = anime(1, "A");
+        second.setEpisodesProgress(1);
+        second.setOwnRating("Liked");
+
+        AnimeChange progress = AnimeChange.between(anime(1, "A"), first);
+        AnimeChange rating = AnimeChange.between(first, second);
+        AnimeChange merged = progress.mergedWith(rating);
+
+        assertEquals(EnumSet.of(AnimeChange.Field.EPISODES_PROGRESS, AnimeChange.Field.OWN_RATING), merged.fields());
+        assertSame(second, merged.anime());
+    }
+
+    @Test
+    void mergedWithRemovalIsRemoval() {
+        AnimeInfo anime = anime(1, "A");
+        AnimeChange added = AnimeChange.between(null, anime);
+        AnimeChange removed = AnimeChange.between(anime, null);
+
+        AnimeChange merged = added.mergedWith(removed);
+
+        assertTrue(merged.isRemoved());
+        assertEquals(EnumSet.of(AnimeChange.Field.REMOVED), merged.fields());
+    }
+
+    @Test
+    void mergedWithReAddIsNotRemoval() {
+        AnimeInfo anime = anime(1, "A");
+        AnimeChange removed = AnimeChange.between(anime, null);
+        AnimeChange added = AnimeChange.between(null, anime(1, "A"));
+
+        AnimeChange merged = removed.mergedWith(added);
+
+        assertFalse(merged.isRemoved());
+        assertFalse(merged.affectsAny(AnimeChange.Field.REMOVED));
+        assertTrue(merged.affectsAny(AnimeChange.Field.ADDED));
+    }
+}
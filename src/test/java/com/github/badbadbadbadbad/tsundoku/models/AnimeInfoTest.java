@@ -0,0 +1,71 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimeInfoTest {
+
+    private static AnimeInfo anime(String title, String titleJapanese, String lastUpdated) {
+        return new AnimeInfo(1, title, titleJapanese, "Not yet provided", "https://example.org/l.jpg",
+                "https://example.org/s.jpg", "Airing", 12, "Manga", "PG-13 - Teens 13 or older", "Synopsis",
+                "Spring 2024", "Studio", "TV", lastUpdated);
+    }
+
+
+    @Test
+    void contentHashIsStableForTheSameApiData() {
+        AnimeInfo anime = anime("A", "B", "2024-04-01");
+        assertEquals(anime.getContentHash(), anime("A", "B", "2024-04-01").getContentHash());
+
+        // Pinned, since the hashes are stored in the database and must stay the same across program versions
+        assertEquals(966179266460161923L, anime.getContentHash());
+    }
+
+    @Test
+    void contentHashIgnoresUserDataPreviewAndLastUpdated() {
+        AnimeInfo anime = anime("A", "B", "2024-04-01");
+        AnimeInfo edited = anime("A", "B", "2024-05-01");
+        edited.setOwnStatus("Completed");
+        edited.setOwnRating("Heart");
+        edited.setEpisodesProgress(12);
+        edited.setImagePreview("#000000,#000000,#000000");
+
+        assertEquals(anime.getContentHash(), edited.getContentHash());
+    }
+
+    @Test
+    void contentHashChangesWithApiData() {
+        assertNotEquals(anime("A", "B", "2024-04-01").getContentHash(), anime("A2", "B", "2024-04-01").getContentHash());
+    }
+
+    @Test
+    void contentHashSeparatesFields() {
+        // Same characters overall, split differently between two fields
+        assertNotEquals(anime("ab", "c", "2024-04-01").getContentHash(), anime("a", "bc", "2024-04-01").getContentHash());
+    }
+
+    @Test
+    void contentHashHandlesMissingFields() {
+        AnimeInfo withNull = anime(null, "B", "2024-04-01");
+        assertNotEquals(withNull.getContentHash(), anime("", "B", "2024-04-01").getContentHash());
+    }
+
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        AnimeInfo anime = anime("A", "B", "2024-04-01");
+        anime.setOwnStatus("Backlog");
+        anime.setImagePreview("#111111,#222222,#333333");
+
+        AnimeInfo copy = anime.copy();
+        assertEquals("Backlog", copy.getOwnStatus());
+        assertEquals("#111111,#222222,#333333", copy.getImagePreview());
+        assertEquals(anime.getContentHash(), copy.getContentHash());
+
+        copy.setOwnStatus("Dropped");
+        copy.setEpisodesProgress(5);
+        assertEquals("Backlog", anime.getOwnStatus());
+        assertEquals(0, anime.getEpisodesProgress());
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.badbadbadbadbad.tsundoku.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimeRefreshPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private static AnimeInfo anime(String publicationStatus, String release) {
+        return new AnimeInfo(1, "A", "Not yet provided", "Not yet provided", "https://example.org/l.jpg",
+                "https://example.org/s.jpg", publicationStatus, 12, "Manga", "PG-13 - Teens 13 or older", "Synopsis",
+                release, "Studio", "TV", "2024-06-01");
+    }
+
+    /**
+     * nextRefreshAt adds up to 10% jitter either way, so only the range can be checked.
+     */
+    private static void assertIntervalAbout(Duration expected, Instant nextRefreshAt) {
+        long seconds = Duration.between(NOW, nextRefreshAt).toSeconds();
+        long expectedSeconds = expected.toSeconds();
+        assertTrue(seconds >= expectedSeconds * 0.9 - 1 && seconds <= expectedSeconds * 1.1 + 1,
+                "Expected about " + expected + ", got " + Duration.ofSeconds(seconds));
+    }
+
+
+    @Test
+    void airingIsRefreshedDaily() {
+        assertIntervalAbout(Duration.ofDays(1), AnimeRefreshPolicy.nextRefreshAt(anime("Airing", "Spring 2024"), 0, NOW));
+    }
+
+    @Test
+    void upcomingGetsRarerTheFurtherOutItStarts() {
+        // Summer 2024 starts in a month, Summer 2025 in over a year
+        assertIntervalAbout(Duration.ofDays(3), AnimeRefreshPolicy.nextRefreshAt(anime("Upcoming", "Summer 2024"), 0, NOW));
+        assertIntervalAbout(Duration.ofDays(14), AnimeRefreshPolicy.nextRefreshAt(anime("Upcoming", "Summer 2025"), 0, NOW));
+        assertIntervalAbout(Duration.ofDays(7), AnimeRefreshPolicy.nextRefreshAt(anime("Upcoming", "Not yet provided"), 0, NOW));
+    }
+
+    @Test
+    void completeGetsRarerWithAge() {
+        assertIntervalAbout(Duration.ofDays(30), AnimeRefreshPolicy.nextRefreshAt(anime("Complete", "Winter 2024"), 0, NOW));
+        assertIntervalAbout(Duration.ofDays(90), AnimeRefreshPolicy.nextRefreshAt(anime("Complete", "Fall 2010"), 0, NOW));
+    }
+
+    @Test
+    void unchangedRefreshesDoubleTheIntervalUpToThreeTimes() {
+        AnimeInfo anime = anime("Complete", "Fall 2010");
+        assertIntervalAbout(Duration.ofDays(180), AnimeRefreshPolicy.nextRefreshAt(anime, 1, NOW));
+        assertIntervalAbout(Duration.ofDays(180), AnimeRefreshPolicy.nextRefreshAt(anime, 10, NOW));    // Capped at 180 days
+
+        AnimeInfo airing = anime("Airing", "Spring 2024");
+        assertIntervalAbout(Duration.ofDays(2), AnimeRefreshPolicy.nextRefreshAt(airing, 1, NOW));
+        assertIntervalAbout(Duration.ofDays(8), AnimeRefreshPolicy.nextRefreshAt(airing, 3, NOW));
+        assertIntervalAbout(Duration.ofDays(8), AnimeRefreshPolicy.nextRefreshAt(airing, 10, NOW));
+    }
+
+    @Test
+    void backoffDoesNotSkipPastAnUpcomingStart() {
+        // Summer 2025 is 395 days out, so backing off is capped at half of that instead of 8 * 14 days
+        Instant next = AnimeRefreshPolicy.nextRefreshAt(anime("Upcoming", "Summer 2025"), 3, NOW);
+        assertIntervalAbout(Duration.ofDays(112), next);
+
+        // Winter 2025 is 214 days out, half of that is less than the backed off 112 days
+        next = AnimeRefreshPolicy.nextRefreshAt(anime("Upcoming", "Winter 2025"), 3, NOW);
+        assertIntervalAbout(Duration.ofDays(107), next);
+    }
+}
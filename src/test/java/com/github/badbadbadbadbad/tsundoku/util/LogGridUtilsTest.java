@@ -0,0 +1,149 @@
+package com.github.badbadbadbadbad.tsundoku.util;
+
+import com.github.badbadbadbadbad.tsundoku.models.AnimeInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogGridUtilsTest {
+
+    private final Comparator<AnimeInfo> comparator = LogGridUtils.createGridComparator("Default");
+
+    private static AnimeInfo anime(int id, String title, String ownStatus, String ownRating) {
+        AnimeInfo anime = new AnimeInfo(id, title, "Japanese " + title, "English " + title, "https://example.org/l.jpg",
+                "https://example.org/s.jpg", "Airing", 12, "Manga", "PG-13 - Teens 13 or older", "Synopsis",
+                "Spring 2024", "Studio", "TV", "2024-04-01");
+        anime.setOwnStatus(ownStatus);
+        anime.setOwnRating(ownRating);
+        return anime;
+    }
+
+
+    @Test
+    void gridIndexFollowsTheGridOrder() {
+        assertEquals(0, LogGridUtils.getGridIndex("In progress"));
+        assertEquals(1, LogGridUtils.getGridIndex("Backlog"));
+        assertEquals(2, LogGridUtils.getGridIndex("Completed"));
+        assertEquals(3, LogGridUtils.getGridIndex("Paused"));
+        assertEquals(4, LogGridUtils.getGridIndex("Dropped"));
+    }
+
+    @Test
+    void untrackedAnimeHaveNoGrid() {
+        assertEquals(-1, LogGridUtils.getGridIndex("Untracked"));
+        assertEquals(-1, LogGridUtils.getGridIndex("Not a status"));
+    }
+
+    @Test
+    void gridsSortByRatingThenTitle() {
+        List<AnimeInfo> grid = new ArrayList<>(List.of(
+                anime(1, "B", "Backlog", "Unscored"),
+                anime(2, "A", "Backlog", "Unscored"),
+                anime(3, "Z", "Backlog", "Heart"),
+                anime(4, "C", "Backlog", "Disliked"),
+                anime(5, "D", "Backlog", "Liked")
+        ));
+        grid.sort(comparator);
+
+        assertEquals(List.of(3, 5, 4, 2, 1), grid.stream().map(AnimeInfo::getId).toList());
+    }
+
+    @Test
+    void gridsSortByPreferredTitle() {
+        AnimeInfo a = anime(1, "A", "Backlog", "Unscored");
+        AnimeInfo b = anime(2, "B", "Backlog", "Unscored");
+        AnimeInfo c = new AnimeInfo(3, "C", "Japanese 0", "English C", "", "", "Airing", 12, "Manga", "", "", "", "", "TV", "2024-04-01");
+        c.setOwnRating("Unscored");
+
+        List<AnimeInfo> grid = new ArrayList<>(List.of(a, b, c));
+        grid.sort(LogGridUtils.createGridComparator("Japanese"));
+        assertEquals(List.of(3, 1, 2), grid.stream().map(AnimeInfo::getId).toList());
+    }
+
+
+    @Test
+    void insertIndexKeepsTheListSorted() {
+        List<AnimeInfo> grid = new ArrayList<>(List.of(
+                anime(1, "A", "Backlog", "Heart"),
+                anime(2, "C", "Backlog", "Unscored"),
+                anime(3, "E", "Backlog", "Unscored")
+        ));
+
+        AnimeInfo d = anime(4, "D", "Backlog", "Unscored");
+        assertEquals(2, LogGridUtils.findInsertIndex(grid, d, comparator));
+
+        AnimeInfo hearted = anime(5, "Z", "Backlog", "Heart");
+        assertEquals(1, LogGridUtils.findInsertIndex(grid, hearted, comparator));
+
+        assertEquals(0, LogGridUtils.findInsertIndex(List.of(), d, comparator));
+        assertEquals(3, LogGridUtils.findInsertIndex(grid, anime(6, "F", "Backlog", "Unscored"), comparator));
+    }
+
+    @Test
+    void insertIndexGoesAfterEqualItems() {
+        List<AnimeInfo> grid = List.of(anime(1, "A", "Backlog", "Unscored"), anime(2, "A", "Backlog", "Unscored"));
+        assertEquals(2, LogGridUtils.findInsertIndex(grid, anime(3, "A", "Backlog", "Unscored"), comparator));
+    }
+
+
+    @Test
+    void sortedPositionNoticesAChangedRating() {
+        AnimeInfo b = anime(2, "B", "Backlog", "Unscored");
+        List<AnimeInfo> grid = List.of(anime(1, "A", "Backlog", "Unscored"), b, anime(3, "C", "Backlog", "Unscored"));
+        assertTrue(LogGridUtils.isInSortedPosition(grid, 1, comparator));
+
+        b.setOwnRating("Heart");
+        assertFalse(LogGridUtils.isInSortedPosition(grid, 1, comparator));
+    }
+
+    @Test
+    void sortedPositionAtTheEnds() {
+        List<AnimeInfo> grid = List.of(anime(1, "A", "Backlog", "Unscored"), anime(2, "B", "Backlog", "Unscored"));
+        assertTrue(LogGridUtils.isInSortedPosition(grid, 0, comparator));
+        assertTrue(LogGridUtils.isInSortedPosition(grid, 1, comparator));
+        assertTrue(LogGridUtils.isInSortedPosition(List.of(grid.get(0)), 0, comparator));
+    }
+
+    @Test
+    void sortedPositionOfAnItemNotInTheList() {
+        // indexOf gives -1 for an item that isn't in the list, which used to end up as get(-2)
+        List<AnimeInfo> grid = List.of(anime(1, "A", "Backlog", "Unscored"), anime(2, "B", "Backlog", "Unscored"));
+        assertFalse(LogGridUtils.isInSortedPosition(grid, -1, comparator));
+        assertFalse(LogGridUtils.isInSortedPosition(grid, 2, comparator));
+    }
+
+
+    /**
+     * The steps AnimeLogView.patchGrids takes for a status change, on plain lists: take the item out of the grid it
+     * was in (tracked separately, not taken from the already changed anime) and insert it sorted into the new one.
+     */
+    @Test
+    void statusChangeMovesBetweenGrids() {
+        List<List<AnimeInfo>> grids = new ArrayList<>();
+        for (int i = 0; i < LogGridUtils.GRID_STATUSES.size(); i++) {
+            grids.add(new ArrayList<>());
+        }
+
+        AnimeInfo moved = anime(1, "B", "Backlog", "Unscored");
+        grids.get(1).add(moved);
+        grids.get(2).add(anime(2, "A", "Completed", "Unscored"));
+        grids.get(2).add(anime(3, "C", "Completed", "Unscored"));
+        int currentGrid = 1;
+
+        moved.setOwnStatus("Completed");
+        int targetGrid = LogGridUtils.getGridIndex(moved.getOwnStatus());
+        assertNotEquals(currentGrid, targetGrid);
+
+        grids.get(currentGrid).remove(moved);
+        List<AnimeInfo> target = grids.get(targetGrid);
+        target.add(LogGridUtils.findInsertIndex(target, moved, comparator), moved);
+
+        assertTrue(grids.get(1).isEmpty());
+        assertEquals(List.of(2, 1, 3), target.stream().map(AnimeInfo::getId).toList());
+        assertTrue(LogGridUtils.isInSortedPosition(target, target.indexOf(moved), comparator));
+    }
+}